@@ -0,0 +1,40 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+
+/**
+ * This {@code ChainAware} interface is used to be implemented by the immutable wrapper classes
+ * that capture the base and the depth of the wrapper chain at construction,
+ * so {@link Inspector#getBaseOfWrapperChain(Object)} and {@link Inspector#getDepthOfWrapperChain(Object)}
+ * on the wrapper chain are a field read instead of a traversal.
+ * <p>
+ * The underlying instance may be non-conforming(not a {@code ChainAware}), e.g. a third-party wrapper;
+ * the {@link io.foldright.inspectablewrappers.utils.ChainAwareDelegate ChainAwareDelegate} helper
+ * reuses the captured values of a conforming underlying instance, and falls back to a traversal at construction.
+ *
+ * @param <T> the type of instances that be wrapped
+ * @see Wrapper
+ * @see io.foldright.inspectablewrappers.utils.ChainAwareDelegate
+ */
+public interface ChainAware<T> extends Wrapper<T> {
+    /**
+     * Returns the base of the wrapper chain, aka. the last instance of the wrapper chain.
+     * <p>
+     * <strong>Specification contracts:</strong>
+     * <ul>
+     * <li>Do NOT return {@code null}.
+     * <li>Return the same instance as the traversal of the wrapper chain, which requires that
+     *     the wrapper chain below this wrapper does not change after construction;
+     *     so neither this wrapper nor the wrapper chain below it contains a {@link ReusableWrapper}.
+     * </ul>
+     */
+    @NonNull
+    T base_();
+
+    /**
+     * Returns the depth of this wrapper, aka. the count of the {@link Wrapper#unwrap_()} calls
+     * from this wrapper to the base of the wrapper chain; the adaptees of {@link WrapperAdapter} are not counted.
+     */
+    int depth_();
+}
@@ -0,0 +1,48 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.List;
+
+
+/**
+ * This {@code CompositeWrapper} interface is used to be implemented by wrapper classes
+ * that wrap multiple underlying instances, e.g. the routing or sharding wrappers.
+ * <p>
+ * The composite wrappers make the wrapper chains an <strong>inspectable wrapper graph</strong>(DAG):
+ * <ul>
+ * <li>The wrapper graph consists of wrapper itself, followed by the instances
+ *     obtained by repeatedly calling {@link Wrapper#unwrap_()} or {@link CompositeWrapper#unwrapAll_()}
+ * <li>The underlying instances MAY be shared by multiple wrappers on the wrapper graph,
+ *     the shared instances are inspected ONLY once
+ * <li>Uses the {@code *WrapperGraph} static methods of {@link Inspector} to inspect the wrapper graph,
+ *     e.g. {@link Inspector#containsInstanceTypeOnWrapperGraph(Object, Class)}
+ * </ul>
+ * <p>
+ * The {@code *WrapperChain} methods of {@link Inspector} inspect a wrapper chain(linked list),
+ * so they do NOT see through a {@code CompositeWrapper}; if a composite wrapper also implements {@link Wrapper},
+ * the wrapper chain continues with {@link Wrapper#unwrap_()}, aka. the primary underlying instance.
+ *
+ * @param <T> the type of instances that be wrapped
+ * @see Wrapper
+ * @see Inspector#travelWrapperGraph(Object, java.util.function.Function)
+ */
+public interface CompositeWrapper<T> {
+    /**
+     * Returns all the underlying instances that be wrapped.
+     * <p>
+     * <strong>Specification contracts:</strong>
+     * <ul>
+     * <li>Do NOT return {@code null} list or a list containing {@code null}.<br>
+     *     If so, the wrapper graph inspection operations of {@link Inspector} will
+     *     throw {@link NullPointerException} when touch the {@code null} value.
+     * <li>The wrapper graph can NOT be CYCLIC(aka. an underlying instance is also an outer wrapper
+     *     of this wrapper on the wrapper graph).<br>If cyclic, the wrapper graph inspection operations
+     *     of {@link Inspector} will throw {@link IllegalStateException}.
+     * <li>If this composite wrapper also implements {@link Wrapper}, the returned list
+     *     SHOULD contain the instance returned by {@link Wrapper#unwrap_()}.
+     * </ul>
+     */
+    @NonNull
+    List<T> unwrapAll_();
+}
@@ -5,13 +5,19 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import org.jetbrains.annotations.Contract;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import static java.util.Objects.requireNonNull;
 
@@ -26,13 +32,28 @@ import static java.util.Objects.requireNonNull;
  *     by static method {@link #containsInstanceTypeOnWrapperChain(Object, Class)}
  * <li>Gets the base of the wrapper chain, aka. the last instance of the wrapper chain
  *     by static method {@link #getBaseOfWrapperChain(Object)}
+ * <li>Gets the depth of the wrapper chain
+ *     by static method {@link #getDepthOfWrapperChain(Object)}
  * <li>Gets the wrapper chain, aka. the list of all instances on the wrapper chain
  *     by static method {@link #getInstancesOfWrapperChain(Object)}
  * <li>Retrieves the attachment of instance on the wrapper chain
  *     by static method {@link #getAttachmentFromWrapperChain(Object, Object)}
+ * <li>Retrieves the attachment bound by {@link ScopedAttachments}, or else of instance on the wrapper chain
+ *     by static method {@link #getScopedAttachmentFromWrapperChain(Object, Object)}
  * <li>Verifies the compliance of wrapper chain with the specification contracts
  *     by static method {@link #verifyWrapperChainContracts(Object)}
  *     or {@link #verifyWrapperChainContracts(Object, Class)}
+ *     or incrementally by {@link #verifyWrapperChainContractsIncrementally(Object)}
+ * <li>Gets the structural fingerprint of the wrapper chain
+ *     by static method {@link #getFingerprintOfWrapperChain(Object)}
+ * <li>Gets the interned shape of the wrapper chain, a diagnostic comparable by identity
+ *     by static method {@link #getShapeOfWrapperChain(Object)}
+ * <li>Streams the wrapper chain to an {@link Appendable} in text or JSON
+ *     by static method {@link #dumpWrapperChain(Object, Appendable, Object...)}
+ *     or {@link #dumpWrapperChainAsJson(Object, Appendable, Object...)}
+ * <li>Wraps the wrapper chain only if no equivalent layer is present, by type or by a key attachment,
+ *     by static method {@link #wrapIfAbsentOnWrapperChain(Object, Class, UnaryOperator)}
+ *     or {@link #wrapIfAttachmentAbsentOnWrapperChain(Object, Object, UnaryOperator)}
  * </ul>
  *
  * <h3>Convenience methods for <code>Wrapper</code> interface</h3>
@@ -56,6 +77,26 @@ import static java.util.Objects.requireNonNull;
  * </ul>
  * <p>
  * You can implement your own inspection logic using above advanced methods.
+ * <p>
+ * The foreign wrappers that can not implement {@link Wrapper}(e.g. the {@code java.sql.Wrapper} implementations)
+ * are traversed in place by the {@link UnwrapStrategy} SPI, without the {@link WrapperAdapter} proxies.
+ *
+ * <h2>Wrapper graph methods</h2>
+ * <p>
+ * The wrapper graph is made by the {@link CompositeWrapper}s, which wrap multiple underlying instances.
+ *
+ * <ul>
+ * <li>Reports whether any instance on the wrapper graph matches the given type
+ *     by static method {@link #containsInstanceTypeOnWrapperGraph(Object, Class)}
+ * <li>Gets the distinct instances on the wrapper graph
+ *     by static method {@link #getInstancesOfWrapperGraph(Object)}
+ * <li>Retrieves the attachment of instance on the wrapper graph
+ *     by static method {@link #getAttachmentFromWrapperGraph(Object, Object)}
+ * <li>Traverses the wrapper graph and applies the given {@link Function} to each distinct instance
+ *     by static method {@link #travelWrapperGraph(Object, Function)}
+ * <li>Finds any instance satisfies the given {@link Predicate}, searches the wide fan-outs in parallel
+ *     by static method {@link #parallelFindAnyInstanceOnWrapperGraph(Object, Predicate)}
+ * </ul>
  *
  * <h2>Note about usage and methods naming</h2>
  * <p>
@@ -70,6 +111,7 @@ import static java.util.Objects.requireNonNull;
  * @see Wrapper
  * @see Attachable
  * @see WrapperAdapter
+ * @see CompositeWrapper
  */
 @DefaultAnnotationForParameters(NonNull.class)
 public final class Inspector {
@@ -82,6 +124,11 @@ public final class Inspector {
      * <p>
      * The wrapper chain consists of wrapper itself, followed by the wrappers
      * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * The not-yet materialized underlying instance of {@link LazyWrapper} is answered
+     * from its declared type when possible, without materializing it.
+     * The traversal ends early at the wrapper whose {@link WrapperDescriptor} declares
+     * that the given type can not occur below it.
      *
      * @param wrapper      wrapper instance/wrapper chain
      * @param instanceType target type
@@ -98,7 +145,7 @@ public final class Inspector {
     public static <W> boolean containsInstanceTypeOnWrapperChain(final W wrapper, final Class<?> instanceType) {
         requireNonNull(wrapper, "wrapper is null");
         requireNonNull(instanceType, "instanceType is null");
-        return testWrapperChain(wrapper, instanceType::isInstance);
+        return travel(wrapper, instanceType, Inspector::containsInstanceType) == Boolean.TRUE;
     }
 
     /**
@@ -133,6 +180,9 @@ public final class Inspector {
      * <p>
      * The wrapper chain consists of wrapper itself, followed by the wrappers
      * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * The base captured by a {@link ChainAware} layer is used, without traversing the rest of wrapper chain;
+     * so getting the base of a conforming wrapper chain is a field read.
      *
      * @param wrapper wrapper instance
      * @param <W>     the type of instances that be wrapped
@@ -146,9 +196,51 @@ public final class Inspector {
     @Contract(pure = true)
     @SuppressWarnings("unchecked")
     public static <W> W getBaseOfWrapperChain(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        if (wrapper instanceof ChainAware) return (W) baseOfChainAware(wrapper);
+
         Object[] holder = new Object[1];
-        forEachOnWrapperChain(wrapper, w -> holder[0] = w);
-        return (W) holder[0];
+        final Optional<Object> base = travelWrapperChain(wrapper, w -> {
+            // the base captured by the conforming layer, no need to traverse the rest of wrapper chain
+            if (w instanceof ChainAware) return Optional.of(baseOfChainAware(w));
+            holder[0] = w;
+            return Optional.empty();
+        });
+        return (W) base.orElse(holder[0]);
+    }
+
+    /**
+     * Gets the depth of the wrapper chain, aka. the count of the {@link Wrapper#unwrap_()} calls
+     * from the wrapper to the base of the wrapper chain; the adaptees of {@link WrapperAdapter} are not counted.
+     * <p>
+     * The wrapper chain consists of wrapper itself, followed by the wrappers
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * The depth captured by a {@link ChainAware} layer is used, without traversing the rest of wrapper chain.
+     *
+     * @param wrapper wrapper instance
+     * @param <W>     the type of instances that be wrapped
+     * @throws NullPointerException  if wrapped argument is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     */
+    @Contract(pure = true)
+    public static <W> int getDepthOfWrapperChain(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        if (wrapper instanceof ChainAware) return ((ChainAware<?>) wrapper).depth_();
+
+        // the count of the instances on the wrapper chain, the adaptees are not counted
+        final int[] count = {0};
+        final boolean[] adapteeNext = {false};
+        return travelWrapperChain(wrapper, w -> {
+            if (w instanceof ChainAware) return Optional.of(count[0] + ((ChainAware<?>) w).depth_());
+            if (!adapteeNext[0]) count[0]++;
+            // the adaptee of WrapperAdapter is processed right after the adapter
+            adapteeNext[0] = !adapteeNext[0] && w instanceof WrapperAdapter;
+            return Optional.empty();
+        }).orElseGet(() -> count[0] - 1);
     }
 
     /**
@@ -181,6 +273,13 @@ public final class Inspector {
      * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
      * <p>
      * If the same key exists in multiple wrappers, outer wrapper win.
+     * ONLY the instances on the wrapper chain are consulted, the request-scoped attachments bound by
+     * {@link ScopedAttachments} are not; use {@link #getScopedAttachmentFromWrapperChain(Object, Object)} for them.
+     * <p>
+     * The not-yet materialized underlying instance of {@link LazyWrapper} is not materialized
+     * if its declared type shows that it is a non-{@link Attachable} base of the wrapper chain.
+     * The traversal ends early at the wrapper whose {@link WrapperDescriptor} declares
+     * that the given key can not be present below it.
      *
      * @param wrapper wrapper instance
      * @param key     the attachment key
@@ -203,14 +302,41 @@ public final class Inspector {
     public static <W, K, V> V getAttachmentFromWrapperChain(final W wrapper, final K key) {
         requireNonNull(wrapper, "wrapper is null");
         requireNonNull(key, "key is null");
-        return travelWrapperChain(wrapper, w -> {
-            if (w instanceof Attachable) {
-                V value = ((Attachable<K, V>) w).getAttachment_(key);
-                return Optional.ofNullable(value);
-            } else {
-                return Optional.empty();
-            }
-        }).orElse(null);
+        final Object value = travel(wrapper, key, Inspector::attachmentOf);
+        return value == ABSENT ? null : (V) value;
+    }
+
+    /**
+     * Retrieves the attachment for the given key, consulting the request-scoped attachments bound by
+     * {@link ScopedAttachments} to the current thread FIRST, then the instances on the wrapper chain;
+     * so the scoped binding wins over the attachments on the wrapper chain.
+     * <p>
+     * The attachments on the wrapper chain are retrieved as {@link #getAttachmentFromWrapperChain(Object, Object)} does.
+     *
+     * @param wrapper wrapper instance
+     * @param key     the attachment key
+     * @param <W>     the type of instances that be wrapped
+     * @param <K>     the type of attachment key
+     * @param <V>     the type of attachment value
+     * @return the scoped attachment value for given key, or else the attachment value of wrapper
+     * for given key on the wrapper chain, or null if the attachment is absent
+     * @throws NullPointerException  if any arguments is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws ClassCastException    if the return value is not type {@code <V>}
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     * @see ScopedAttachments#getAttachment(Object)
+     * @see #getAttachmentFromWrapperChain(Object, Object)
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static <W, K, V> V getScopedAttachmentFromWrapperChain(final W wrapper, final K key) {
+        requireNonNull(wrapper, "wrapper is null");
+        requireNonNull(key, "key is null");
+        final V scoped = ScopedAttachments.getAttachment(key);
+        if (scoped != null) return scoped;
+        return getAttachmentFromWrapperChain(wrapper, key);
     }
 
     /**
@@ -262,12 +388,245 @@ public final class Inspector {
     public static <W> void verifyWrapperChainContracts(final W wrapper, final Class<W> bizInterface) {
         requireNonNull(wrapper, "wrapper is null");
         requireNonNull(bizInterface, "bizInterface is null");
-        forEachOnWrapperChain(wrapper, w -> {
-            if (!bizInterface.isInstance(w)) {
-                throw new IllegalStateException("the instance(" + w.getClass().getName() +
-                        ") on wrapper chain is not an instance of " + bizInterface.getName());
-            }
-        });
+        forEachOnWrapperChain(wrapper, w -> checkBizInterface(w, bizInterface));
+    }
+
+    /**
+     * Verifies the compliance of wrapper chain with the specification contracts incrementally,
+     * reusing the memoized verified status of the tail of the wrapper chain.
+     * <p>
+     * The wrapper chain consists of wrapper itself, followed by the wrappers
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * Same as {@link #verifyWrapperChainContracts(Object)}, except that the verified status of
+     * the instances deeper than 24 layers is memoized
+     * (held weakly, by identity); so when re-wrapping a verified deep wrapper chain by adding layers,
+     * verifying the new head stops at the memoized tail. The memo lookups cost more than checking
+     * the shallower layers, so the shorter wrapper chains are walked fully, without touching the memo.
+     * <p>
+     * <strong>Note:</strong><br>
+     * The memoized status assumes that the wrapper chain below a verified instance does not change;
+     * the instances above a {@link ReusableWrapper} are not memoized.
+     * Use {@link #verifyWrapperChainContracts(Object)} for the other mutable wrapper chains.
+     *
+     * @param wrapper wrapper instance
+     * @param <W>     the type of instances that be wrapped
+     * @throws NullPointerException  if wrapper argument is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     * @see #verifyWrapperChainContracts(Object)
+     */
+    public static <W> void verifyWrapperChainContractsIncrementally(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        verifyIncrementally(wrapper, null);
+    }
+
+    /**
+     * Verifies the compliance of wrapper chain with the specification contracts incrementally,
+     * and checks all instances on wrapper chain is an instance of the given {@code bizInterface};
+     * reusing the memoized verified status of the tail of the wrapper chain for the same {@code bizInterface}.
+     * <p>
+     * The wrapper chain consists of wrapper itself, followed by the wrappers
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * Same as {@link #verifyWrapperChainContractsIncrementally(Object)}, the shorter wrapper chains
+     * are walked fully.
+     * <p>
+     * <strong>Note:</strong><br>
+     * The memoized status assumes that the wrapper chain below a verified instance does not change;
+     * the instances above a {@link ReusableWrapper} are not memoized.
+     * Use {@link #verifyWrapperChainContracts(Object, Class)} for the other mutable wrapper chains.
+     *
+     * @param wrapper wrapper instance
+     * @param <W>     the type of instances that be wrapped
+     * @throws NullPointerException  if any arguments is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if any instance on the wrapper chain is not an instance of {@code bizInterface},
+     *                               or the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     * @see #verifyWrapperChainContracts(Object, Class)
+     */
+    public static <W> void verifyWrapperChainContractsIncrementally(final W wrapper, final Class<W> bizInterface) {
+        requireNonNull(wrapper, "wrapper is null");
+        requireNonNull(bizInterface, "bizInterface is null");
+        verifyIncrementally(wrapper, bizInterface);
+    }
+
+    /**
+     * Gets the 64-bit structural fingerprint of the wrapper chain, computed in one pass.
+     * <p>
+     * The wrapper chain consists of wrapper itself, followed by the wrappers
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * The fingerprint covers the classes of the instances on the wrapper chain in order,
+     * the adapter/adaptee positions of {@link WrapperAdapter}, and the interfaces(e.g. the tag interfaces)
+     * of the adapter proxies created by {@link io.foldright.inspectablewrappers.utils.WrapperAdapterUtils WrapperAdapterUtils}.
+     * The instance states(e.g. the attachments) are NOT covered.
+     * <p>
+     * The wrapper chains of the same structure have the same fingerprint, across instances and JVM runs;
+     * so the fingerprint can be used as a cache key of the structure derived data,
+     * or to dedupe/compare the wrapper chains without keeping the {@link #getInstancesOfWrapperChain(Object)} lists.
+     * As any hash, different structures MAY collide with a tiny probability; the lambda instances(hidden classes)
+     * are covered by their host classes and interfaces only, since their class names are generated.
+     *
+     * @param wrapper wrapper instance
+     * @param <W>     the type of instances that be wrapped
+     * @return the structural fingerprint of the wrapper chain
+     * @throws NullPointerException  if wrapper argument is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     */
+    @Contract(pure = true)
+    public static <W> long getFingerprintOfWrapperChain(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        final WrapperChainFingerprint fingerprint = new WrapperChainFingerprint();
+        travelWrapperChain(wrapper, fingerprint);
+        return fingerprint.fingerprint();
+    }
+
+    /**
+     * Gets the interned(hash-consed) shape of the wrapper chain, computed in one pass.
+     * <p>
+     * The wrapper chain consists of wrapper itself, followed by the wrappers
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * The wrapper chains of the same structure(the classes of the instances in order,
+     * and the adapter/adaptee positions of {@link WrapperAdapter}) get the SAME shape instance.
+     * Like {@link #getFingerprintOfWrapperChain(Object)}, the shape is a diagnostic of the structure,
+     * the other queries do not use it.
+     *
+     * @param wrapper wrapper instance
+     * @param <W>     the type of instances that be wrapped
+     * @return the interned shape of the wrapper chain
+     * @throws NullPointerException  if wrapper argument is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     * @see WrapperChainShape
+     */
+    @NonNull
+    @Contract(pure = true)
+    public static <W> WrapperChainShape getShapeOfWrapperChain(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        final WrapperChainShape.Builder builder = new WrapperChainShape.Builder();
+        travelWrapperChain(wrapper, builder);
+        return builder.build();
+    }
+
+    /**
+     * Writes the wrapper chain to the given {@link Appendable} in text, one line per instance:
+     * the class name and the identity hash code, the adapter/adaptee marks of {@link WrapperAdapter},
+     * and the attachments of the given keys.
+     * <p>
+     * The wrapper chain consists of wrapper itself, followed by the wrappers
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * The output is streamed in one pass, without the intermediate lists or the {@code toString} of the instances;
+     * so dumping many wrapper chains(e.g. to a {@link java.io.BufferedWriter}) allocates little.
+     * If the wrapper chain violates the specification contracts, the exception is thrown after the partial output.
+     *
+     * @param wrapper        wrapper instance
+     * @param out            the output
+     * @param attachmentKeys the keys of the attachments to dump, the {@link Attachable} can not list its keys
+     * @param <W>            the type of instances that be wrapped
+     * @throws IOException           if the output throws
+     * @throws NullPointerException  if any arguments is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     * @see #dumpWrapperChainAsJson(Object, Appendable, Object...)
+     */
+    public static <W> void dumpWrapperChain(final W wrapper, final Appendable out, final Object... attachmentKeys)
+            throws IOException {
+        dump(wrapper, out, false, attachmentKeys);
+    }
+
+    /**
+     * Writes the wrapper chain to the given {@link Appendable} as a JSON object:
+     * {@code {"layers":[{"class":..., "identity":..., "adapter":..., "adaptee":..., "attachments":{...}}, ...]}};
+     * the attachment keys and values are written as JSON strings.
+     * <p>
+     * The wrapper chain consists of wrapper itself, followed by the wrappers
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * The output is streamed in one pass, without the intermediate lists or the {@code toString} of the instances.
+     * If the wrapper chain violates the specification contracts, the exception is thrown after the partial output.
+     *
+     * @param wrapper        wrapper instance
+     * @param out            the output
+     * @param attachmentKeys the keys of the attachments to dump, the {@link Attachable} can not list its keys
+     * @param <W>            the type of instances that be wrapped
+     * @throws IOException           if the output throws
+     * @throws NullPointerException  if any arguments is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     * @see #dumpWrapperChain(Object, Appendable, Object...)
+     */
+    public static <W> void dumpWrapperChainAsJson(final W wrapper, final Appendable out, final Object... attachmentKeys)
+            throws IOException {
+        dump(wrapper, out, true, attachmentKeys);
+    }
+
+    /**
+     * Wraps the wrapper chain by the given wrap function, ONLY if no instance on the wrapper chain
+     * matches the given layer type; so the repeated wrapping(e.g. on every config reload) is idempotent
+     * instead of growing the wrapper chain.
+     *
+     * @param wrapper   wrapper instance/wrapper chain
+     * @param layerType the type of the layer added by the wrap function
+     * @param wrap      the wrap function, wraps the given wrapper chain to a new wrapper chain
+     * @param <W>       the type of instances that be wrapped
+     * @return the given wrapper chain if the layer type is present, otherwise the result of the wrap function
+     * @throws NullPointerException  if any arguments is null, or the wrap function returns null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     * @see #containsInstanceTypeOnWrapperChain(Object, Class)
+     */
+    @NonNull
+    public static <W> W wrapIfAbsentOnWrapperChain(
+            final W wrapper, final Class<?> layerType, final UnaryOperator<W> wrap) {
+        requireNonNull(wrap, "wrap is null");
+        if (containsInstanceTypeOnWrapperChain(wrapper, layerType)) return wrapper;
+        return requireNonNull(wrap.apply(wrapper), "wrap function returns null");
+    }
+
+    /**
+     * Wraps the wrapper chain by the given wrap function, ONLY if no attachment of the given key
+     * is present on the wrapper chain; for the layers identified by a key attachment
+     * rather than by type, e.g. the layers of the same class configured differently.
+     * <p>
+     * ONLY the instances on the wrapper chain are consulted, the request-scoped attachments bound by
+     * {@link ScopedAttachments} do NOT count as present.
+     *
+     * @param wrapper wrapper instance/wrapper chain
+     * @param key     the attachment key set by the layer added by the wrap function
+     * @param wrap    the wrap function, wraps the given wrapper chain to a new wrapper chain
+     * @param <W>     the type of instances that be wrapped
+     * @return the given wrapper chain if the attachment is present, otherwise the result of the wrap function
+     * @throws NullPointerException  if any arguments is null, or the wrap function returns null,
+     *                               or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper chain
+     * @see #getAttachmentFromWrapperChain(Object, Object)
+     */
+    @NonNull
+    public static <W, K> W wrapIfAttachmentAbsentOnWrapperChain(
+            final W wrapper, final K key, final UnaryOperator<W> wrap) {
+        requireNonNull(wrap, "wrap is null");
+        if (getAttachmentFromWrapperChain(wrapper, key) != null) return wrapper;
+        return requireNonNull(wrap.apply(wrapper), "wrap function returns null");
     }
 
     // endregion
@@ -407,6 +766,9 @@ public final class Inspector {
      * <p>
      * The wrapper chain consists of wrapper itself, followed by the wrappers
      * obtained by repeatedly calling {@link Wrapper#unwrap_()}.
+     * <p>
+     * The instances that are not {@link Wrapper} are unwrapped by the {@link UnwrapStrategy} supporting their classes,
+     * if any; so the foreign wrappers are traversed in place, without the adapter proxies.
      *
      * @param wrapper wrapper instance
      * @param process process function
@@ -429,34 +791,451 @@ public final class Inspector {
             final W wrapper, final Function<? super W, Optional<T>> process) {
         requireNonNull(wrapper, "wrapper is null");
         requireNonNull(process, "process is null");
+        return Optional.ofNullable((T) travel(wrapper, process, Inspector::applyProcess));
+    }
+
+    // endregion
+    ////////////////////////////////////////////////////////////////////////////////
+    // region# Wrapper graph methods
+    ////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Reports whether any instance on the wrapper graph matches the given type.
+     * <p>
+     * The wrapper graph consists of wrapper itself, followed by the instances
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()} or {@link CompositeWrapper#unwrapAll_()}.
+     *
+     * @param wrapper      wrapper instance/wrapper graph
+     * @param instanceType target type
+     * @param <W>          the type of instances that be wrapped
+     * @return {@code false} if no instance on the wrapper graph matches the given type,
+     * otherwise return {@code true}
+     * @throws NullPointerException  if any arguments is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()}/{@link CompositeWrapper#unwrapAll_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper graph
+     * @see #travelWrapperGraph(Object, Function)
+     */
+    @Contract(pure = true)
+    public static <W> boolean containsInstanceTypeOnWrapperGraph(final W wrapper, final Class<?> instanceType) {
+        requireNonNull(wrapper, "wrapper is null");
+        requireNonNull(instanceType, "instanceType is null");
+        return travelWrapperGraph(wrapper, w -> instanceType.isInstance(w) ? Optional.of(true) : Optional.empty())
+                .orElse(false);
+    }
+
+    /**
+     * Gets the distinct instances on the wrapper graph, in depth-first pre-order.
+     * <p>
+     * The wrapper graph consists of wrapper itself, followed by the instances
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()} or {@link CompositeWrapper#unwrapAll_()}.
+     *
+     * @param wrapper wrapper instance/wrapper graph
+     * @param <W>     the type of instances that be wrapped
+     * @throws NullPointerException  if wrapper argument is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()}/{@link CompositeWrapper#unwrapAll_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper graph
+     * @see #travelWrapperGraph(Object, Function)
+     */
+    @NonNull
+    @Contract(pure = true)
+    public static <W> List<W> getInstancesOfWrapperGraph(final W wrapper) {
+        List<W> ret = new ArrayList<>();
+        travelWrapperGraph(wrapper, w -> {
+            ret.add(w);
+            return Optional.empty();
+        });
+        return ret;
+    }
+
+    /**
+     * Retrieves the attachment of instance on the wrapper graph for the given key
+     * by calling {@link Attachable#getAttachment_(Object)}.
+     * <p>
+     * The wrapper graph consists of wrapper itself, followed by the instances
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()} or {@link CompositeWrapper#unwrapAll_()}.
+     * <p>
+     * If the same key exists in multiple instances, the first instance in depth-first pre-order win.
+     *
+     * @param wrapper wrapper instance/wrapper graph
+     * @param key     the attachment key
+     * @param <W>     the type of instances that be wrapped
+     * @param <K>     the type of attachment key
+     * @param <V>     the type of attachment value
+     * @return the attachment value for given key on the wrapper graph, or null if the attachment is absent
+     * @throws NullPointerException  if any arguments is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()}/{@link CompositeWrapper#unwrapAll_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws ClassCastException    if the return value is not type {@code <V>}
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper graph
+     * @see #travelWrapperGraph(Object, Function)
+     */
+    @Nullable
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    public static <W, K, V> V getAttachmentFromWrapperGraph(final W wrapper, final K key) {
+        requireNonNull(wrapper, "wrapper is null");
+        requireNonNull(key, "key is null");
+        return travelWrapperGraph(wrapper, w -> {
+            if (w instanceof Attachable) {
+                V value = ((Attachable<K, V>) w).getAttachment_(key);
+                return Optional.ofNullable(value);
+            } else {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Traverses the wrapper graph in depth-first pre-order and applies the given {@code process} function to
+     * each distinct instance on the wrapper graph, returns the first non-empty({@link Optional#empty()}) result
+     * of the process function, otherwise returns {@link Optional#empty()}.
+     * Exceptions thrown by the process function are relayed to the caller.
+     * <p>
+     * The wrapper graph consists of wrapper itself, followed by the instances
+     * obtained by repeatedly calling {@link Wrapper#unwrap_()} or {@link CompositeWrapper#unwrapAll_()}.
+     * The instances shared by multiple wrappers are processed ONLY once;
+     * like {@link #travelWrapperChain(Object, Function)}, the adaptee of {@link WrapperAdapter}
+     * is processed right after the adapter.
+     * <p>
+     * Visited instances are tracked by identity, an instance that is also its own outer wrapper
+     * on the wrapper graph is reported as CYCLIC wrapper graph.
+     *
+     * @param wrapper wrapper instance/wrapper graph
+     * @param process process function
+     * @param <W>     the type of instances that be wrapped
+     * @param <T>     the return data type of process function
+     * @return the first non-empty({@link Optional#empty()}) result of the process function,
+     * otherwise an empty {@code Optional}
+     * @throws NullPointerException  if any arguments is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()}/{@link CompositeWrapper#unwrapAll_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper graph
+     * @see #parallelFindAnyInstanceOnWrapperGraph(Object, Predicate)
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <W, T> Optional<T> travelWrapperGraph(
+            final W wrapper, final Function<? super W, Optional<T>> process) {
+        requireNonNull(wrapper, "wrapper is null");
+        requireNonNull(process, "process is null");
+
+        // TRUE: on the current traversal path; FALSE: traversal of the instance and its underlying is finished
+        final Map<Object, Boolean> visiting = new IdentityHashMap<>();
+        final Deque<Iterator<?>> path = new ArrayDeque<>();
+        final Deque<Object> pathNodes = new ArrayDeque<>();
+
+        Object node = wrapper;
+        while (true) {
+            if (node != null) {
+                visiting.put(node, Boolean.TRUE);
+                Optional<T> result = process.apply((W) node);
+                if (result.isPresent()) return result;
+                if (node instanceof WrapperAdapter) {
+                    Optional<T> r = process.apply((W) adapteeNonWrapper(node));
+                    if (r.isPresent()) return r;
+                }
+                path.push(underlyingOfGraphNode(node).iterator());
+                pathNodes.push(node);
+            }
+
+            node = null;
+            final Iterator<?> children = path.peek();
+            if (children == null) return Optional.empty();
+            if (children.hasNext()) {
+                final Object child = children.next();
+                final Boolean state = visiting.get(child);
+                if (state == Boolean.TRUE) {
+                    throw new IllegalStateException("CYCLIC wrapper graph" +
+                            ", duplicate instance of " + child.getClass().getName());
+                }
+                if (state == null) node = child;
+            } else {
+                path.pop();
+                visiting.put(pathNodes.pop(), Boolean.FALSE);
+            }
+        }
+    }
+
+    /**
+     * Finds any instance on the wrapper graph satisfies the given {@code predicate}, searches the underlying instances
+     * of {@link CompositeWrapper} in parallel using {@link ForkJoinPool#commonPool()}.
+     * <p>
+     * Same as {@link #parallelFindAnyInstanceOnWrapperGraph(Object, Predicate, ForkJoinPool)}
+     * with {@link ForkJoinPool#commonPool()}.
+     *
+     * @see #parallelFindAnyInstanceOnWrapperGraph(Object, Predicate, ForkJoinPool)
+     */
+    @NonNull
+    public static <W> Optional<W> parallelFindAnyInstanceOnWrapperGraph(
+            final W wrapper, final Predicate<? super W> predicate) {
+        return parallelFindAnyInstanceOnWrapperGraph(wrapper, predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds any instance on the wrapper graph satisfies the given {@code predicate}, searches the underlying instances
+     * of {@link CompositeWrapper} in parallel using the given {@link ForkJoinPool}.
+     * Exceptions thrown by the {@code predicate} are relayed to the caller.
+     * <p>
+     * Useful for the wide fan-out wrapper graphs(e.g. hundreds of shards); the {@code predicate} MUST be thread-safe.
+     * Each instance is tested only once, but the instance shared by the concurrently searched sub wrapper graphs
+     * may be walked by more than one task, so that the cycle is detected on every traversal path.
+     * Unlike {@link #travelWrapperGraph(Object, Function)}, the found instance is NOT necessarily
+     * the first one in depth-first pre-order, and the search stops as soon as any instance is found.
+     *
+     * @param wrapper   wrapper instance/wrapper graph
+     * @param predicate inspect logic
+     * @param pool      the pool to run the parallel search
+     * @param <W>       the type of instances that be wrapped
+     * @return an {@link Optional} containing any instance on the wrapper graph that satisfy the given {@code predicate},
+     * or an empty {@code Optional} if no instance satisfy the given {@code predicate}
+     * @throws NullPointerException  if any arguments is null,
+     *                               or any wrapper {@link Wrapper#unwrap_()}/{@link CompositeWrapper#unwrapAll_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                               or CYCLIC wrapper graph
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <W> Optional<W> parallelFindAnyInstanceOnWrapperGraph(
+            final W wrapper, final Predicate<? super W> predicate, final ForkJoinPool pool) {
+        requireNonNull(wrapper, "wrapper is null");
+        requireNonNull(predicate, "predicate is null");
+        requireNonNull(pool, "pool is null");
+
+        final GraphSearch search = new GraphSearch((Predicate<Object>) predicate);
+        pool.invoke(new GraphSearchTask(search, wrapper, null));
+        return Optional.ofNullable((W) search.found.get());
+    }
+
+    /**
+     * The shared state of a parallel wrapper graph search.
+     */
+    private static final class GraphSearch {
+        final Predicate<Object> predicate;
+        final AtomicReference<Object> found = new AtomicReference<>();
+        /**
+         * The tested instances, each instance is tested only once.
+         */
+        final Set<Object> visited = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        /**
+         * The instances whose sub wrapper graph is searched completely and is acyclic;
+         * only the finished instances end the walk of other tasks, the visited ones in progress do NOT,
+         * otherwise a cycle entered at the different instances by the concurrent tasks is undetected.
+         */
+        final Set<Object> finished = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        GraphSearch(Predicate<Object> predicate) {
+            this.predicate = predicate;
+        }
+
+        boolean test(Object node) {
+            if (found.get() != null) return true;
+            if (predicate.test(node)) {
+                found.compareAndSet(null, node);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Searches the sub wrapper graph from a node, walks the linear part of the wrapper graph in the current task,
+     * and forks tasks for the underlying instances of {@link CompositeWrapper}.
+     */
+    private static final class GraphSearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 0;
+
+        private final transient GraphSearch search;
+        private final transient Object start;
+        /**
+         * The outer wrappers of the start node, for the cycle detection.
+         */
+        @Nullable
+        private final transient PathNode outers;
+
+        GraphSearchTask(GraphSearch search, Object start, @Nullable PathNode outers) {
+            this.search = search;
+            this.start = start;
+            this.outers = outers;
+        }
+
+        @Override
+        protected void compute() {
+            Object node = start;
+            PathNode path = outers;
+            while (true) {
+                if (PathNode.contains(path, node)) {
+                    throw new IllegalStateException("CYCLIC wrapper graph" +
+                            ", duplicate instance of " + node.getClass().getName());
+                }
+                if (search.finished.contains(node)) break;
+                if (search.visited.add(node)) {
+                    if (search.test(node)) return;
+                    if (node instanceof WrapperAdapter && search.test(adapteeNonWrapper(node))) return;
+                } else if (search.found.get() != null) return;
+
+                path = new PathNode(node, path);
+                final List<?> underlying = underlyingOfGraphNode(node);
+                if (underlying.isEmpty()) break;
+                if (underlying.size() == 1) {
+                    node = underlying.get(0);
+                    continue;
+                }
+
+                final List<GraphSearchTask> tasks = new ArrayList<>(underlying.size());
+                for (Object u : underlying) tasks.add(new GraphSearchTask(search, u, path));
+                invokeAll(tasks);
+                break;
+            }
+            // the sub wrapper graphs of the instances walked by this task are searched completely
+            for (PathNode p = path; p != outers; p = p.outer) search.finished.add(p.node);
+        }
+    }
+
+    /**
+     * The immutable linked list of the outer wrappers on the traversal path.
+     */
+    private static final class PathNode {
+        final Object node;
+        @Nullable
+        final PathNode outer;
+
+        PathNode(Object node, @Nullable PathNode outer) {
+            this.node = node;
+            this.outer = outer;
+        }
+
+        static boolean contains(@Nullable PathNode path, Object node) {
+            for (PathNode p = path; p != null; p = p.outer) {
+                if (p.node == node) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Gets the underlying instances of the given instance on the wrapper graph with {@code null} check.
+     */
+    @Contract(pure = true)
+    private static List<?> underlyingOfGraphNode(final Object wrapper) {
+        if (wrapper instanceof CompositeWrapper) {
+            final List<?> underlying = ((CompositeWrapper<?>) wrapper).unwrapAll_();
+            Supplier<String> msg = () -> "unwrapAll of CompositeWrapper(" + wrapper.getClass().getName() + ") is null";
+            requireNonNull(underlying, msg);
+            for (Object u : underlying) {
+                Supplier<String> elementMsg = () -> "unwrapAll of CompositeWrapper(" +
+                        wrapper.getClass().getName() + ") contains null";
+                requireNonNull(u, elementMsg);
+            }
+            return underlying;
+        }
+        final Object underlying = underlyingOnChain(wrapper);
+        if (underlying == null) return Collections.emptyList();
+        return Collections.singletonList(underlying);
+    }
+
+    // endregion
+    ////////////////////////////////////////////////////////////////////////////////
+    // region# Internal helper methods
+    ////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The allocation-free core of {@link #travelWrapperChain(Object, Function)}.
+     * <p>
+     * The {@code process} function is applied to each instance on the wrapper chain and the given {@code arg},
+     * returns {@code null} to continue the traversal; the hot queries pass the non-capturing method references
+     * and their argument, so neither a capturing lambda nor an {@link Optional} is allocated per query.
+     *
+     * @return the first non-{@code null} result of the process function, otherwise {@code null}
+     */
+    @Nullable
+    private static Object travel(final Object wrapper, final Object arg,
+                                 final BiFunction<Object, Object, Object> process) {
         // keep a slow pointer that slowly walks the wrapper chain.
         // if the fast pointer ever catches the slower pointer, then there's a loop.
         Object fastPointer = wrapper, slowPointer = wrapper;
         boolean advanceSlowPointer = false;
         while (true) {
             // process the instance on wrapper chain
-            Optional<T> result = process.apply((W) fastPointer);
-            if (result.isPresent()) return result;
+            Object result = process.apply(fastPointer, arg);
+            if (result != null) return result;
 
             // also process the adaptee for WrapperAdapter
             if (fastPointer instanceof WrapperAdapter) {
-                Optional<T> r = process.apply((W) adapteeNonWrapper(fastPointer));
-                if (r.isPresent()) return r;
+                Object r = process.apply(adapteeNonWrapper(fastPointer), arg);
+                if (r != null) return r;
             }
 
-            if (!isWrapper(fastPointer)) return Optional.empty();
-            fastPointer = unwrapNonNull(fastPointer);
+            final Object underlying = underlyingOnChain(fastPointer);
+            if (underlying == null) return null;
+            fastPointer = underlying;
             if (fastPointer == slowPointer) {
                 throw new IllegalStateException("CYCLIC wrapper chain" +
                         ", duplicate instance of " + fastPointer.getClass().getName());
             }
 
-            if (advanceSlowPointer) slowPointer = ((Wrapper<?>) slowPointer).unwrap_();
+            if (advanceSlowPointer) slowPointer = underlyingOnChain(slowPointer);
             advanceSlowPointer = !advanceSlowPointer; // only advance every other iteration
         }
     }
 
+    /**
+     * Adapts the process function of {@link #travelWrapperChain(Object, Function)} to {@link #travel}.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Object applyProcess(final Object instance, final Object process) {
+        return ((Function<Object, Optional<?>>) process).apply(instance).orElse(null);
+    }
+
+    /**
+     * The process of {@link #containsInstanceTypeOnWrapperChain(Object, Class)},
+     * returns {@link Boolean#TRUE}/{@link Boolean#FALSE} to end the traversal, or {@code null} to continue.
+     */
+    @Nullable
+    private static Object containsInstanceType(final Object instance, final Object instanceType) {
+        final Class<?> type = (Class<?>) instanceType;
+        if (type.isInstance(instance)) return Boolean.TRUE;
+        if (isLazyUnmaterialized(instance)) {
+            final Class<?> declaredType = declaredUnderlyingTypeNonNull(instance);
+            if (type.isAssignableFrom(declaredType)) return Boolean.TRUE;
+            // the underlying instance is the base of the wrapper chain, no need to materialize it
+            if (isDeclaredBaseType(declaredType) && !(instance instanceof WrapperAdapter)) return Boolean.FALSE;
+        }
+        final WrapperDescriptor descriptor = WrapperDescriptor.lookup(instance.getClass());
+        if (descriptor != null && !descriptor.mayContainInstanceTypeBelow(type)) return Boolean.FALSE;
+        return null;
+    }
+
+    /**
+     * The process of {@link #getAttachmentFromWrapperChain(Object, Object)},
+     * returns the attachment value or {@link #ABSENT} to end the traversal, or {@code null} to continue.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Object attachmentOf(final Object instance, final Object key) {
+        if (instance instanceof Attachable) {
+            Object v = ((Attachable<Object, Object>) instance).getAttachment_(key);
+            if (v != null) return v;
+        }
+        // the underlying instance is a non-Attachable base of the wrapper chain, no need to materialize it
+        if (isLazyUnmaterialized(instance) && !(instance instanceof WrapperAdapter)) {
+            final Class<?> declaredType = declaredUnderlyingTypeNonNull(instance);
+            if (isDeclaredBaseType(declaredType) && !Attachable.class.isAssignableFrom(declaredType)) {
+                return ABSENT;
+            }
+        }
+        final WrapperDescriptor descriptor = WrapperDescriptor.lookup(instance.getClass());
+        if (descriptor != null && !descriptor.mayContainAttachmentBelow(key)) return ABSENT;
+        return null;
+    }
+
     /**
      * Gets adaptee of the given WrapperAdapter instance with {@code null} check and non-{@link Wrapper} type check.
      */
@@ -464,8 +1243,9 @@ public final class Inspector {
     private static Object adapteeNonWrapper(final Object wrapper) {
         final Object adaptee = ((WrapperAdapter<?>) wrapper).adaptee_();
 
-        Supplier<String> msg = () -> "adaptee of WrapperAdapter(" + wrapper.getClass().getName() + ") is null";
-        requireNonNull(adaptee, msg);
+        if (adaptee == null) {
+            throw new NullPointerException("adaptee of WrapperAdapter(" + wrapper.getClass().getName() + ") is null");
+        }
 
         if (isWrapper(adaptee)) {
             throw new IllegalStateException("adaptee(" + adaptee.getClass().getName() +
@@ -476,14 +1256,153 @@ public final class Inspector {
         return adaptee;
     }
 
+    private static void dump(final Object wrapper, final Appendable out, final boolean json,
+                             final Object[] attachmentKeys) throws IOException {
+        requireNonNull(wrapper, "wrapper is null");
+        requireNonNull(out, "out is null");
+        requireNonNull(attachmentKeys, "attachmentKeys is null");
+        for (Object key : attachmentKeys) requireNonNull(key, "attachmentKeys contains null");
+
+        final WrapperChainDumper dumper = new WrapperChainDumper(out, json, attachmentKeys);
+        dumper.begin();
+        try {
+            travelWrapperChain(wrapper, dumper);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        dumper.end();
+    }
+
+    /**
+     * Verifies the wrapper chain until the memoized verified tail, then memoizes the new verified wrappers;
+     * the memo is consulted and updated ONLY for the instances deeper than the break-even depth,
+     * so the shorter wrapper chains cost the same as the full walk.
+     */
+    private static void verifyIncrementally(final Object wrapper, @Nullable final Class<?> bizInterface) {
+        final IncrementalVerification verification = new IncrementalVerification(bizInterface);
+        travel(wrapper, verification, Inspector::verifyIncrementally);
+        final List<Object> newWrappers = verification.newWrappers;
+        if (newWrappers == null) return;
+        for (Object w : newWrappers) VerifiedWrapperChains.markVerified(w, bizInterface);
+    }
+
+    /**
+     * The process of {@link #verifyIncrementally(Object, Class)},
+     * returns the memoized verified instance to end the traversal, or {@code null} to continue.
+     */
+    @Nullable
+    private static Object verifyIncrementally(final Object instance, final Object verificationArg) {
+        final IncrementalVerification verification = (IncrementalVerification) verificationArg;
+        if (verification.bizInterface != null) checkBizInterface(instance, verification.bizInterface);
+        // the shallower instances are just checked, like the full walk
+        if (verification.index++ < VerifiedWrapperChains.MIN_MEMOIZED_DEPTH || !(instance instanceof Wrapper)) {
+            return null;
+        }
+
+        if (VerifiedWrapperChains.isVerified(instance, verification.bizInterface)) return instance;
+        // the wrapper chains above a rebound wrapper change; the shallower ones are not memoized anyway
+        if (instance instanceof ReusableWrapper) verification.newWrappers = null;
+        else {
+            if (verification.newWrappers == null) verification.newWrappers = new ArrayList<>();
+            verification.newWrappers.add(instance);
+        }
+        return null;
+    }
+
+    /**
+     * The state of {@link #verifyIncrementally(Object, Class)}.
+     */
+    private static final class IncrementalVerification {
+        @Nullable
+        final Class<?> bizInterface;
+        int index;
+        @Nullable
+        List<Object> newWrappers;
+
+        IncrementalVerification(@Nullable Class<?> bizInterface) {
+            this.bizInterface = bizInterface;
+        }
+    }
+
+    private static void checkBizInterface(final Object instance, final Class<?> bizInterface) {
+        if (!bizInterface.isInstance(instance)) {
+            throw new IllegalStateException("the instance(" + instance.getClass().getName() +
+                    ") on wrapper chain is not an instance of " + bizInterface.getName());
+        }
+    }
+
+    /**
+     * The marker of the absent result, to stop the traversal of the wrapper chain early.
+     */
+    private static final Object ABSENT = new Object();
+
+    /**
+     * Checks the given instance is a {@link LazyWrapper} whose underlying instance is not materialized yet.
+     */
+    @Contract(pure = true)
+    private static boolean isLazyUnmaterialized(final Object wrapper) {
+        return wrapper instanceof LazyWrapper && !((LazyWrapper<?>) wrapper).isUnderlyingMaterialized_();
+    }
+
+    /**
+     * Gets the base of the given {@link ChainAware} instance with {@code null} check.
+     */
+    @Contract(pure = true)
+    private static Object baseOfChainAware(final Object wrapper) {
+        Object base = ((ChainAware<?>) wrapper).base_();
+        if (base == null) {
+            throw new NullPointerException("base of ChainAware(" + wrapper.getClass().getName() + ") is null");
+        }
+        return base;
+    }
+
+    /**
+     * Gets the declared underlying type of the given {@link LazyWrapper} instance with {@code null} check.
+     */
+    @Contract(pure = true)
+    private static Class<?> declaredUnderlyingTypeNonNull(final Object wrapper) {
+        Class<?> type = ((LazyWrapper<?>) wrapper).declaredUnderlyingType_();
+        if (type == null) {
+            throw new NullPointerException("declared underlying type of LazyWrapper(" +
+                    wrapper.getClass().getName() + ") is null");
+        }
+        return type;
+    }
+
+    /**
+     * Checks the instances of the given declared type are always the base of the wrapper chain,
+     * aka. the type is a {@code final} class that does not implement {@link Wrapper},
+     * and is not unwrapped by an {@link UnwrapStrategy}.
+     */
+    @Contract(pure = true)
+    private static boolean isDeclaredBaseType(final Class<?> declaredType) {
+        return Modifier.isFinal(declaredType.getModifiers()) && !declaredType.isInterface()
+                && !Wrapper.class.isAssignableFrom(declaredType)
+                && UnwrapStrategies.lookup(declaredType) == null;
+    }
+
+    /**
+     * Gets the underlying instance of the given instance on the wrapper chain, unwraps the {@link Wrapper}
+     * with {@code null} check, or the foreign wrapper by its {@link UnwrapStrategy};
+     * returns {@code null} if the given instance is the base of the wrapper chain.
+     */
+    @Nullable
+    private static Object underlyingOnChain(final Object instance) {
+        if (isWrapper(instance)) return unwrapNonNull(instance);
+        return UnwrapStrategies.unwrapForeign(instance);
+    }
+
     /**
      * Unwraps the given wrapper instance with {@code null} check.
      */
     @Contract(pure = true)
     private static Object unwrapNonNull(final Object wrapper) {
         Object unwrap = ((Wrapper<?>) wrapper).unwrap_();
-        Supplier<String> msg = () -> "unwrap of Wrapper(" + wrapper.getClass().getName() + ") is null";
-        return requireNonNull(unwrap, msg);
+        // checks without the message Supplier, which is a capturing lambda allocated per call on the hot path
+        if (unwrap == null) {
+            throw new NullPointerException("unwrap of Wrapper(" + wrapper.getClass().getName() + ") is null");
+        }
+        return unwrap;
     }
 
     private Inspector() {}
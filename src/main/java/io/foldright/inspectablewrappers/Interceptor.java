@@ -0,0 +1,41 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+
+/**
+ * This {@code Interceptor} interface is used to be implemented by the interceptors run by
+ * {@link io.foldright.inspectablewrappers.utils.InterceptorChain InterceptorChain},
+ * the flat alternative of the deep chains of tiny wrappers.
+ * <p>
+ * The interceptors do not wrap each other, so they do not call the next stage;
+ * the chain calls {@link #before_(Object)} of the interceptors from the outermost to the innermost,
+ * then the base, then {@link #after_(Object, Object, Throwable)} in the reverse order,
+ * the same order as the nested wrappers run their code around the delegation.
+ * <p>
+ * The interceptors are inspectable by {@link Inspector} through the stage views of the chain,
+ * e.g. {@link Inspector#containsInstanceTypeOnWrapperChain(Object, Class)} finds the interceptor types;
+ * the interceptors that implement {@link Attachable} expose their attachments on the wrapper chain.
+ *
+ * @param <T> the type of the base instance of the chain
+ * @see io.foldright.inspectablewrappers.utils.InterceptorChain
+ */
+public interface Interceptor<T> {
+    /**
+     * Invoked before the request reaches the base; throws an unchecked exception to reject the request,
+     * then the inner interceptors and the base are not invoked.
+     */
+    default void before_(@NonNull Object request) {
+    }
+
+    /**
+     * Invoked after the request is handled by the inner stages, even if they failed;
+     * an unchecked exception thrown here replaces the result or the error seen by the outer interceptors.
+     *
+     * @param result the result of the inner stages, {@code null} if failed
+     * @param error  the error of the inner stages, {@code null} if succeeded
+     */
+    default void after_(@NonNull Object request, @Nullable Object result, @Nullable Throwable error) {
+    }
+}
@@ -0,0 +1,48 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+
+/**
+ * This {@code LazyWrapper} interface is used to be implemented by wrapper classes
+ * that create the underlying instance lazily, e.g. a connection or a remote stub.
+ * <p>
+ * The lazy wrapper reports the declared type of its underlying instance without materializing it,
+ * so the {@link Inspector} queries that can be answered from the declared type stop there,
+ * and only force the creation of the underlying instance when the query needs the real instance:
+ * <ul>
+ * <li>{@link Inspector#containsInstanceTypeOnWrapperChain(Object, Class)} answers {@code true}
+ *     if the declared type matches the given type
+ * <li>If the declared type is a {@code final} class that does not implement {@link Wrapper},
+ *     the underlying instance is the base of the wrapper chain; so
+ *     {@link Inspector#containsInstanceTypeOnWrapperChain(Object, Class)}
+ *     and {@link Inspector#getAttachmentFromWrapperChain(Object, Object)} answer without touching it
+ * <li>Other queries(e.g. {@link Inspector#getBaseOfWrapperChain(Object)}) call {@link Wrapper#unwrap_()}
+ *     as usual, which materializes the underlying instance
+ * </ul>
+ * <p>
+ * After the underlying instance is materialized, the {@link Inspector} queries inspect it as usual.
+ *
+ * @param <T> the type of instances that be wrapped
+ * @see Wrapper
+ * @see Inspector
+ */
+public interface LazyWrapper<T> extends Wrapper<T> {
+    /**
+     * Returns the declared type of the underlying instance, without materializing it.
+     * <p>
+     * <strong>Specification contracts:</strong>
+     * <ul>
+     * <li>Do NOT return {@code null}.
+     * <li>The underlying instance returned by {@link Wrapper#unwrap_()} MUST be an instance of the declared type.
+     * </ul>
+     */
+    @NonNull
+    Class<?> declaredUnderlyingType_();
+
+    /**
+     * Reports whether the underlying instance is already materialized;
+     * if so, calling {@link Wrapper#unwrap_()} is cheap.
+     */
+    boolean isUnderlyingMaterialized_();
+}
@@ -0,0 +1,36 @@
+package io.foldright.inspectablewrappers;
+
+import java.lang.annotation.*;
+
+
+/**
+ * Declares that the annotated method of a {@link Wrapper} class delegates the call UNCHANGED
+ * to the underlying instance returned by {@link Wrapper#unwrap_()}, aka. the wrapper does not intercept the method.
+ * <p>
+ * With the declarations, {@link PassThroughShortcuts} builds a shortcut of a method for the wrapper chain,
+ * which jumps straight to the first intercepting instance on the wrapper chain, skipping the pass-through hops.
+ * <p>
+ * <strong>Specification contracts:</strong>
+ * <ul>
+ * <li>The annotated method MUST call the same method of the underlying instance with the same arguments,
+ *     and return its result or propagate its exception, without any other side effects.
+ * </ul>
+ * The annotation is ignored on the methods of the classes that are not {@link Wrapper}.
+ *
+ * <pre>{@code
+ * public class MyWrapper implements Service, Wrapper<Service> {
+ *     public String intercepted(String arg) { ... }
+ *
+ *     @PassThrough
+ *     public String delegated(String arg) { return service.delegated(arg); }
+ *     ...
+ * }
+ * }</pre>
+ *
+ * @see PassThroughShortcuts
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PassThrough {
+}
@@ -0,0 +1,131 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.jetbrains.annotations.Contract;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * Builds the per-method shortcuts of the wrapper chain, which skip the wrappers
+ * that pass the method through UNCHANGED(declared by {@link PassThrough}).
+ * <p>
+ * Many wrappers intercept only some methods of the biz interface and delegate the rest unchanged;
+ * a call of a method that no wrapper intercepts still goes through every hop of the wrapper chain.
+ * The shortcut of a method is a {@link MethodHandle} bound to the first instance on the wrapper chain
+ * that intercepts the method, or the base of the wrapper chain.
+ * <p>
+ * Whether a wrapper class passes a method through is resolved once per class and method,
+ * cached by {@link ClassValue}. The {@link WrapperAdapter} instances always intercept the biz methods,
+ * they delegate the calls to the adaptees.
+ * <p>
+ * <strong>Note:</strong><br>
+ * The shortcut is a snapshot of the wrapper chain, build it for the immutable wrapper chains,
+ * e.g. once after the wrapper chain is assembled, and invoke it on the hot path.
+ *
+ * <pre>{@code
+ * final MethodHandle delegated = PassThroughShortcuts.getShortcut(service,
+ *         Service.class.getMethod("delegated", String.class));
+ * // calls the first intercepting instance of the wrapper chain directly
+ * String result = (String) delegated.invokeExact("arg");
+ * }</pre>
+ *
+ * @see PassThrough
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class PassThroughShortcuts {
+    private static final ClassValue<ConcurrentMap<Method, Boolean>> PASS_THROUGH_METHODS =
+            new ClassValue<ConcurrentMap<Method, Boolean>>() {
+                @Override
+                protected ConcurrentMap<Method, Boolean> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * Gets the first instance on the wrapper chain that intercepts the given method,
+     * or the base of the wrapper chain if all wrappers pass the method through.
+     *
+     * @param wrapper wrapper instance/wrapper chain
+     * @param method  the method of the biz interface
+     * @throws NullPointerException     if any arguments is null,
+     *                                  or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                                  or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalArgumentException if the method is not an interface method
+     * @throws IllegalStateException    if the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                                  or CYCLIC wrapper chain
+     */
+    @NonNull
+    @Contract(pure = true)
+    public static <W> W getInterceptingInstance(final W wrapper, final Method method) {
+        requireNonNull(wrapper, "wrapper is null");
+        requireNonNull(method, "method is null");
+        if (!method.getDeclaringClass().isInterface() || Modifier.isStatic(method.getModifiers())) {
+            throw new IllegalArgumentException("method(" + method + ") is not an interface instance method");
+        }
+
+        // always found: the base of the wrapper chain is not a Wrapper, never passes through;
+        // and the adaptee of WrapperAdapter is never reached, the adapter itself intercepts
+        return Inspector.findFirstInstanceOnWrapperChain(wrapper, w -> !isPassThrough(w.getClass(), method)).get();
+    }
+
+    /**
+     * Gets the shortcut of the given method for the wrapper chain, a {@link MethodHandle}
+     * of the method type(without the receiver) bound to the
+     * {@link #getInterceptingInstance(Object, Method) first intercepting instance}.
+     *
+     * @param wrapper wrapper instance/wrapper chain
+     * @param method  the public method of the public biz interface
+     * @throws NullPointerException     if any arguments is null,
+     *                                  or any wrapper {@link Wrapper#unwrap_()} returns null,
+     *                                  or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalArgumentException if the method is not a public interface method
+     * @throws IllegalStateException    if the intercepting instance is not an instance of the declaring interface,
+     *                                  or the adaptee of {@link WrapperAdapter} is an instance of {@link Wrapper}
+     *                                  or CYCLIC wrapper chain
+     */
+    @NonNull
+    public static <W> MethodHandle getShortcut(final W wrapper, final Method method) {
+        final Object target = getInterceptingInstance(wrapper, method);
+        if (!method.getDeclaringClass().isInstance(target)) {
+            throw new IllegalStateException("the intercepting instance(" + target.getClass().getName() +
+                    ") on wrapper chain is not an instance of " + method.getDeclaringClass().getName());
+        }
+
+        final MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("method(" + method + ") is not accessible", e);
+        }
+        return handle.bindTo(target);
+    }
+
+    /**
+     * Reports whether the given class passes the given interface method through, aka. the class is a {@link Wrapper}
+     * and its implementation of the method is annotated by {@link PassThrough}.
+     */
+    @Contract(pure = true)
+    static boolean isPassThrough(Class<?> type, Method method) {
+        if (!Wrapper.class.isAssignableFrom(type) || WrapperAdapter.class.isAssignableFrom(type)) return false;
+        return PASS_THROUGH_METHODS.get(type).computeIfAbsent(method, m -> {
+            try {
+                final Method impl = type.getMethod(m.getName(), m.getParameterTypes());
+                return impl.isAnnotationPresent(PassThrough.class);
+            } catch (NoSuchMethodException e) {
+                // the method is not implemented by the class
+                return false;
+            }
+        });
+    }
+
+    private PassThroughShortcuts() {}
+}
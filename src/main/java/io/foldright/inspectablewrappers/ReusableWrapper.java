@@ -0,0 +1,43 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+
+/**
+ * This {@code ReusableWrapper} interface is used to be implemented by the short-lived wrapper classes
+ * (e.g. the per-request context-binding executors) whose instances are recycled
+ * by a pool, e.g. {@link io.foldright.inspectablewrappers.utils.WrapperPool WrapperPool},
+ * instead of being allocated per use.
+ * <p>
+ * A reusable wrapper is a normal {@link Wrapper} during the use, so the wrapper chain is fully inspectable
+ * by {@link Inspector}; between the uses, it is rebound to a placeholder underlying instance
+ * that rejects every call, so the use after release fails fast.
+ * <p>
+ * As the wrapper is rebound, the wrapper chain below it is NOT fixed: do NOT implement {@link ChainAware},
+ * and do NOT wrap a reusable wrapper by the layers that capture the wrapper chain below them,
+ * e.g. by {@link io.foldright.inspectablewrappers.utils.ChainAwareDelegate ChainAwareDelegate};
+ * both are rejected.
+ *
+ * @param <T> the type of instances that be wrapped
+ * @see Wrapper
+ * @see io.foldright.inspectablewrappers.utils.WrapperPool
+ */
+public interface ReusableWrapper<T> extends Wrapper<T> {
+    /**
+     * Rebinds this wrapper to the given underlying instance,
+     * the following {@link Wrapper#unwrap_()} calls return it.
+     * <p>
+     * <strong>Specification contracts:</strong>
+     * <ul>
+     * <li>Do NOT reject the underlying instances that are not the usual ones, e.g. the placeholder of the pool.
+     * </ul>
+     */
+    void rebind_(@NonNull T underlying);
+
+    /**
+     * Resets the per-use state of this wrapper, e.g. clears the attachments
+     * by {@link io.foldright.inspectablewrappers.utils.AttachableDelegate#clearAttachments()};
+     * keeps the allocated storage for the reuse.
+     */
+    void reset_();
+}
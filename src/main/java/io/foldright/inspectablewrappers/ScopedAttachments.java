@@ -0,0 +1,209 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.jetbrains.annotations.Contract;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * The request-scoped attachments, bound to the current thread for the execution of an action,
+ * e.g. the trace ids or the deadlines of the current request.
+ * <p>
+ * {@link Inspector#getScopedAttachmentFromWrapperChain(Object, Object)} consults the scoped attachments
+ * BEFORE the shared attachments of the instances on the wrapper chain; so the per-request data is visible
+ * "on the wrapper chain" without writing it into the shared {@link Attachable} storage,
+ * which is both wrong(shared across threads) and contended.
+ * {@link Inspector#getAttachmentFromWrapperChain(Object, Object)} does NOT consult the scoped attachments,
+ * it answers ONLY from the instances on the wrapper chain.
+ * <p>
+ * The bindings are immutable linked frames, so the reads are contention-free. The frames are carried by
+ * {@code ScopedValue} on JDK 25+, friendly to virtual threads; and by {@link ThreadLocal} on the older JDKs.
+ * This library targets Java 8, so {@code ScopedValue} is looked up reflectively once at class initialization.
+ *
+ * <pre>{@code
+ * ScopedAttachments.runWithAttachment("traceId", traceId, () -> {
+ *     // in the scope, returns traceId
+ *     Inspector.getScopedAttachmentFromWrapperChain(executor, "traceId");
+ * });
+ * }</pre>
+ *
+ * @see Inspector#getScopedAttachmentFromWrapperChain(Object, Object)
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class ScopedAttachments {
+    private static final boolean SCOPED_VALUE_USED = ScopedValueCarrier.AVAILABLE;
+    private static final ThreadLocal<Frame> THREAD_LOCAL = new ThreadLocal<>();
+
+    /**
+     * Runs the action with the attachment bound to the current thread;
+     * the binding is visible to the action and the nested scopes, and is removed when the action returns.
+     *
+     * @throws NullPointerException if any arguments is null
+     */
+    public static <K, V> void runWithAttachment(K key, V value, Runnable action) {
+        requireNonNull(action, "action is null");
+        final Frame frame = new Frame(requireNonNull(key, "key is null"), requireNonNull(value, "value is null"),
+                currentFrame());
+
+        if (SCOPED_VALUE_USED) {
+            ScopedValueCarrier.runWhere(frame, action);
+            return;
+        }
+
+        final Frame previous = THREAD_LOCAL.get();
+        THREAD_LOCAL.set(frame);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) THREAD_LOCAL.remove();
+            else THREAD_LOCAL.set(previous);
+        }
+    }
+
+    /**
+     * Computes the result with the attachment bound to the current thread;
+     * the binding is visible to the supplier and the nested scopes, and is removed when the supplier returns.
+     *
+     * @throws NullPointerException if any arguments is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V, R> R supplyWithAttachment(K key, V value, Supplier<R> supplier) {
+        requireNonNull(supplier, "supplier is null");
+        final Object[] result = new Object[1];
+        runWithAttachment(key, value, () -> result[0] = supplier.get());
+        return (R) result[0];
+    }
+
+    /**
+     * Gets the attachment value bound to the current thread for the given key, the innermost binding wins.
+     *
+     * @return the attachment value, or {@code null} if no binding for the key
+     * @throws NullPointerException if key is null
+     * @throws ClassCastException   if the return value is not type {@code <V>}
+     */
+    @Nullable
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    public static <K, V> V getAttachment(K key) {
+        requireNonNull(key, "key is null");
+        for (Frame f = currentFrame(); f != null; f = f.parent) {
+            if (f.key.equals(key)) return (V) f.value;
+        }
+        return null;
+    }
+
+    /**
+     * Reports whether the scoped attachments are carried by {@code ScopedValue}, rather than {@link ThreadLocal}.
+     */
+    @Contract(pure = true)
+    public static boolean isScopedValueUsed() {
+        return SCOPED_VALUE_USED;
+    }
+
+    @Nullable
+    private static Frame currentFrame() {
+        return SCOPED_VALUE_USED ? ScopedValueCarrier.get() : THREAD_LOCAL.get();
+    }
+
+    /**
+     * The immutable linked frame of the bindings.
+     */
+    private static final class Frame {
+        final Object key;
+        final Object value;
+        @Nullable
+        final Frame parent;
+
+        Frame(Object key, Object value, @Nullable Frame parent) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Carries the frames by a {@code ScopedValue<Frame>}, invoked by the method handles;
+     * the method handles are in the static final fields, so they are constant-folded by the JIT.
+     */
+    private static final class ScopedValueCarrier {
+        /**
+         * {@code [isBound, get, where, run]}, or {@code null} if {@code ScopedValue} is not available.
+         */
+        @Nullable
+        private static final MethodHandle[] HANDLES = lookupHandles();
+        static final boolean AVAILABLE = HANDLES != null;
+
+        private static final MethodHandle IS_BOUND = AVAILABLE ? HANDLES[0] : null;
+        private static final MethodHandle GET = AVAILABLE ? HANDLES[1] : null;
+        private static final MethodHandle WHERE = AVAILABLE ? HANDLES[2] : null;
+        private static final MethodHandle RUN = AVAILABLE ? HANDLES[3] : null;
+
+        @Nullable
+        static Frame get() {
+            try {
+                return (boolean) IS_BOUND.invokeExact() ? (Frame) (Object) GET.invokeExact() : null;
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        static void runWhere(Frame frame, Runnable action) {
+            try {
+                final Object carrier = WHERE.invokeExact((Object) frame);
+                RUN.invokeExact(carrier, action);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable e) {
+            if (e instanceof RuntimeException) throw (RuntimeException) e;
+            if (e instanceof Error) throw (Error) e;
+            throw new UndeclaredThrowableException(e);
+        }
+
+        /**
+         * Looks up {@code ScopedValue}, returns {@code null} if not available as a final(non-preview) API,
+         * aka. JDK < 25.
+         */
+        @Nullable
+        private static MethodHandle[] lookupHandles() {
+            try {
+                final String specVersion = System.getProperty("java.specification.version", "1.8");
+                if (specVersion.startsWith("1.") || Integer.parseInt(specVersion) < 25) return null;
+
+                final Class<?> svClass = Class.forName("java.lang.ScopedValue");
+                final Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+                final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                final Object scopedValue = lookup.findStatic(svClass, "newInstance", MethodType.methodType(svClass))
+                        .invoke();
+
+                final MethodHandle isBound = lookup.findVirtual(svClass, "isBound", MethodType.methodType(boolean.class))
+                        .bindTo(scopedValue);
+                final MethodHandle get = lookup.findVirtual(svClass, "get", MethodType.methodType(Object.class))
+                        .bindTo(scopedValue);
+                final MethodHandle where = MethodHandles.insertArguments(lookup.findStatic(svClass, "where",
+                                MethodType.methodType(carrierClass, svClass, Object.class)), 0, scopedValue)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                final MethodHandle run = lookup.findVirtual(carrierClass, "run",
+                                MethodType.methodType(void.class, Runnable.class))
+                        .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+                return new MethodHandle[]{isBound, get, where, run};
+            } catch (Throwable e) {
+                // ScopedValue is not available
+                return null;
+            }
+        }
+    }
+
+    private ScopedAttachments() {}
+}
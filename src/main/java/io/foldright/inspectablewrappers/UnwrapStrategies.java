@@ -0,0 +1,102 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.jetbrains.annotations.Contract;
+
+import java.util.*;
+
+
+/**
+ * The {@link UnwrapStrategy} instances discovered by {@link ServiceLoader},
+ * and the strategy resolution cached per class by {@link ClassValue}.
+ * <p>
+ * The strategies are loaded once, by the class loader of this library and the context class loader
+ * of the thread that first inspects; the broken providers are skipped.
+ */
+final class UnwrapStrategies {
+    private static final int MAX_PROVIDER_ERRORS = 64;
+
+    private static final UnwrapStrategy[] STRATEGIES = loadStrategies();
+
+    private static final ClassValue<Optional<UnwrapStrategy>> RESOLVED = new ClassValue<Optional<UnwrapStrategy>>() {
+        @Override
+        protected Optional<UnwrapStrategy> computeValue(Class<?> type) {
+            if (Wrapper.class.isAssignableFrom(type)) return Optional.empty();
+            for (UnwrapStrategy strategy : STRATEGIES) {
+                if (strategy.supports(type)) return Optional.of(strategy);
+            }
+            return Optional.empty();
+        }
+    };
+
+    /**
+     * Gets the strategy of the given class, or {@code null} if no strategy supports it.
+     */
+    @Nullable
+    @Contract(pure = true)
+    static UnwrapStrategy lookup(Class<?> type) {
+        if (STRATEGIES.length == 0) return null;
+        return RESOLVED.get(type).orElse(null);
+    }
+
+    /**
+     * Unwraps the given non-{@link Wrapper} instance by its strategy,
+     * or returns {@code null} if no strategy supports it or it is the base of the wrapper chain.
+     *
+     * @throws IllegalStateException if the strategy returns the given instance itself
+     */
+    @Nullable
+    static Object unwrapForeign(Object instance) {
+        final UnwrapStrategy strategy = lookup(instance.getClass());
+        if (strategy == null) return null;
+
+        final Object underlying = strategy.unwrap(instance);
+        if (underlying == instance) {
+            throw new IllegalStateException("UnwrapStrategy(" + strategy.getClass().getName() +
+                    ") returns the instance(" + instance.getClass().getName() + ") itself");
+        }
+        return underlying;
+    }
+
+    /**
+     * Loads the strategies by the class loader of this library, then by the context class loader of the current thread;
+     * the provider that fails to load or to instantiate is skipped, so a broken provider on the class path
+     * does NOT break the inspection.
+     */
+    private static UnwrapStrategy[] loadStrategies() {
+        final Map<Class<?>, UnwrapStrategy> strategies = new LinkedHashMap<>();
+        final ClassLoader libraryLoader = UnwrapStrategy.class.getClassLoader();
+        loadStrategies(strategies, libraryLoader);
+
+        final ClassLoader contextLoader = contextClassLoader();
+        if (contextLoader != null && contextLoader != libraryLoader) loadStrategies(strategies, contextLoader);
+
+        return strategies.values().toArray(new UnwrapStrategy[0]);
+    }
+
+    static void loadStrategies(Map<Class<?>, UnwrapStrategy> strategies, @Nullable ClassLoader loader) {
+        final Iterator<UnwrapStrategy> iterator = ServiceLoader.load(UnwrapStrategy.class, loader).iterator();
+        // the iterator moves past the broken provider on error, the bound is a guard against the looping iterator
+        for (int errors = 0; errors < MAX_PROVIDER_ERRORS; ) {
+            try {
+                if (!iterator.hasNext()) return;
+                final UnwrapStrategy s = iterator.next();
+                // the same provider is found again by the child class loader
+                strategies.putIfAbsent(s.getClass(), s);
+            } catch (ServiceConfigurationError | LinkageError | RuntimeException e) {
+                errors++;
+            }
+        }
+    }
+
+    @Nullable
+    private static ClassLoader contextClassLoader() {
+        try {
+            return Thread.currentThread().getContextClassLoader();
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    private UnwrapStrategies() {}
+}
@@ -0,0 +1,58 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.ServiceLoader;
+
+
+/**
+ * This {@code UnwrapStrategy} SPI tells {@link Inspector} how to unwrap the instances of the foreign wrapper classes,
+ * aka. the classes that can not implement {@link Wrapper}, e.g. the {@code java.sql.Wrapper} implementations
+ * or the delegating classes of the third-party frameworks.
+ * <p>
+ * The foreign wrapper instances are inspected in place on the wrapper chain, without allocating
+ * a {@link WrapperAdapter} proxy per instance and putting it in the call path.
+ * <p>
+ * The strategies are discovered by {@link ServiceLoader} once, at the first inspection;
+ * register a strategy in the file {@code META-INF/services/io.foldright.inspectablewrappers.UnwrapStrategy}
+ * (or {@code provides} in the module descriptor). The providers are looked up by the class loader of this library
+ * and by the context class loader of the thread that runs the first inspection; the strategies visible only
+ * to other class loaders(e.g. of the applications deployed later in a container) are NOT discovered.
+ * The provider that fails to load or to instantiate is skipped. The strategy of a class is resolved once per class
+ * and cached by {@link ClassValue}, the first strategy that supports the class wins;
+ * the inspection costs nothing extra if no strategy is registered.
+ * <p>
+ * The strategies are consulted ONLY for the instances that are not {@link Wrapper}.
+ *
+ * @see Inspector#travelWrapperChain(Object, java.util.function.Function)
+ * @see WrapperAdapter
+ */
+public interface UnwrapStrategy {
+    /**
+     * Reports whether this strategy unwraps the instances of the given class.
+     * <p>
+     * <strong>Specification contracts:</strong>
+     * <ul>
+     * <li>The result MUST only depend on the given class, it is cached per class.
+     * </ul>
+     *
+     * @param type the class of the foreign wrapper instances, never a {@link Wrapper} class
+     */
+    boolean supports(@NonNull Class<?> type);
+
+    /**
+     * Unwraps the given foreign wrapper instance to the underlying instance.
+     * <p>
+     * <strong>Specification contracts:</strong>
+     * <ul>
+     * <li>Return {@code null} if the given instance wraps nothing, aka. it is the base of the wrapper chain.
+     * <li>Do NOT return the given instance itself.
+     * </ul>
+     *
+     * @param instance the instance whose class is supported by this strategy
+     * @return the underlying instance, or {@code null} if the given instance is the base of the wrapper chain
+     */
+    @Nullable
+    Object unwrap(@NonNull Object instance);
+}
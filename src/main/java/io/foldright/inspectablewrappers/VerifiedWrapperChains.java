@@ -0,0 +1,117 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * The memoized verified status of the wrapper chains, used by
+ * {@link Inspector#verifyWrapperChainContractsIncrementally(Object)}.
+ * <p>
+ * A weak identity map from the verified instance(the head of the verified wrapper chain)
+ * to the biz interfaces verified for the chain; the entries of the garbage collected instances
+ * are expunged on the following updates.
+ * <p>
+ * Only the instances deeper than {@link #MIN_MEMOIZED_DEPTH} layers from the verified head are memoized:
+ * the memo costs an identity lookup per visited instance, and a weak reference and a merge per new instance;
+ * measured by re-wrapping a verified wrapper chain with one new head, it wins against the full walk
+ * only for the wrapper chains deeper than about 24 layers.
+ */
+final class VerifiedWrapperChains {
+    /**
+     * The depth from the verified head, below which the memo is consulted and updated.
+     */
+    static final int MIN_MEMOIZED_DEPTH = 24;
+
+    private static final Class<?>[] NO_BIZ_INTERFACES = new Class<?>[0];
+
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+    private static final ConcurrentMap<Object, Class<?>[]> VERIFIED = new ConcurrentHashMap<>();
+
+    static boolean isVerified(Object instance, @Nullable Class<?> bizInterface) {
+        final Class<?>[] bizInterfaces = VERIFIED.get(new LookupKey(instance));
+        if (bizInterfaces == null) return false;
+        if (bizInterface == null) return true;
+        for (Class<?> c : bizInterfaces) {
+            if (c == bizInterface) return true;
+        }
+        return false;
+    }
+
+    static void markVerified(Object instance, @Nullable Class<?> bizInterface) {
+        expungeStaleEntries();
+        final Class<?>[] value = bizInterface == null ? NO_BIZ_INTERFACES : new Class<?>[]{bizInterface};
+        VERIFIED.merge(new WeakKey(instance, QUEUE), value, VerifiedWrapperChains::union);
+    }
+
+    private static Class<?>[] union(Class<?>[] old, Class<?>[] added) {
+        if (added.length == 0) return old;
+        for (Class<?> c : old) {
+            if (c == added[0]) return old;
+        }
+        final Class<?>[] ret = Arrays.copyOf(old, old.length + 1);
+        ret[old.length] = added[0];
+        return ret;
+    }
+
+    private static void expungeStaleEntries() {
+        for (Reference<?> ref; (ref = QUEUE.poll()) != null; ) {
+            VERIFIED.remove(ref);
+        }
+    }
+
+    /**
+     * The weak key compared by the identity of the referent.
+     */
+    private static final class WeakKey extends WeakReference<Object> {
+        private final int hash;
+
+        WeakKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof WeakKey)) return false;
+            final Object referent = get();
+            return referent != null && referent == ((WeakKey) obj).get();
+        }
+    }
+
+    /**
+     * The strong key for the lookups, avoids creating the {@link WeakReference}s;
+     * {@link ConcurrentHashMap} calls the {@code equals} method of the lookup key.
+     */
+    private static final class LookupKey {
+        private final Object referent;
+
+        LookupKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof WeakKey && ((WeakKey) obj).get() == referent;
+        }
+    }
+
+    private VerifiedWrapperChains() {}
+}
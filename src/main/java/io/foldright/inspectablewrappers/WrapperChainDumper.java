@@ -0,0 +1,157 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.Function;
+
+
+/**
+ * Streams the wrapper chain to an {@link Appendable} in one pass, in text or JSON,
+ * used by {@link Inspector#dumpWrapperChain(Object, Appendable, Object...)}
+ * and {@link Inspector#dumpWrapperChainAsJson(Object, Appendable, Object...)}.
+ * <p>
+ * Writes the class names, the identity hash codes and the attachment values straight to the output,
+ * without the intermediate lists, the {@code toString} of the instances, or the string concatenations.
+ */
+final class WrapperChainDumper implements Function<Object, Optional<Object>> {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+    private final boolean json;
+    private final Object[] attachmentKeys;
+
+    private boolean first = true;
+    private boolean adapteeNext = false;
+
+    WrapperChainDumper(Appendable out, boolean json, Object[] attachmentKeys) {
+        this.out = out;
+        this.json = json;
+        this.attachmentKeys = attachmentKeys;
+    }
+
+    void begin() throws IOException {
+        if (json) out.append("{\"layers\":[");
+    }
+
+    void end() throws IOException {
+        out.append(json ? "]}" : "\n");
+    }
+
+    /**
+     * Writes the instance on the wrapper chain,
+     * in the order of {@link Inspector#travelWrapperChain(Object, Function)}.
+     */
+    @Override
+    public Optional<Object> apply(Object instance) {
+        try {
+            if (json) writeJsonLayer(instance);
+            else writeTextLayer(instance);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        first = false;
+        // the adaptee of WrapperAdapter is processed right after the adapter
+        adapteeNext = !adapteeNext && instance instanceof WrapperAdapter;
+        return Optional.empty();
+    }
+
+    private void writeTextLayer(Object instance) throws IOException {
+        if (!first) out.append(adapteeNext ? "\n  ~adaptee~> " : "\n  -> ");
+        out.append(instance.getClass().getName()).append('@');
+        writeHex(System.identityHashCode(instance));
+        if (instance instanceof WrapperAdapter) out.append(" [adapter]");
+
+        boolean anyAttachment = false;
+        for (Object key : attachmentKeys) {
+            final Object value = attachmentOf(instance, key);
+            if (value == null) continue;
+
+            out.append(anyAttachment ? ", " : " {");
+            anyAttachment = true;
+            appendValue(key);
+            out.append('=');
+            appendValue(value);
+        }
+        if (anyAttachment) out.append('}');
+    }
+
+    private void writeJsonLayer(Object instance) throws IOException {
+        if (!first) out.append(',');
+        out.append("{\"class\":");
+        writeJsonString(instance.getClass().getName());
+        out.append(",\"identity\":\"");
+        writeHex(System.identityHashCode(instance));
+        out.append("\",\"adapter\":").append(instance instanceof WrapperAdapter ? "true" : "false");
+        out.append(",\"adaptee\":").append(adapteeNext ? "true" : "false");
+
+        boolean anyAttachment = false;
+        for (Object key : attachmentKeys) {
+            final Object value = attachmentOf(instance, key);
+            if (value == null) continue;
+
+            out.append(anyAttachment ? "," : ",\"attachments\":{");
+            anyAttachment = true;
+            writeJsonString(key instanceof CharSequence ? (CharSequence) key : String.valueOf(key));
+            out.append(':');
+            writeJsonString(value instanceof CharSequence ? (CharSequence) value : String.valueOf(value));
+        }
+        if (anyAttachment) out.append('}');
+        out.append('}');
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Object attachmentOf(Object instance, Object key) {
+        if (!(instance instanceof Attachable)) return null;
+        return ((Attachable<Object, Object>) instance).getAttachment_(key);
+    }
+
+    private void appendValue(Object value) throws IOException {
+        if (value instanceof CharSequence) out.append((CharSequence) value);
+        else out.append(String.valueOf(value));
+    }
+
+    private void writeHex(int value) throws IOException {
+        boolean leading = true;
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            final int digit = (value >>> shift) & 0xf;
+            if (leading && digit == 0 && shift > 0) continue;
+            leading = false;
+            out.append(HEX_DIGITS[digit]);
+        }
+    }
+
+    private void writeJsonString(CharSequence s) throws IOException {
+        out.append('"');
+        for (int i = 0, n = s.length(); i < n; i++) {
+            final char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xf]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,101 @@
+package io.foldright.inspectablewrappers;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Function;
+
+
+/**
+ * Computes the structural fingerprint of a wrapper chain in one pass,
+ * used by {@link Inspector#getFingerprintOfWrapperChain(Object)}.
+ * <p>
+ * The fingerprint is stable across instances and JVM runs, since the per-class hashes are computed
+ * from the class names, and cached by {@link ClassValue}. The names of the {@link Proxy} classes
+ * and the hidden classes(e.g. the lambda classes, {@code Foo$$Lambda$12/0x0000000801001234}) are generated,
+ * so they are hashed by their stable parts: the interface names, and the host class name for the hidden classes;
+ * hence the different lambdas of the same host class implementing the same interfaces have the same hash.
+ */
+final class WrapperChainFingerprint implements Function<Object, Optional<Object>> {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    /**
+     * Marks the adaptee of {@link WrapperAdapter}, so the chain {@code [A, B]}
+     * differs from the adapter {@code A} with the adaptee {@code B}.
+     */
+    private static final long ADAPTEE_SEED = 0x9e3779b97f4a7c15L;
+
+    private static final ClassValue<Long> CLASS_HASHES = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return hashOfClass(type);
+        }
+    };
+
+    private long hash = FNV_OFFSET_BASIS;
+    private boolean adapteeNext = false;
+
+    /**
+     * Accumulates the instances on the wrapper chain,
+     * in the order of {@link Inspector#travelWrapperChain(Object, Function)}.
+     */
+    @Override
+    public Optional<Object> apply(Object instance) {
+        long h = CLASS_HASHES.get(instance.getClass());
+        if (adapteeNext) h ^= ADAPTEE_SEED;
+        hash = (hash ^ h) * FNV_PRIME;
+        hash = Long.rotateLeft(hash, 31);
+
+        // the adaptee of WrapperAdapter is processed right after the adapter
+        adapteeNext = !adapteeNext && instance instanceof WrapperAdapter;
+        return Optional.empty();
+    }
+
+    long fingerprint() {
+        return mix64(hash);
+    }
+
+    static long hashOfClass(Class<?> type) {
+        final String name = type.getName();
+        long h;
+        if (Proxy.isProxyClass(type)) {
+            // the names of the proxy classes are generated, e.g. $Proxy12, uses the names of proxy interfaces
+            h = hashOfString("<proxy>");
+        } else {
+            // only the names of the hidden classes contain '/', followed by the generated suffix
+            final int slash = name.indexOf('/');
+            if (slash < 0) return hashOfString(name);
+
+            // the lambda class names also contain the generated counter before JDK 21, e.g. Foo$$Lambda$12/...
+            final int lambda = name.indexOf("$$Lambda");
+            h = hashOfString(lambda < 0 ? name.substring(0, slash) : name.substring(0, lambda + "$$Lambda".length()));
+        }
+        for (Class<?> i : type.getInterfaces()) {
+            h = (h ^ hashOfString(i.getName())) * FNV_PRIME;
+        }
+        return mix64(h);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes.
+     */
+    private static long hashOfString(String s) {
+        long h = FNV_OFFSET_BASIS;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * The finalization mix of MurmurHash3, makes all bits of the hash avalanche.
+     */
+    private static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,150 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.jetbrains.annotations.Contract;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+
+/**
+ * The interned(hash-consed) shape of wrapper chains: the classes of the instances on the wrapper chain in order,
+ * and the positions of the adaptees of {@link WrapperAdapter}.
+ * <p>
+ * Gets the shape of a wrapper chain by {@link Inspector#getShapeOfWrapperChain(Object)}.
+ * The wrapper chains of the same structure share the SAME shape instance, like the hidden classes of JS engines;
+ * so the shapes can be compared by identity({@code ==}) and used as the keys of identity maps,
+ * e.g. to group or dedupe the wrapper chain structures in the metrics and the logs,
+ * without keeping the instances of the wrapper chains.
+ * <p>
+ * Like {@link Inspector#getFingerprintOfWrapperChain(Object)}, the shape is a diagnostic: getting it traverses
+ * the whole wrapper chain, and the {@link Inspector} queries do not use it.
+ * <p>
+ * The transitions between the shapes are kept by {@link ClassValue} on the classes of the instances;
+ * so the shapes of the wrapper chains that contain the classes of an unloadable class loader
+ * do NOT prevent the unloading.
+ *
+ * @see Inspector#getShapeOfWrapperChain(Object)
+ * @see Inspector#getFingerprintOfWrapperChain(Object)
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class WrapperChainShape {
+    /**
+     * The root of the shape tree, the shape of the empty prefix; never returned to the users.
+     */
+    private static final WrapperChainShape ROOT = new WrapperChainShape(null, null, false);
+
+    private final Class<?>[] classes;
+    private final boolean[] adaptees;
+
+    private final ClassValue<WrapperChainShape> layerTransitions = new Transitions(this, false);
+    private final ClassValue<WrapperChainShape> adapteeTransitions = new Transitions(this, true);
+
+    private WrapperChainShape(@Nullable WrapperChainShape parent, @Nullable Class<?> clazz, boolean adaptee) {
+        if (parent == null || clazz == null) {
+            this.classes = new Class<?>[0];
+            this.adaptees = new boolean[0];
+        } else {
+            final int n = parent.classes.length;
+            this.classes = Arrays.copyOf(parent.classes, n + 1);
+            this.classes[n] = clazz;
+            this.adaptees = Arrays.copyOf(parent.adaptees, n + 1);
+            this.adaptees[n] = adaptee;
+        }
+    }
+
+    /**
+     * Returns the count of the instances on the wrapper chains of this shape, including the adaptees.
+     */
+    @Contract(pure = true)
+    public int length() {
+        return classes.length;
+    }
+
+    /**
+     * Returns the class of the instance at the given position,
+     * in the order of {@link Inspector#travelWrapperChain(Object, Function)}.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @NonNull
+    @Contract(pure = true)
+    public Class<?> classAt(int index) {
+        checkIndex(index);
+        return classes[index];
+    }
+
+    /**
+     * Reports whether the instance at the given position is the adaptee of the {@link WrapperAdapter} before it.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @Contract(pure = true)
+    public boolean isAdapteeAt(int index) {
+        checkIndex(index);
+        return adaptees[index];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("WrapperChainShape[");
+        for (int i = 0; i < classes.length; i++) {
+            if (i > 0) sb.append(adaptees[i] ? " ~adaptee~> " : " -> ");
+            sb.append(classes[i].getName());
+        }
+        return sb.append(']').toString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= classes.length) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + classes.length);
+        }
+    }
+
+    private WrapperChainShape transition(Class<?> clazz, boolean adaptee) {
+        return (adaptee ? adapteeTransitions : layerTransitions).get(clazz);
+    }
+
+    /**
+     * The transitions from a shape to the next shapes, by the class of the next instance;
+     * {@link ClassValue} guarantees the same next shape is returned for a class, so the shapes are interned.
+     */
+    private static final class Transitions extends ClassValue<WrapperChainShape> {
+        private final WrapperChainShape shape;
+        private final boolean adaptee;
+
+        Transitions(WrapperChainShape shape, boolean adaptee) {
+            this.shape = shape;
+            this.adaptee = adaptee;
+        }
+
+        @Override
+        protected WrapperChainShape computeValue(Class<?> type) {
+            return new WrapperChainShape(shape, type, adaptee);
+        }
+    }
+
+    /**
+     * Builds the shape of a wrapper chain by following the transitions from the root shape,
+     * in the order of {@link Inspector#travelWrapperChain(Object, Function)}.
+     */
+    static final class Builder implements Function<Object, Optional<Object>> {
+        private WrapperChainShape current = ROOT;
+        private boolean adapteeNext = false;
+
+        @Override
+        public Optional<Object> apply(Object instance) {
+            current = current.transition(instance.getClass(), adapteeNext);
+            // the adaptee of WrapperAdapter is processed right after the adapter
+            adapteeNext = !adapteeNext && instance instanceof WrapperAdapter;
+            return Optional.empty();
+        }
+
+        WrapperChainShape build() {
+            return current;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.jetbrains.annotations.Contract;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * The declared metadata of a wrapper class, published once per class:
+ * which types and attachment keys can occur <strong>below</strong> the wrapper layer.
+ * <p>
+ * The instances below a wrapper are the instances after it
+ * in the order of {@link Inspector#travelWrapperChain(Object, Function)},
+ * including the adaptee of the wrapper itself if it is a {@link WrapperAdapter}.
+ * <p>
+ * With the descriptor of a layer, e.g. "everything below me is JDK code, no {@link Attachable}",
+ * {@link Inspector#containsInstanceTypeOnWrapperChain(Object, Class)}
+ * and {@link Inspector#getAttachmentFromWrapperChain(Object, Object)} end the traversal early
+ * when the lower part of the wrapper chain is known to be irrelevant to the query.
+ * <p>
+ * The descriptors are registered by {@link #register(Class, WrapperDescriptor)}, and stored and looked up
+ * by {@link ClassValue} per wrapper class, so the registry does NOT prevent the unloading of the wrapper classes;
+ * the lookup costs nothing if no descriptor is registered.
+ * <p>
+ * <strong>Note:</strong><br>
+ * The descriptor is a promise of the wrapper class for ALL its instances;
+ * if the promise is broken, the inspection results of {@link Inspector} are wrong.
+ *
+ * @see Inspector#containsInstanceTypeOnWrapperChain(Object, Class)
+ * @see Inspector#getAttachmentFromWrapperChain(Object, Object)
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class WrapperDescriptor {
+    private static volatile boolean registered = false;
+
+    private static final ClassValue<Holder> DESCRIPTORS = new ClassValue<Holder>() {
+        @Override
+        protected Holder computeValue(Class<?> type) {
+            return new Holder();
+        }
+    };
+
+    @Nullable
+    private final Set<Class<?>> typesBelow;
+    @Nullable
+    private final Set<Object> attachmentKeysBelow;
+
+    private WrapperDescriptor(@Nullable Set<Class<?>> typesBelow, @Nullable Set<Object> attachmentKeysBelow) {
+        this.typesBelow = typesBelow;
+        this.attachmentKeysBelow = attachmentKeysBelow;
+    }
+
+    /**
+     * Creates a descriptor.
+     *
+     * @param typesBelow          the classes of the instances that can occur below the wrapper layer,
+     *                            the instance classes exactly(NOT the super types of them);
+     *                            {@code null} if unknown
+     * @param attachmentKeysBelow the attachment keys that can be present below the wrapper layer,
+     *                            an empty collection means no attachment below;
+     *                            {@code null} if unknown
+     * @throws NullPointerException if the collections contain null
+     */
+    @NonNull
+    @Contract(pure = true)
+    public static WrapperDescriptor of(@Nullable Collection<? extends Class<?>> typesBelow,
+                                       @Nullable Collection<?> attachmentKeysBelow) {
+        return new WrapperDescriptor(copyNonNull(typesBelow, "typesBelow"),
+                copyNonNull(attachmentKeysBelow, "attachmentKeysBelow"));
+    }
+
+    /**
+     * Creates a descriptor that declares no attachment below the wrapper layer,
+     * the types below are unknown.
+     */
+    @NonNull
+    @Contract(pure = true)
+    public static WrapperDescriptor noAttachmentBelow() {
+        return new WrapperDescriptor(null, Collections.emptySet());
+    }
+
+    /**
+     * Registers the descriptor of the given wrapper class.
+     * <p>
+     * Registers the descriptor before the instances of the wrapper class are inspected,
+     * e.g. in the static initializer of the wrapper class.
+     *
+     * @throws NullPointerException if any arguments is null
+     */
+    public static void register(Class<?> wrapperClass, WrapperDescriptor descriptor) {
+        requireNonNull(wrapperClass, "wrapperClass is null");
+        requireNonNull(descriptor, "descriptor is null");
+
+        DESCRIPTORS.get(wrapperClass).descriptor = descriptor;
+        registered = true;
+    }
+
+    /**
+     * Unregisters the descriptor of the given wrapper class.
+     *
+     * @return {@code true} if a descriptor of the wrapper class was registered
+     * @throws NullPointerException if wrapperClass is null
+     */
+    public static boolean unregister(Class<?> wrapperClass) {
+        requireNonNull(wrapperClass, "wrapperClass is null");
+        if (!registered) return false;
+
+        final Holder holder = DESCRIPTORS.get(wrapperClass);
+        final boolean removed = holder.descriptor != null;
+        holder.descriptor = null;
+        return removed;
+    }
+
+    /**
+     * Gets the registered descriptor of the given wrapper class, or {@code null} if absent.
+     *
+     * @throws NullPointerException if wrapperClass is null
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static WrapperDescriptor lookup(Class<?> wrapperClass) {
+        requireNonNull(wrapperClass, "wrapperClass is null");
+        if (!registered) return null;
+        return DESCRIPTORS.get(wrapperClass).descriptor;
+    }
+
+    /**
+     * Reports whether an instance of the given type can occur below the wrapper layer.
+     *
+     * @throws NullPointerException if instanceType is null
+     */
+    @Contract(pure = true)
+    public boolean mayContainInstanceTypeBelow(Class<?> instanceType) {
+        requireNonNull(instanceType, "instanceType is null");
+        if (typesBelow == null) return true;
+        for (Class<?> c : typesBelow) {
+            if (instanceType.isAssignableFrom(c)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reports whether the attachment of the given key can be present below the wrapper layer.
+     *
+     * @throws NullPointerException if key is null
+     */
+    @Contract(pure = true)
+    public boolean mayContainAttachmentBelow(Object key) {
+        requireNonNull(key, "key is null");
+        return attachmentKeysBelow == null || attachmentKeysBelow.contains(key);
+    }
+
+    @Override
+    public String toString() {
+        return "WrapperDescriptor{typesBelow=" + (typesBelow == null ? "<unknown>" : typesBelow) +
+                ", attachmentKeysBelow=" + (attachmentKeysBelow == null ? "<unknown>" : attachmentKeysBelow) + '}';
+    }
+
+    /**
+     * The descriptor slot of a wrapper class, kept by {@link ClassValue} on the class itself.
+     */
+    private static final class Holder {
+        @Nullable
+        volatile WrapperDescriptor descriptor;
+    }
+
+    @Nullable
+    private static <E> Set<E> copyNonNull(@Nullable Collection<? extends E> c, String name) {
+        if (c == null) return null;
+        final Set<E> set = new HashSet<>();
+        for (E e : c) set.add(requireNonNull(e, () -> name + " contains null"));
+        return Collections.unmodifiableSet(set);
+    }
+}
@@ -0,0 +1,241 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.Inspector;
+import io.foldright.inspectablewrappers.utils.InvocationInterceptor;
+import org.jetbrains.annotations.Contract;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * Records the async latency at a layer boundary of the wrapper chains whose biz methods
+ * return {@link CompletionStage}/{@link CompletableFuture}: the submission latency(the synchronous call)
+ * and the completion latency(from the call to the completion of the returned stage) into {@link LatencyHistogram}s.
+ * <p>
+ * Records a layer in the hand-written wrapper by {@link #record(long, CompletionStage)},
+ * or in the adapter proxy as the {@link InvocationInterceptor}; the recorder attaches itself to the layer
+ * by {@link #attachTo(Attachable)}, so the recorders are read from the wrapper chain by {@link Inspector}:
+ * the first recorder found by {@link Inspector#getAttachmentFromWrapperChain(Object, Object)}
+ * with the key {@link #ATTACHMENT_KEY} records the end-to-end latency,
+ * and {@link #attributeLatencyOfWrapperChain(Object)} attributes the latency to the layers.
+ * <p>
+ * Recording adds no thread, and the returned stage is returned as is, so its result and failure reach the caller
+ * untouched: the already completed stage is recorded at once, otherwise ONE completion callback is registered
+ * by {@link CompletionStage#whenComplete}, which allocates one dependent stage per pending call;
+ * the dependent stage is dropped, nobody waits on it.
+ *
+ * <pre>{@code
+ * public class MyServiceWrapper implements AsyncService, Wrapper<AsyncService>, Attachable<String, Object> {
+ *     private final AsyncLatencyRecorder recorder = new AsyncLatencyRecorder();
+ *     ...
+ *     public MyServiceWrapper(AsyncService service) {
+ *         this.service = service;
+ *         recorder.attachTo(this);
+ *     }
+ *
+ *     public CompletableFuture<String> call(String request) {
+ *         final long start = System.nanoTime();
+ *         return recorder.record(start, service.call(request));
+ *     }
+ * }
+ *
+ * // per-layer attribution
+ * for (LayerLatency layer : AsyncLatencyRecorder.attributeLatencyOfWrapperChain(service)) {
+ *     System.out.println(layer);
+ * }
+ * }</pre>
+ *
+ * @see LatencyHistogram
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class AsyncLatencyRecorder implements InvocationInterceptor {
+    /**
+     * The attachment key of the recorder on the layer.
+     */
+    public static final String ATTACHMENT_KEY = AsyncLatencyRecorder.class.getName();
+
+    private final LatencyHistogram submissionHistogram = new LatencyHistogram();
+    private final LatencyHistogram completionHistogram = new LatencyHistogram();
+
+    /**
+     * Records the latencies of a call started at the given time, which returns the given stage.
+     *
+     * @param startNanos the {@link System#nanoTime()} before the call
+     * @param stage      the stage returned by the call
+     * @return the given stage
+     * @throws NullPointerException if stage argument is null
+     */
+    @NonNull
+    public <S extends CompletionStage<?>> S record(long startNanos, S stage) {
+        requireNonNull(stage, "stage is null");
+        final long now = System.nanoTime();
+        submissionHistogram.record(now - startNanos);
+
+        if (stage instanceof CompletableFuture && ((CompletableFuture<?>) stage).isDone()) {
+            completionHistogram.record(now - startNanos);
+        } else {
+            stage.whenComplete((r, e) -> completionHistogram.record(System.nanoTime() - startNanos));
+        }
+        return stage;
+    }
+
+    /**
+     * Records the biz call of the adapter proxy; the result not a {@link CompletionStage}
+     * is recorded as completed when the call returns.
+     */
+    @Nullable
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        final long start = System.nanoTime();
+        final Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable t) {
+            final long nanos = System.nanoTime() - start;
+            submissionHistogram.record(nanos);
+            completionHistogram.record(nanos);
+            throw t;
+        }
+
+        if (result instanceof CompletionStage) return record(start, (CompletionStage<?>) result);
+        final long nanos = System.nanoTime() - start;
+        submissionHistogram.record(nanos);
+        completionHistogram.record(nanos);
+        return result;
+    }
+
+    /**
+     * Attaches this recorder to the given layer with the key {@link #ATTACHMENT_KEY}.
+     *
+     * @param layer the layer recorded by this recorder
+     * @return this recorder
+     * @throws NullPointerException if layer argument is null
+     */
+    @NonNull
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AsyncLatencyRecorder attachTo(Attachable<?, ?> layer) {
+        requireNonNull(layer, "layer is null");
+        ((Attachable) layer).setAttachment_(ATTACHMENT_KEY, this);
+        return this;
+    }
+
+    /**
+     * Returns the histogram of the submission latency, the synchronous call.
+     */
+    @NonNull
+    @Contract(pure = true)
+    public LatencyHistogram getSubmissionHistogram() {
+        return submissionHistogram;
+    }
+
+    /**
+     * Returns the histogram of the completion latency, from the call to the completion of the returned stage.
+     */
+    @NonNull
+    @Contract(pure = true)
+    public LatencyHistogram getCompletionHistogram() {
+        return completionHistogram;
+    }
+
+    /**
+     * Attributes the async completion latency to the recorded layers of the wrapper chain.
+     * <p>
+     * The mean self latency of a recorded layer is its mean completion latency minus the one of
+     * the next inner recorded layer, aka. the latency added by the layers between the two recorders;
+     * the first layer records the end-to-end latency.
+     *
+     * @param wrapper the head of the wrapper chain
+     * @param <W>     the type of instances that be wrapped
+     * @return the latencies of the recorded layers, from the outermost
+     * @throws NullPointerException  if wrapper argument is null,
+     *                               or any wrapper {@link io.foldright.inspectablewrappers.Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link io.foldright.inspectablewrappers.WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link io.foldright.inspectablewrappers.WrapperAdapter}
+     *                               is an instance of {@link io.foldright.inspectablewrappers.Wrapper}
+     *                               or CYCLIC wrapper chain
+     */
+    @NonNull
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <W> List<LayerLatency> attributeLatencyOfWrapperChain(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+
+        final List<Object> layers = new ArrayList<>();
+        final List<AsyncLatencyRecorder> recorders = new ArrayList<>();
+        Inspector.forEachOnWrapperChain(wrapper, w -> {
+            if (!(w instanceof Attachable)) return;
+            final Object recorder = ((Attachable) w).getAttachment_(ATTACHMENT_KEY);
+            if (!(recorder instanceof AsyncLatencyRecorder)) return;
+            layers.add(w);
+            recorders.add((AsyncLatencyRecorder) recorder);
+        });
+
+        final List<LayerLatency> ret = new ArrayList<>(layers.size());
+        for (int i = 0; i < layers.size(); i++) {
+            final double mean = recorders.get(i).completionHistogram.getMeanNanos();
+            final double innerMean = i + 1 < layers.size() ? recorders.get(i + 1).completionHistogram.getMeanNanos() : 0;
+            ret.add(new LayerLatency(layers.get(i), recorders.get(i), mean - innerMean));
+        }
+        return ret;
+    }
+
+    /**
+     * The async latency of a recorded layer on the wrapper chain.
+     */
+    public static final class LayerLatency {
+        private final Object layer;
+        private final AsyncLatencyRecorder recorder;
+        private final double meanSelfNanos;
+
+        LayerLatency(Object layer, AsyncLatencyRecorder recorder, double meanSelfNanos) {
+            this.layer = layer;
+            this.recorder = recorder;
+            this.meanSelfNanos = meanSelfNanos;
+        }
+
+        /**
+         * Returns the recorded layer instance.
+         */
+        @NonNull
+        public Object getLayer() {
+            return layer;
+        }
+
+        /**
+         * Returns the recorder of the layer.
+         */
+        @NonNull
+        public AsyncLatencyRecorder getRecorder() {
+            return recorder;
+        }
+
+        /**
+         * Returns the mean completion latency of the layer in nanoseconds, including the inner layers.
+         */
+        public double getMeanNanos() {
+            return recorder.completionHistogram.getMeanNanos();
+        }
+
+        /**
+         * Returns the mean completion latency added by the layer in nanoseconds, excluding the next inner recorded layer;
+         * may be negative, as the histograms are not snapshot atomically.
+         */
+        public double getMeanSelfNanos() {
+            return meanSelfNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "LayerLatency{layer=" + layer.getClass().getName() + ", mean=" + (long) getMeanNanos() +
+                    "ns, meanSelf=" + (long) meanSelfNanos + "ns, completion=" + recorder.completionHistogram + '}';
+        }
+    }
+}
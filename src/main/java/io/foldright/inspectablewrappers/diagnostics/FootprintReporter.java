@@ -0,0 +1,409 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Inspector;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import io.foldright.inspectablewrappers.utils.PersistentAttachableDelegate;
+import org.jetbrains.annotations.Contract;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * Reports the heap footprint of wrapper chains: the estimated shallow and retained sizes
+ * per wrapper layer, per adapter proxy and per attachment storage, aggregated by the instance types across many heads.
+ * <p>
+ * The retained size of a layer is the size of the objects reachable from the layer,
+ * stopping at the other instances on the wrapper chain; an object reachable from multiple layers or chains
+ * is counted ONLY once, in the first measured layer. The attachment size of a layer is the part of
+ * the retained size held by the {@link AttachableDelegate}/{@link PersistentAttachableDelegate} attachment storage.
+ * <p>
+ * The shallow sizes are measured by {@link Instrumentation#getObjectSize(Object)} if this library jar
+ * is loaded as an agent(the jar with the {@code agent} classifier, {@code -javaagent:inspectable-wrappers-<version>-agent.jar},
+ * or attached at runtime),
+ * otherwise estimated from the field layout. The objects whose fields are inaccessible by reflection
+ * (e.g. the JDK internals on Java 16+) are measured shallowly, plus the estimated internal nodes of collections.
+ * The {@link Class}, {@link ClassLoader}, {@link Thread}, {@link Enum} and reflection objects are skipped.
+ * The walk of a layer stops at {@link #DEFAULT_MAX_OBJECTS_PER_LAYER} objects(configurable by
+ * {@link #FootprintReporter(int)}), so a layer referencing a large object graph(e.g. a cache) is measured
+ * partially, and reported as {@link LayerFootprint#isTruncated() truncated}.
+ * <p>
+ * <strong>Note:</strong><br>
+ * The reporter is a diagnostic tool, NOT thread-safe, and walks the object graphs by reflection;
+ * do NOT use it on hot paths.
+ *
+ * <pre>{@code
+ * FootprintReporter reporter = new FootprintReporter();
+ * for (Executor head : heads) reporter.addWrapperChain(head);
+ * System.out.println(reporter); // the types sorted by the retained size
+ * }</pre>
+ *
+ * @see Inspector#getInstancesOfWrapperChain(Object)
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class FootprintReporter {
+    /**
+     * The default max count of the objects walked per layer.
+     */
+    public static final int DEFAULT_MAX_OBJECTS_PER_LAYER = 100_000;
+
+    private final int maxObjectsPerLayer;
+    private final Map<Object, Boolean> measured = new IdentityHashMap<>();
+    private final Map<Class<?>, TypeFootprint> typeFootprints = new HashMap<>();
+    private int chainCount = 0;
+
+    /**
+     * Creates a reporter that walks at most {@link #DEFAULT_MAX_OBJECTS_PER_LAYER} objects per layer.
+     */
+    public FootprintReporter() {
+        this(DEFAULT_MAX_OBJECTS_PER_LAYER);
+    }
+
+    /**
+     * Creates a reporter that walks at most the given count of objects per layer.
+     *
+     * @param maxObjectsPerLayer the max count of the objects walked per layer, including the layer itself
+     * @throws IllegalArgumentException if maxObjectsPerLayer is not positive
+     */
+    public FootprintReporter(int maxObjectsPerLayer) {
+        if (maxObjectsPerLayer <= 0) {
+            throw new IllegalArgumentException("maxObjectsPerLayer(" + maxObjectsPerLayer + ") is not positive");
+        }
+        this.maxObjectsPerLayer = maxObjectsPerLayer;
+    }
+
+    /**
+     * Measures the wrapper chain, and aggregates the footprints of its layers by the instance types.
+     *
+     * @param wrapper the head of the wrapper chain
+     * @param <W>     the type of instances that be wrapped
+     * @return the footprints of the layers of the wrapper chain,
+     * in the order of {@link Inspector#getInstancesOfWrapperChain(Object)} plus the adaptees
+     * @throws NullPointerException  if wrapper argument is null,
+     *                               or any wrapper {@link io.foldright.inspectablewrappers.Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of
+     *                               {@link io.foldright.inspectablewrappers.Wrapper} or CYCLIC wrapper chain
+     */
+    @NonNull
+    public <W> List<LayerFootprint> addWrapperChain(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+
+        final List<Object> layers = new ArrayList<>();
+        final List<Boolean> adaptees = new ArrayList<>();
+        Inspector.travelWrapperChain(wrapper, w -> {
+            final boolean adaptee = !layers.isEmpty() && layers.get(layers.size() - 1) instanceof WrapperAdapter
+                    && !adaptees.get(adaptees.size() - 1);
+            layers.add(w);
+            adaptees.add(adaptee);
+            return Optional.empty();
+        });
+
+        final Set<Object> chainInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        chainInstances.addAll(layers);
+
+        final List<LayerFootprint> ret = new ArrayList<>(layers.size());
+        for (int i = 0; i < layers.size(); i++) {
+            final LayerFootprint footprint = measure(layers.get(i), adaptees.get(i), chainInstances);
+            ret.add(footprint);
+            typeFootprints.computeIfAbsent(footprint.instanceType, TypeFootprint::new).add(footprint);
+        }
+        chainCount++;
+        return ret;
+    }
+
+    /**
+     * Returns the aggregated footprints of the instance types, sorted by the retained size in descending order.
+     */
+    @NonNull
+    @Contract(pure = true)
+    public List<TypeFootprint> getTypeFootprints() {
+        final List<TypeFootprint> ret = new ArrayList<>(typeFootprints.values());
+        ret.sort(Comparator.comparingLong(TypeFootprint::getRetainedSize).reversed());
+        return ret;
+    }
+
+    /**
+     * Returns the total retained size of all measured wrapper chains.
+     */
+    @Contract(pure = true)
+    public long getTotalRetainedSize() {
+        long total = 0;
+        for (TypeFootprint f : typeFootprints.values()) total += f.retainedSize;
+        return total;
+    }
+
+    /**
+     * Reports whether the shallow sizes are measured by {@link Instrumentation}, rather than estimated.
+     */
+    @Contract(pure = true)
+    public static boolean isInstrumentationAvailable() {
+        return ObjectSizes.instrumentation != null;
+    }
+
+    /**
+     * The entry point of the agent loaded at JVM startup, provides the {@link Instrumentation}.
+     */
+    public static void premain(@Nullable String agentArgs, Instrumentation inst) {
+        ObjectSizes.instrumentation = requireNonNull(inst, "inst is null");
+    }
+
+    /**
+     * The entry point of the agent attached at runtime, provides the {@link Instrumentation}.
+     */
+    public static void agentmain(@Nullable String agentArgs, Instrumentation inst) {
+        premain(agentArgs, inst);
+    }
+
+    /**
+     * Renders the aggregated footprints as a table, sorted by the retained size in descending order.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("FootprintReporter: ").append(chainCount).append(" wrapper chains, ")
+                .append(getTotalRetainedSize()).append(" bytes retained, ")
+                .append(isInstrumentationAvailable() ? "measured by Instrumentation" : "estimated by field layout")
+                .append('\n');
+        sb.append(String.format("%10s %12s %12s %12s  %s%n", "instances", "shallow", "retained", "attachments", "type"));
+        for (TypeFootprint f : getTypeFootprints()) {
+            sb.append(String.format("%10d %12d %12d %12d  %s%n", f.instanceCount,
+                    f.shallowSize, f.retainedSize, f.attachmentsSize, typeName(f.instanceType)));
+        }
+        return sb.toString();
+    }
+
+    private LayerFootprint measure(final Object layer, final boolean adaptee, final Set<Object> chainInstances) {
+        final boolean adapterProxy = Proxy.isProxyClass(layer.getClass());
+        // the layer shared with the measured wrapper chains
+        if (measured.put(layer, Boolean.TRUE) != null) {
+            return new LayerFootprint(layer.getClass(), adapterProxy, adaptee, 0, 0, 0, false);
+        }
+
+        final long shallowSize = ObjectSizes.shallowSizeOf(layer);
+        long retainedSize = 0, attachmentsSize = 0;
+
+        final ArrayDeque<Object> stack = new ArrayDeque<>();
+        final ArrayDeque<Boolean> inAttachments = new ArrayDeque<>();
+        stack.push(layer);
+        inAttachments.push(false);
+        int walked = 0;
+        while (!stack.isEmpty()) {
+            if (walked++ == maxObjectsPerLayer) break;
+            final Object obj = stack.pop();
+            final boolean attachments = inAttachments.pop();
+
+            final Field[] fields = obj.getClass().isArray() ? null : ObjectSizes.referenceFieldsOf(obj.getClass());
+            long size = ObjectSizes.shallowSizeOf(obj);
+            if (fields == null && !obj.getClass().isArray()) size += ObjectSizes.internalNodesSizeOf(obj);
+            retainedSize += size;
+            if (attachments) attachmentsSize += size;
+
+            for (Map.Entry<Object, Boolean> ref : referencesOf(obj, fields).entrySet()) {
+                final Object child = ref.getKey();
+                if (isSkipped(child) || chainInstances.contains(child)) continue;
+                if (measured.put(child, Boolean.TRUE) != null) continue;
+
+                stack.push(child);
+                inAttachments.push(attachments || ref.getValue() || isAttachmentStorage(child));
+            }
+        }
+        // the objects not walked are left to the other layers
+        final boolean truncated = !stack.isEmpty();
+        for (Object obj : stack) measured.remove(obj);
+        return new LayerFootprint(layer.getClass(), adapterProxy, adaptee,
+                shallowSize, retainedSize, attachmentsSize, truncated);
+    }
+
+    /**
+     * Collects the references of the given object, mapped to whether the reference is held by
+     * the attachment storage.
+     */
+    private static Map<Object, Boolean> referencesOf(final Object obj, @Nullable final Field[] fields) {
+        final Map<Object, Boolean> refs = new IdentityHashMap<>();
+        if (obj instanceof Object[]) {
+            for (Object e : (Object[]) obj) if (e != null) refs.put(e, false);
+        } else if (Proxy.isProxyClass(obj.getClass())) {
+            refs.put(Proxy.getInvocationHandler(obj), false);
+        } else if (fields != null) {
+            for (Field f : fields) {
+                final Object value;
+                try {
+                    value = f.get(obj);
+                } catch (IllegalAccessException e) {
+                    continue;
+                }
+                if (value != null) refs.merge(value, isAttachmentStorageClass(f.getDeclaringClass()), Boolean::logicalOr);
+            }
+        } else if (obj instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) obj).entrySet()) {
+                if (e.getKey() != null) refs.put(e.getKey(), false);
+                if (e.getValue() != null) refs.put(e.getValue(), false);
+            }
+        } else if (obj instanceof Collection) {
+            for (Object e : (Collection<?>) obj) if (e != null) refs.put(e, false);
+        }
+        return refs;
+    }
+
+    private static boolean isAttachmentStorage(final Object obj) {
+        return obj instanceof AttachableDelegate || obj instanceof PersistentAttachableDelegate;
+    }
+
+    private static boolean isAttachmentStorageClass(final Class<?> declaringClass) {
+        return declaringClass == AttachableDelegate.class || declaringClass == PersistentAttachableDelegate.class;
+    }
+
+    private static boolean isSkipped(final Object obj) {
+        return obj instanceof Class || obj instanceof ClassLoader || obj instanceof Thread || obj instanceof ThreadGroup
+                || obj instanceof Enum || obj instanceof Member;
+    }
+
+    private static String typeName(final Class<?> type) {
+        if (!Proxy.isProxyClass(type)) return type.getName();
+
+        final StringJoiner sj = new StringJoiner(", ", "Proxy(", ")");
+        for (Class<?> i : type.getInterfaces()) sj.add(i.getName());
+        return sj.toString();
+    }
+
+    /**
+     * The footprint of a layer(an instance) on the wrapper chain.
+     * A layer shared with the already measured wrapper chains has zero sizes.
+     */
+    public static final class LayerFootprint {
+        private final Class<?> instanceType;
+        private final boolean adapterProxy;
+        private final boolean adaptee;
+        private final long shallowSize;
+        private final long retainedSize;
+        private final long attachmentsSize;
+        private final boolean truncated;
+
+        LayerFootprint(Class<?> instanceType, boolean adapterProxy, boolean adaptee,
+                       long shallowSize, long retainedSize, long attachmentsSize, boolean truncated) {
+            this.instanceType = instanceType;
+            this.adapterProxy = adapterProxy;
+            this.adaptee = adaptee;
+            this.shallowSize = shallowSize;
+            this.retainedSize = retainedSize;
+            this.attachmentsSize = attachmentsSize;
+            this.truncated = truncated;
+        }
+
+        /**
+         * Returns the class of the layer instance.
+         */
+        @NonNull
+        public Class<?> getInstanceType() {
+            return instanceType;
+        }
+
+        /**
+         * Reports whether the layer is an adapter proxy,
+         * e.g. created by {@link io.foldright.inspectablewrappers.utils.WrapperAdapterUtils WrapperAdapterUtils}.
+         */
+        public boolean isAdapterProxy() {
+            return adapterProxy;
+        }
+
+        /**
+         * Reports whether the layer is the adaptee of the {@link WrapperAdapter} before it.
+         */
+        public boolean isAdaptee() {
+            return adaptee;
+        }
+
+        public long getShallowSize() {
+            return shallowSize;
+        }
+
+        public long getRetainedSize() {
+            return retainedSize;
+        }
+
+        /**
+         * Returns the part of the retained size held by the attachment storage.
+         */
+        public long getAttachmentsSize() {
+            return attachmentsSize;
+        }
+
+        /**
+         * Reports whether the walk of the layer stopped at the max count of objects,
+         * so the retained size and the attachment size are lower bounds.
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public String toString() {
+            return "LayerFootprint{type=" + typeName(instanceType) + (adaptee ? ", adaptee" : "") +
+                    (truncated ? ", truncated" : "") + ", shallow=" + shallowSize + ", retained=" + retainedSize +
+                    ", attachments=" + attachmentsSize + '}';
+        }
+    }
+
+    /**
+     * The aggregated footprint of an instance type across the measured wrapper chains.
+     */
+    public static final class TypeFootprint {
+        private final Class<?> instanceType;
+        private int instanceCount;
+        private long shallowSize;
+        private long retainedSize;
+        private long attachmentsSize;
+
+        TypeFootprint(Class<?> instanceType) {
+            this.instanceType = instanceType;
+        }
+
+        private void add(LayerFootprint f) {
+            if (f.retainedSize == 0) return;
+            instanceCount++;
+            shallowSize += f.shallowSize;
+            retainedSize += f.retainedSize;
+            attachmentsSize += f.attachmentsSize;
+        }
+
+        @NonNull
+        public Class<?> getInstanceType() {
+            return instanceType;
+        }
+
+        /**
+         * Returns the count of the distinct measured instances of this type.
+         */
+        public int getInstanceCount() {
+            return instanceCount;
+        }
+
+        public long getShallowSize() {
+            return shallowSize;
+        }
+
+        public long getRetainedSize() {
+            return retainedSize;
+        }
+
+        public long getAttachmentsSize() {
+            return attachmentsSize;
+        }
+
+        @Override
+        public String toString() {
+            return "TypeFootprint{type=" + typeName(instanceType) + ", instances=" + instanceCount +
+                    ", shallow=" + shallowSize + ", retained=" + retainedSize + ", attachments=" + attachmentsSize + '}';
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A lock-free latency histogram in nanoseconds, with the power-of-two buckets:
+ * the bucket {@code i} counts the latencies in {@code [2^(i-1), 2^i)}, the bucket {@code 0} counts the zero latencies.
+ * <p>
+ * Recording is the atomic increments of a bucket and the {@link LongAdder} counters, does not lock
+ * and does not allocate; the reads are not atomic snapshots, the concurrent recording may be partially visible.
+ * The percentiles are estimated by the upper bounds of the buckets, so the error is less than 2x.
+ *
+ * @see AsyncLatencyRecorder
+ */
+public final class LatencyHistogram {
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a latency, the negative latency is recorded as zero.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+
+        for (long max = maxNanos.get(); nanos > max; max = maxNanos.get()) {
+            if (maxNanos.compareAndSet(max, nanos)) break;
+        }
+    }
+
+    /**
+     * Returns the count of the recorded latencies.
+     */
+    @Contract(pure = true)
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded latencies in nanoseconds.
+     */
+    @Contract(pure = true)
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded latencies in nanoseconds, {@code 0} if no latency is recorded.
+     */
+    @Contract(pure = true)
+    public double getMeanNanos() {
+        final long n = count.sum();
+        return n == 0 ? 0 : (double) totalNanos.sum() / n;
+    }
+
+    /**
+     * Returns the max of the recorded latencies in nanoseconds, {@code 0} if no latency is recorded.
+     */
+    @Contract(pure = true)
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Estimates the latency at the given percentile in nanoseconds, by the upper bound of the bucket
+     * holding the percentile, capped by the max; {@code 0} if no latency is recorded.
+     *
+     * @param percentile the percentile in {@code [0, 100]}
+     * @throws IllegalArgumentException if the percentile is out of {@code [0, 100]}
+     */
+    @Contract(pure = true)
+    public long getPercentileNanos(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile(" + percentile + ") is out of [0, 100]");
+        }
+        final long[] counts = getBucketCounts();
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return 0;
+
+        final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBoundOf(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the counts of the buckets, the bucket {@code i} counts the latencies in {@code [2^(i-1), 2^i)}.
+     */
+    @Contract(pure = true)
+    public long[] getBucketCounts() {
+        final long[] ret = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) ret[i] = buckets.get(i);
+        return ret;
+    }
+
+    /**
+     * Resets the histogram.
+     * <p>
+     * The reset is not atomic, the concurrent recording may be partially kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) buckets.set(i, 0);
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + getCount() + ", mean=" + (long) getMeanNanos() +
+                "ns, p50=" + getPercentileNanos(50) + "ns, p99=" + getPercentileNanos(99) +
+                "ns, max=" + getMaxNanos() + "ns}";
+    }
+
+    private static int bucketOf(long nanos) {
+        // the nanos is non-negative, so the bucket is in [0, 63]
+        return Long.SIZE - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return bucket == 0 ? 0 : (1L << bucket) - 1;
+    }
+}
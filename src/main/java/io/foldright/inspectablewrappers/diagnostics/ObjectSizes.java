@@ -0,0 +1,131 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Estimates the shallow sizes of objects, used by {@link FootprintReporter}.
+ * <p>
+ * Uses {@link Instrumentation#getObjectSize(Object)} if an agent provided the {@link Instrumentation},
+ * otherwise estimates from the field layout: the object header, the field sizes and the 8-byte alignment,
+ * assuming the compressed references of 64-bit HotSpot JVM when the max heap is less than 32GB.
+ */
+final class ObjectSizes {
+    @Nullable
+    static volatile Instrumentation instrumentation;
+
+    private static final boolean IS_32_BIT = "32".equals(System.getProperty("sun.arch.data.model"));
+    static final int REFERENCE_SIZE = IS_32_BIT || Runtime.getRuntime().maxMemory() < (32L << 30) ? 4 : 8;
+    private static final int OBJECT_HEADER_SIZE = IS_32_BIT ? 8 : 12;
+    private static final int ARRAY_HEADER_SIZE = IS_32_BIT ? 12 : 16;
+
+    private static final ClassValue<ClassLayout> LAYOUTS = new ClassValue<ClassLayout>() {
+        @Override
+        protected ClassLayout computeValue(Class<?> type) {
+            return new ClassLayout(type);
+        }
+    };
+
+    static long shallowSizeOf(Object obj) {
+        final Instrumentation inst = instrumentation;
+        if (inst != null) return inst.getObjectSize(obj);
+
+        final Class<?> type = obj.getClass();
+        if (type.isArray()) {
+            final Class<?> componentType = type.getComponentType();
+            final int elementSize = componentType.isPrimitive() ? primitiveSize(componentType) : REFERENCE_SIZE;
+            return align(ARRAY_HEADER_SIZE + (long) elementSize * Array.getLength(obj));
+        }
+        return LAYOUTS.get(type).instanceSize;
+    }
+
+    /**
+     * Estimates the sizes of the internal nodes of the collections whose fields are inaccessible
+     * (e.g. the JDK collections on Java 16+), which can not be walked by reflection.
+     */
+    static long internalNodesSizeOf(Object obj) {
+        if (obj instanceof Map) {
+            final int size = ((Map<?, ?>) obj).size();
+            // the hash node(hash, key, value, next) per entry, and the table of the next power of two capacity
+            final long node = align(OBJECT_HEADER_SIZE + 4 + 3L * REFERENCE_SIZE);
+            final long table = align(ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE * tableCapacity(size));
+            return size * node + (size == 0 ? 0 : table);
+        }
+        if (obj instanceof Collection) {
+            final int size = ((Collection<?>) obj).size();
+            return size == 0 ? 0 : align(ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE * size);
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the reference fields of the given class(including the super classes),
+     * or {@code null} if they are inaccessible by reflection.
+     */
+    @Nullable
+    static Field[] referenceFieldsOf(Class<?> type) {
+        return LAYOUTS.get(type).referenceFields;
+    }
+
+    private static int tableCapacity(int size) {
+        final int min = (int) Math.min(1 << 30, size * 4L / 3 + 1);
+        return Integer.highestOneBit(min - 1) << 1;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static final class ClassLayout {
+        final long instanceSize;
+        @Nullable
+        final Field[] referenceFields;
+
+        ClassLayout(Class<?> type) {
+            long size = OBJECT_HEADER_SIZE;
+            final List<Field> fields = new ArrayList<>();
+            boolean accessible = true;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(f.getModifiers())) continue;
+
+                    final Class<?> fieldType = f.getType();
+                    if (fieldType.isPrimitive()) {
+                        size += primitiveSize(fieldType);
+                        continue;
+                    }
+                    size += REFERENCE_SIZE;
+                    fields.add(f);
+                    if (accessible) {
+                        try {
+                            f.setAccessible(true);
+                        } catch (RuntimeException e) {
+                            // InaccessibleObjectException on Java 9+, or SecurityException
+                            accessible = false;
+                        }
+                    }
+                }
+            }
+            this.instanceSize = align(size);
+            this.referenceFields = accessible ? fields.toArray(new Field[0]) : null;
+        }
+    }
+
+    private ObjectSizes() {}
+}
@@ -0,0 +1,153 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.inspectablewrappers.Inspector;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+import org.jetbrains.annotations.Contract;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * Detects the redundant layers of wrapper chains: the layers whose type already occurs on an outer layer
+ * of the same wrapper chain, e.g. the chains wrapped repeatedly on every config reload.
+ * <p>
+ * The type of a layer is the class of the wrapper instance, or the class of the adaptee
+ * for a {@link WrapperAdapter}; the base of the wrapper chain is not a layer.
+ * The wrapper chains not deeper than the depth threshold are not reported,
+ * so the short chains with the intended duplicate layers are not noisy.
+ * <p>
+ * To avoid the redundant layers at wrapping time, use
+ * {@link Inspector#wrapIfAbsentOnWrapperChain(Object, Class, java.util.function.UnaryOperator)}.
+ *
+ * <pre>{@code
+ * RedundantLayerDetector detector = new RedundantLayerDetector(8);
+ * for (RedundantLayer layer : detector.detect(executor)) {
+ *     logger.warn("redundant layer of wrapper chain: " + layer);
+ * }
+ * }</pre>
+ *
+ * @see Inspector#getDepthOfWrapperChain(Object)
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class RedundantLayerDetector {
+    private final int depthThreshold;
+
+    /**
+     * Creates a detector reporting ONLY the wrapper chains deeper than the given depth threshold.
+     *
+     * @param depthThreshold the depth threshold, {@code 0} to report all wrapper chains
+     * @throws IllegalArgumentException if the depth threshold is negative
+     */
+    public RedundantLayerDetector(int depthThreshold) {
+        if (depthThreshold < 0) throw new IllegalArgumentException("depthThreshold(" + depthThreshold + ") is negative");
+        this.depthThreshold = depthThreshold;
+    }
+
+    /**
+     * Detects the redundant layers of the wrapper chain.
+     *
+     * @param wrapper the head of the wrapper chain
+     * @param <W>     the type of instances that be wrapped
+     * @return the redundant layers from the outermost, empty if the wrapper chain is
+     * not deeper than the depth threshold
+     * @throws NullPointerException  if wrapper argument is null,
+     *                               or any wrapper {@link io.foldright.inspectablewrappers.Wrapper#unwrap_()} returns null,
+     *                               or the adaptee of {@link WrapperAdapter} is null
+     * @throws IllegalStateException if the adaptee of {@link WrapperAdapter} is an instance of
+     *                               {@link io.foldright.inspectablewrappers.Wrapper} or CYCLIC wrapper chain
+     */
+    @NonNull
+    public <W> List<RedundantLayer> detect(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+
+        final List<Class<?>> layerClasses = new ArrayList<>();
+        final boolean[] adapteeNext = {false};
+        Inspector.forEachOnWrapperChain(wrapper, w -> {
+            // the adaptee of WrapperAdapter is visited right after the adapter
+            if (adapteeNext[0]) layerClasses.set(layerClasses.size() - 1, w.getClass());
+            else layerClasses.add(w.getClass());
+            adapteeNext[0] = !adapteeNext[0] && w instanceof WrapperAdapter;
+        });
+        // the base of the wrapper chain
+        layerClasses.remove(layerClasses.size() - 1);
+        if (layerClasses.size() <= depthThreshold) return Collections.emptyList();
+
+        final Map<Class<?>, Integer> firstIndexes = new HashMap<>();
+        final List<RedundantLayer> ret = new ArrayList<>();
+        for (int i = 0; i < layerClasses.size(); i++) {
+            final Class<?> layerClass = layerClasses.get(i);
+            final Integer firstIndex = firstIndexes.putIfAbsent(layerClass, i);
+            if (firstIndex == null) continue;
+
+            final boolean consecutive = layerClasses.get(i - 1) == layerClass;
+            ret.add(new RedundantLayer(i, layerClass, firstIndex, consecutive));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the depth threshold, the wrapper chains not deeper than it are not reported.
+     */
+    @Contract(pure = true)
+    public int getDepthThreshold() {
+        return depthThreshold;
+    }
+
+    /**
+     * A redundant layer on the wrapper chain, whose type already occurs on an outer layer.
+     * The index of a layer is its position on the wrapper chain, the index {@code 0} is the outermost;
+     * the adaptees are not counted.
+     */
+    public static final class RedundantLayer {
+        private final int index;
+        private final Class<?> layerClass;
+        private final int firstIndex;
+        private final boolean consecutive;
+
+        RedundantLayer(int index, Class<?> layerClass, int firstIndex, boolean consecutive) {
+            this.index = index;
+            this.layerClass = layerClass;
+            this.firstIndex = firstIndex;
+            this.consecutive = consecutive;
+        }
+
+        /**
+         * Returns the index of the redundant layer.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the type of the layer, the class of the wrapper instance or of the adaptee.
+         */
+        @NonNull
+        public Class<?> getLayerClass() {
+            return layerClass;
+        }
+
+        /**
+         * Returns the index of the outermost layer of the same type.
+         */
+        public int getFirstIndex() {
+            return firstIndex;
+        }
+
+        /**
+         * Reports whether the layer right outside this layer is of the same type.
+         */
+        public boolean isConsecutive() {
+            return consecutive;
+        }
+
+        @Override
+        public String toString() {
+            return "RedundantLayer{index=" + index + ", type=" + layerClass.getName() +
+                    ", firstIndex=" + firstIndex + (consecutive ? ", consecutive" : "") + '}';
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.inspectablewrappers.Inspector;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+import org.jetbrains.annotations.Contract;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * An opt-in registry of the live wrapper chain heads, which can be inspected over JMX
+ * (e.g. by JConsole or {@code jcmd}) without code changes or heap dumps.
+ * <p>
+ * The heads are held by weak references, so the registry does not keep the wrapper chains alive.
+ * The references are stored in striped concurrent sets, selected by the registering thread,
+ * so the registration does not contend; the cleared references are enqueued to the {@link ReferenceQueue}
+ * of the stripe by GC, and removed when the stripe is registered to or the registry is read.
+ * Nothing is computed until the registry is read, so the cost is close to zero when nobody is looking.
+ *
+ * <pre>{@code
+ * WrapperChainRegistry.registerMBean(); // once, at application startup
+ *
+ * Executor executor = WrapperChainRegistry.register(new ChattyExecutorWrapper(new LazyExecutorWrapper(base)));
+ * }</pre>
+ *
+ * @see WrapperChainRegistryMXBean
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class WrapperChainRegistry {
+    /**
+     * The JMX object name of the registry MBean.
+     */
+    public static final String OBJECT_NAME = "io.foldright.inspectablewrappers:type=WrapperChainRegistry";
+
+    private static final Stripe[] STRIPES;
+    private static final int STRIPE_MASK;
+
+    static {
+        final int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        STRIPES = new Stripe[n];
+        for (int i = 0; i < n; i++) STRIPES[i] = new Stripe();
+        STRIPE_MASK = n - 1;
+    }
+
+    /**
+     * Registers the head of a wrapper chain; the wrapper chain is not inspected until the registry is read.
+     *
+     * @param wrapper the head of the wrapper chain
+     * @param <W>     the type of instances that be wrapped
+     * @return the given wrapper, for chaining the registration with the creation
+     * @throws NullPointerException if wrapper argument is null
+     */
+    @NonNull
+    public static <W> W register(final W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        final Stripe stripe = STRIPES[(int) Thread.currentThread().getId() & STRIPE_MASK];
+        stripe.drainCleared();
+        stripe.heads.add(new WeakReference<>(wrapper, stripe.cleared));
+        return wrapper;
+    }
+
+    /**
+     * Unregisters the head of a wrapper chain.
+     *
+     * @return {@code true} if the wrapper was registered
+     * @throws NullPointerException if wrapper argument is null
+     */
+    public static boolean unregister(final Object wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        boolean removed = false;
+        for (Stripe stripe : STRIPES) removed |= stripe.remove(wrapper);
+        return removed;
+    }
+
+    /**
+     * Returns the live(not garbage collected) registered wrapper chain heads.
+     */
+    @NonNull
+    @Contract(pure = true)
+    public static List<Object> getLiveChains() {
+        final List<Object> ret = new ArrayList<>();
+        for (Stripe stripe : STRIPES) {
+            stripe.drainCleared();
+            for (WeakReference<Object> ref : stripe.heads) {
+                final Object head = ref.get();
+                if (head != null) ret.add(head);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Registers the registry MBean to the platform MBean server, with the object name {@value #OBJECT_NAME}.
+     *
+     * @return {@code false} if the MBean is already registered
+     * @throws IllegalStateException if failed to register the MBean
+     */
+    public static boolean registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new RegistryMXBean(), new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (InstanceAlreadyExistsException e) {
+            return false;
+        } catch (JMException e) {
+            throw new IllegalStateException("fail to register MBean " + OBJECT_NAME + ": " + e, e);
+        }
+    }
+
+    /**
+     * Unregisters the registry MBean from the platform MBean server.
+     *
+     * @return {@code false} if the MBean is not registered
+     * @throws IllegalStateException if failed to unregister the MBean
+     */
+    public static boolean unregisterMBean() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (InstanceNotFoundException e) {
+            return false;
+        } catch (JMException e) {
+            throw new IllegalStateException("fail to unregister MBean " + OBJECT_NAME + ": " + e, e);
+        }
+    }
+
+    /**
+     * Describes the wrapper chain in one line: the head instance, followed by the layer classes.
+     */
+    static String describeChain(final Object head) {
+        final StringBuilder sb = new StringBuilder(identityOf(head)).append(": ");
+        try {
+            final boolean[] adapteeNext = {false};
+            final boolean[] first = {true};
+            Inspector.travelWrapperChain(head, w -> {
+                if (!first[0]) sb.append(adapteeNext[0] ? " ~adaptee~> " : " -> ");
+                first[0] = false;
+                sb.append(w.getClass().getName());
+                adapteeNext[0] = !adapteeNext[0] && w instanceof WrapperAdapter;
+                return Optional.empty();
+            });
+        } catch (RuntimeException e) {
+            sb.append(" <broken wrapper chain: ").append(e).append('>');
+        }
+        return sb.toString();
+    }
+
+    private static String identityOf(final Object obj) {
+        return obj.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(obj));
+    }
+
+    /**
+     * Returns the count of the references held by the registry, including the cleared ones not drained yet.
+     */
+    static int getReferenceCount() {
+        int count = 0;
+        for (Stripe stripe : STRIPES) count += stripe.heads.size();
+        return count;
+    }
+
+    private static final class Stripe {
+        /**
+         * The references compare by identity, so a cleared reference is removed in constant time.
+         */
+        final Set<WeakReference<Object>> heads = ConcurrentHashMap.newKeySet();
+        final ReferenceQueue<Object> cleared = new ReferenceQueue<>();
+
+        /**
+         * Removes the references cleared by GC.
+         */
+        void drainCleared() {
+            for (Reference<?> ref; (ref = cleared.poll()) != null; ) heads.remove(ref);
+        }
+
+        /**
+         * Removes the reference of the given wrapper.
+         *
+         * @return {@code true} if the given wrapper is removed
+         */
+        boolean remove(final Object wrapper) {
+            drainCleared();
+            boolean removed = false;
+            for (Iterator<WeakReference<Object>> it = heads.iterator(); it.hasNext(); ) {
+                if (it.next().get() == wrapper) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+    }
+
+    private static final class RegistryMXBean implements WrapperChainRegistryMXBean {
+        @Override
+        public int getLiveChainCount() {
+            return getLiveChains().size();
+        }
+
+        @Override
+        public List<String> getChains() {
+            final List<String> ret = new ArrayList<>();
+            for (Object head : getLiveChains()) ret.add(describeChain(head));
+            return ret;
+        }
+
+        @Override
+        public List<String> getAttachments(String key) {
+            requireNonNull(key, "key is null");
+            final List<String> ret = new ArrayList<>();
+            for (Object head : getLiveChains()) {
+                try {
+                    final Object value = Inspector.getAttachmentFromWrapperChain(head, key);
+                    if (value != null) ret.add(identityOf(head) + ": " + value);
+                } catch (RuntimeException e) {
+                    ret.add(identityOf(head) + ": <broken wrapper chain: " + e + '>');
+                }
+            }
+            return ret;
+        }
+    }
+
+    private WrapperChainRegistry() {}
+}
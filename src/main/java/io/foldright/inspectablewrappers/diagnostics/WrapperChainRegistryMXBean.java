@@ -0,0 +1,33 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import java.util.List;
+
+
+/**
+ * The JMX management interface of {@link WrapperChainRegistry},
+ * registered by {@link WrapperChainRegistry#registerMBean()}
+ * with the object name {@value WrapperChainRegistry#OBJECT_NAME}.
+ * <p>
+ * All the values are computed on demand, when the operator reads them(e.g. by JConsole).
+ *
+ * @see WrapperChainRegistry
+ */
+public interface WrapperChainRegistryMXBean {
+    /**
+     * Returns the count of the live wrapper chains in the registry.
+     */
+    int getLiveChainCount();
+
+    /**
+     * Lists the live wrapper chains, one line per wrapper chain: the head instance, followed by the layer classes.
+     */
+    List<String> getChains();
+
+    /**
+     * Lists the attachment values of the given key on the live wrapper chains,
+     * one line per wrapper chain that has the attachment.
+     *
+     * @see io.foldright.inspectablewrappers.Inspector#getAttachmentFromWrapperChain(Object, Object)
+     */
+    List<String> getAttachments(String key);
+}
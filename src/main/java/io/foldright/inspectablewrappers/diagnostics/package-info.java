@@ -0,0 +1,9 @@
+/**
+ * The diagnostic tools of wrapper chains.
+ *
+ * @see io.foldright.inspectablewrappers.diagnostics.FootprintReporter
+ * @see io.foldright.inspectablewrappers.diagnostics.RedundantLayerDetector
+ * @see io.foldright.inspectablewrappers.diagnostics.AsyncLatencyRecorder
+ * @see io.foldright.inspectablewrappers.diagnostics.WrapperChainRegistry
+ */
+package io.foldright.inspectablewrappers.diagnostics;
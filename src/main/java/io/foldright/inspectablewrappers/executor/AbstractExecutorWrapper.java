@@ -0,0 +1,66 @@
+package io.foldright.inspectablewrappers.executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.ChainAware;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import io.foldright.inspectablewrappers.utils.ChainAwareDelegate;
+
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * The common base of the executor wrappers in this package,
+ * implements the {@link Wrapper}, {@link ChainAware} and {@link Attachable} boilerplate.
+ * <p>
+ * The wrapper chain below is captured by {@link ChainAwareDelegate}, so the underlying wrapper chains
+ * containing a {@link io.foldright.inspectablewrappers.ReusableWrapper ReusableWrapper} are rejected.
+ */
+abstract class AbstractExecutorWrapper implements Executor, ChainAware<Executor>, Attachable<String, Object> {
+    final Executor executor;
+
+    private final ChainAwareDelegate<Executor> chainAware;
+    private final Attachable<String, Object> attachable = new AttachableDelegate<>();
+
+    AbstractExecutorWrapper(Executor executor) {
+        this.executor = requireNonNull(executor, "executor is null");
+        this.chainAware = new ChainAwareDelegate<>(executor);
+    }
+
+    @NonNull
+    @Override
+    public final Executor unwrap_() {
+        return executor;
+    }
+
+    @NonNull
+    @Override
+    public final Executor base_() {
+        return chainAware.base_();
+    }
+
+    @Override
+    public final int depth_() {
+        return chainAware.depth_();
+    }
+
+    @Override
+    public final void setAttachment_(@NonNull String key, @NonNull Object value) {
+        attachable.setAttachment_(key, value);
+    }
+
+    @Nullable
+    @Override
+    public final Object getAttachment_(@NonNull String key) {
+        return attachable.getAttachment_(key);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + executor + ")";
+    }
+}
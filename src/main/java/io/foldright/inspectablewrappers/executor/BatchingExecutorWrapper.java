@@ -0,0 +1,153 @@
+package io.foldright.inspectablewrappers.executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * An executor wrapper that batches the submitted tasks, runs up to {@link #getMaxBatchSize() max batch size}
+ * tasks in one task submitted to the underlying executor.
+ * <p>
+ * Batching reduces the submission(e.g. thread hand-off, queue contention) cost of the underlying executor
+ * for the small tasks. The tasks are run in submission order, and at most one batch is running at any time.
+ * <p>
+ * If a task throws an exception, the exception is relayed to the underlying executor,
+ * and the remaining tasks are run by the next batch.
+ * If the underlying executor rejects the batch, the rejection is relayed to the caller
+ * and the rejected task is removed from the queue, so the caller may retry it without running it twice.
+ * The other queued tasks, whose submitters have returned, are not stranded: they are run by the rejected caller
+ * (like {@link java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy CallerRunsPolicy}) unless the next batch
+ * is accepted, and their exceptions are suppressed by the rejection. Likewise, if the next batch is rejected
+ * when scheduled by a finished batch, the batch thread runs it.
+ * <p>
+ * The max batch size can be tuned at runtime, find this layer on the wrapper chain by
+ * {@link io.foldright.inspectablewrappers.Inspector#getFirstInstanceOfTypeOnWrapperChain(Object, Class)
+ * Inspector#getFirstInstanceOfTypeOnWrapperChain}.
+ */
+public final class BatchingExecutorWrapper extends AbstractExecutorWrapper {
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTaskCount = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable drainer = this::drain;
+
+    private volatile int maxBatchSize;
+
+    /**
+     * Creates a batching executor wrapper.
+     *
+     * @param executor     the underlying executor
+     * @param maxBatchSize the max count of tasks run in one batch
+     * @throws NullPointerException     if executor is null
+     * @throws IllegalArgumentException if maxBatchSize is not positive
+     */
+    public BatchingExecutorWrapper(Executor executor, int maxBatchSize) {
+        super(executor);
+        setMaxBatchSize(maxBatchSize);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        requireNonNull(command, "command is null");
+        queue.offer(command);
+        pendingTaskCount.incrementAndGet();
+        if (!scheduled.compareAndSet(false, true)) return;
+        try {
+            executor.execute(drainer);
+        } catch (RuntimeException | Error e) {
+            // the rejected task is not run by the later batches
+            if (queue.remove(command)) pendingTaskCount.decrementAndGet();
+            // the tasks queued by other threads meanwhile are not scheduled by their submitters
+            Throwable failure = null;
+            while (!releaseOrKeepDraining()) failure = runBatch(failure);
+            if (failure != null) e.addSuppressed(failure);
+            throw e;
+        }
+    }
+
+    private void drain() {
+        Throwable failure = null;
+        do {
+            failure = runBatch(failure);
+        } while (!releaseOrKeepDraining());
+
+        if (failure == null) return;
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+        throw new UndeclaredThrowableException(failure);
+    }
+
+    /**
+     * Runs one batch, the current thread holds the scheduled flag; a task exception ends the batch.
+     *
+     * @return the first exception thrown by the tasks, which suppresses the later ones
+     */
+    @Nullable
+    private Throwable runBatch(@Nullable Throwable failure) {
+        for (int i = 0, max = maxBatchSize; i < max; i++) {
+            final Runnable task = queue.poll();
+            if (task == null) break;
+            pendingTaskCount.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                if (failure == null) return t;
+                failure.addSuppressed(t);
+                return failure;
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Releases the scheduled flag, and schedules the next batch if any task is queued.
+     *
+     * @return {@code false} if the next batch is rejected by the underlying executor;
+     * then the current thread keeps the scheduled flag and should run the batch
+     */
+    private boolean releaseOrKeepDraining() {
+        scheduled.set(false);
+        // re-checked after the release, the submitters do not schedule while the flag is held
+        if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) return true;
+        try {
+            executor.execute(drainer);
+            return true;
+        } catch (RuntimeException | Error e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the max count of tasks run in one batch.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Sets the max count of tasks run in one batch, takes effect from the next batch.
+     *
+     * @throws IllegalArgumentException if maxBatchSize is not positive
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize(" + maxBatchSize + ") is not positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Returns the count of the submitted tasks which are not started yet.
+     */
+    public int getPendingTaskCount() {
+        return pendingTaskCount.get();
+    }
+}
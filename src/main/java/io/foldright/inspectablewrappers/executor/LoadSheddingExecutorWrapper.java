@@ -0,0 +1,115 @@
+package io.foldright.inspectablewrappers.executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * An executor wrapper that bounds the count of pending tasks(submitted but not finished),
+ * sheds the load by rejecting new tasks with {@link RejectedExecutionException} when the bound is reached.
+ * <p>
+ * Shedding before the underlying executor keeps the queue of the underlying executor short,
+ * so the accepted tasks are not delayed by an unbounded backlog.
+ * <p>
+ * The bound can be tuned at runtime, find this layer on the wrapper chain by
+ * {@link io.foldright.inspectablewrappers.Inspector#getFirstInstanceOfTypeOnWrapperChain(Object, Class)
+ * Inspector#getFirstInstanceOfTypeOnWrapperChain}.
+ */
+public final class LoadSheddingExecutorWrapper extends AbstractExecutorWrapper {
+    private final AtomicInteger pendingTaskCount = new AtomicInteger();
+    private final LongAdder rejectedTaskCount = new LongAdder();
+
+    private volatile int maxPendingTasks;
+
+    /**
+     * Creates a load shedding executor wrapper.
+     *
+     * @param executor        the underlying executor
+     * @param maxPendingTasks the max count of pending tasks
+     * @throws NullPointerException     if executor is null
+     * @throws IllegalArgumentException if maxPendingTasks is not positive
+     */
+    public LoadSheddingExecutorWrapper(Executor executor, int maxPendingTasks) {
+        super(executor);
+        setMaxPendingTasks(maxPendingTasks);
+    }
+
+    /**
+     * Executes the given command by the underlying executor
+     * if the count of pending tasks does not reach the bound.
+     *
+     * @throws RejectedExecutionException if the count of pending tasks reaches the bound,
+     *                                    or the underlying executor rejects the command
+     */
+    @Override
+    public void execute(@NonNull Runnable command) {
+        requireNonNull(command, "command is null");
+        if (!tryAcquire()) {
+            rejectedTaskCount.increment();
+            throw new RejectedExecutionException("pending tasks reach the bound(" + maxPendingTasks +
+                    "), command is shed by " + getClass().getSimpleName());
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    pendingTaskCount.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            pendingTaskCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            final int current = pendingTaskCount.get();
+            if (current >= maxPendingTasks) return false;
+            if (pendingTaskCount.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * Returns the max count of pending tasks.
+     */
+    public int getMaxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+    /**
+     * Sets the max count of pending tasks, takes effect for the next submission.
+     * <p>
+     * Lowering the bound does not affect the tasks already accepted.
+     *
+     * @throws IllegalArgumentException if maxPendingTasks is not positive
+     */
+    public void setMaxPendingTasks(int maxPendingTasks) {
+        if (maxPendingTasks <= 0) {
+            throw new IllegalArgumentException("maxPendingTasks(" + maxPendingTasks + ") is not positive");
+        }
+        this.maxPendingTasks = maxPendingTasks;
+    }
+
+    /**
+     * Returns the count of the accepted tasks which are not finished yet.
+     */
+    public int getPendingTaskCount() {
+        return pendingTaskCount.get();
+    }
+
+    /**
+     * Returns the count of the tasks shed by this wrapper.
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTaskCount.sum();
+    }
+}
@@ -0,0 +1,120 @@
+package io.foldright.inspectablewrappers.executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * An executor wrapper that records the task metrics: counts of the submitted/rejected/completed/failed tasks,
+ * and the accumulated queueing(from submission to start) and execution time.
+ * <p>
+ * All counters are {@link LongAdder}s, so recording does not contend between the threads.
+ * <p>
+ * Find this layer on the wrapper chain by
+ * {@link io.foldright.inspectablewrappers.Inspector#getFirstInstanceOfTypeOnWrapperChain(Object, Class)
+ * Inspector#getFirstInstanceOfTypeOnWrapperChain} to read or {@link #reset()} the metrics.
+ */
+public final class MetricsExecutorWrapper extends AbstractExecutorWrapper {
+    private final LongAdder submittedTaskCount = new LongAdder();
+    private final LongAdder rejectedTaskCount = new LongAdder();
+    private final LongAdder completedTaskCount = new LongAdder();
+    private final LongAdder failedTaskCount = new LongAdder();
+    private final LongAdder totalQueueingNanos = new LongAdder();
+    private final LongAdder totalExecutionNanos = new LongAdder();
+
+    /**
+     * Creates a metrics executor wrapper.
+     *
+     * @param executor the underlying executor
+     * @throws NullPointerException if executor is null
+     */
+    public MetricsExecutorWrapper(Executor executor) {
+        super(executor);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        requireNonNull(command, "command is null");
+        final long submitNanos = System.nanoTime();
+        submittedTaskCount.increment();
+        try {
+            executor.execute(() -> {
+                final long startNanos = System.nanoTime();
+                totalQueueingNanos.add(startNanos - submitNanos);
+                boolean completed = false;
+                try {
+                    command.run();
+                    completed = true;
+                } finally {
+                    totalExecutionNanos.add(System.nanoTime() - startNanos);
+                    if (completed) completedTaskCount.increment();
+                    else failedTaskCount.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedTaskCount.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the count of the submitted tasks, including the rejected ones.
+     */
+    public long getSubmittedTaskCount() {
+        return submittedTaskCount.sum();
+    }
+
+    /**
+     * Returns the count of the tasks rejected({@link RejectedExecutionException}) by the underlying executor.
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTaskCount.sum();
+    }
+
+    /**
+     * Returns the count of the tasks completed normally.
+     */
+    public long getCompletedTaskCount() {
+        return completedTaskCount.sum();
+    }
+
+    /**
+     * Returns the count of the tasks completed exceptionally.
+     */
+    public long getFailedTaskCount() {
+        return failedTaskCount.sum();
+    }
+
+    /**
+     * Returns the accumulated time in nanoseconds from submission to start of the started tasks.
+     */
+    public long getTotalQueueingNanos() {
+        return totalQueueingNanos.sum();
+    }
+
+    /**
+     * Returns the accumulated execution time in nanoseconds of the finished tasks.
+     */
+    public long getTotalExecutionNanos() {
+        return totalExecutionNanos.sum();
+    }
+
+    /**
+     * Resets all metrics to zero.
+     * <p>
+     * The reset is not atomic, the concurrent recording may be partially kept.
+     */
+    public void reset() {
+        submittedTaskCount.reset();
+        rejectedTaskCount.reset();
+        completedTaskCount.reset();
+        failedTaskCount.reset();
+        totalQueueingNanos.reset();
+        totalExecutionNanos.reset();
+    }
+}
@@ -0,0 +1,91 @@
+package io.foldright.inspectablewrappers.executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * An executor wrapper that offloads the tasks to new virtual threads on JDK 21+,
+ * so the blocking tasks do not occupy the threads of the underlying executor.
+ * <p>
+ * The underlying executor is the fallback: the tasks are executed by the underlying executor
+ * if virtual threads are not supported by the running JDK, or the offloading is disabled.
+ * <p>
+ * This library targets Java 8, so the virtual thread factory is looked up reflectively once at class initialization.
+ * <p>
+ * The offloading can be switched at runtime, find this layer on the wrapper chain by
+ * {@link io.foldright.inspectablewrappers.Inspector#getFirstInstanceOfTypeOnWrapperChain(Object, Class)
+ * Inspector#getFirstInstanceOfTypeOnWrapperChain}.
+ */
+public final class VirtualThreadExecutorWrapper extends AbstractExecutorWrapper {
+    @Nullable
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = lookupVirtualThreadFactory();
+
+    private volatile boolean offloadingEnabled = true;
+
+    /**
+     * Creates a virtual thread executor wrapper.
+     *
+     * @param executor the underlying executor, used as the fallback
+     * @throws NullPointerException if executor is null
+     */
+    public VirtualThreadExecutorWrapper(Executor executor) {
+        super(executor);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        requireNonNull(command, "command is null");
+        final ThreadFactory factory = VIRTUAL_THREAD_FACTORY;
+        if (offloadingEnabled && factory != null) factory.newThread(command).start();
+        else executor.execute(command);
+    }
+
+    /**
+     * Reports whether the tasks are currently offloaded to virtual threads.
+     */
+    public boolean isOffloading() {
+        return offloadingEnabled && VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Enables or disables the offloading at runtime; if disabled, the tasks are executed by the underlying executor.
+     * <p>
+     * Enabling has no effect if virtual threads are not supported by the running JDK.
+     */
+    public void setOffloadingEnabled(boolean offloadingEnabled) {
+        this.offloadingEnabled = offloadingEnabled;
+    }
+
+    /**
+     * Reports whether virtual threads are supported by the running JDK.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().name("inspectable-virtual-", 0).factory()}, returns {@code null}
+     * if virtual threads are not supported.
+     */
+    @Nullable
+    private static ThreadFactory lookupVirtualThreadFactory() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, "inspectable-virtual-", 0L);
+            final Method factory = builderClass.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // virtual threads are not available, e.g. JDK < 21
+            return null;
+        }
+    }
+}
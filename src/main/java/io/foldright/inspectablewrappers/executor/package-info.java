@@ -0,0 +1,13 @@
+/**
+ * Inspectable {@link java.util.concurrent.Executor} wrappers.
+ * <p>
+ * All executor wrappers implement {@link io.foldright.inspectablewrappers.Wrapper} and
+ * {@link io.foldright.inspectablewrappers.Attachable}, so any layer of the executor wrapper chain
+ * can be found and tuned at runtime by {@link io.foldright.inspectablewrappers.Inspector}.
+ *
+ * @see io.foldright.inspectablewrappers.executor.BatchingExecutorWrapper
+ * @see io.foldright.inspectablewrappers.executor.VirtualThreadExecutorWrapper
+ * @see io.foldright.inspectablewrappers.executor.LoadSheddingExecutorWrapper
+ * @see io.foldright.inspectablewrappers.executor.MetricsExecutorWrapper
+ */
+package io.foldright.inspectablewrappers.executor;
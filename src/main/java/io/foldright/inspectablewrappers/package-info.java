@@ -10,7 +10,27 @@
  *       enhance the wrapper instances with the attachment storage ability
  *   <li>{@link io.foldright.inspectablewrappers.WrapperAdapter} interface is used to adapt
  *       an existed wrapper instance to type {@link io.foldright.inspectablewrappers.Wrapper} without modifying it.
+ *   <li>{@link io.foldright.inspectablewrappers.CompositeWrapper} interface is used to be implemented
+ *       by wrapper classes that wrap multiple underlying instances, make an <strong>inspectable wrapper graph</strong>.
+ *   <li>{@link io.foldright.inspectablewrappers.LazyWrapper} interface is used to be implemented by wrapper classes
+ *       that create the underlying instance lazily, reports the declared type without materializing it.
+ *   <li>{@link io.foldright.inspectablewrappers.ChainAware} interface is used to be implemented by immutable
+ *       wrapper classes that capture the base and the depth of the wrapper chain at construction.
+ *   <li>{@link io.foldright.inspectablewrappers.ReusableWrapper} interface is used to be implemented by short-lived
+ *       wrapper classes whose instances are recycled by a pool.
+ *   <li>{@link io.foldright.inspectablewrappers.Interceptor} interface is used to be implemented by the interceptors
+ *       run by {@link io.foldright.inspectablewrappers.utils.InterceptorChain}, the flat alternative of the deep chains.
  *   </ul>
+ * <li>The {@link io.foldright.inspectablewrappers.WrapperDescriptor} class declares the types and attachment keys
+ *     that can occur below a wrapper layer, so the inspection can end early.
+ * <li>The {@link io.foldright.inspectablewrappers.UnwrapStrategy} SPI tells the inspection how to unwrap
+ *     the foreign wrapper classes that can not implement {@link io.foldright.inspectablewrappers.Wrapper}.
+ * <li>The {@link io.foldright.inspectablewrappers.PassThrough} annotation declares the wrapper methods
+ *     that delegate unchanged, the {@link io.foldright.inspectablewrappers.PassThroughShortcuts} class
+ *     builds the per-method shortcuts that skip them.
+ * <li>The {@link io.foldright.inspectablewrappers.ScopedAttachments} class binds the request-scoped attachments
+ *     to the current thread, consulted by {@code Inspector#getScopedAttachmentFromWrapperChain}
+ *     before the attachments on the wrapper chain.
  * <li>The {@link io.foldright.inspectablewrappers.Inspector} class is used to inspect the wrapper chain.
  * </ul>
  *
@@ -20,6 +40,12 @@
  * @see io.foldright.inspectablewrappers.Wrapper
  * @see io.foldright.inspectablewrappers.Attachable
  * @see io.foldright.inspectablewrappers.WrapperAdapter
+ * @see io.foldright.inspectablewrappers.CompositeWrapper
+ * @see io.foldright.inspectablewrappers.LazyWrapper
+ * @see io.foldright.inspectablewrappers.ChainAware
+ * @see io.foldright.inspectablewrappers.ReusableWrapper
+ * @see io.foldright.inspectablewrappers.Interceptor
+ * @see io.foldright.inspectablewrappers.UnwrapStrategy
  * @see io.foldright.inspectablewrappers.Inspector
  */
 package io.foldright.inspectablewrappers;
@@ -7,6 +7,7 @@ import io.foldright.inspectablewrappers.Inspector;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static java.util.Objects.requireNonNull;
 
@@ -18,6 +19,9 @@ import static java.util.Objects.requireNonNull;
  * As the attachments are stored in {@code hash map}(threadsafe {@link ConcurrentHashMap}),
  * the implementation of the key type must meet the requirements of the {@code hash map}, which means that
  * a stable {@code hash code} and the ability to compare equality using {@code equals()} must be implemented.
+ * <p>
+ * The attachment map is created lazily by the first {@link #setAttachment_(Object, Object)},
+ * so the delegates without attachments cost no map.
  *
  * @author Jerry Lee (oldratlee at gmail dot com)
  * @author Yang Fang (snoop dot fy at gmail dot com)
@@ -25,7 +29,12 @@ import static java.util.Objects.requireNonNull;
  * @see Attachable
  */
 public class AttachableDelegate<K, V> implements Attachable<K, V> {
-    private final ConcurrentMap<K, V> attachments = new ConcurrentHashMap<>();
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AttachableDelegate, ConcurrentMap> ATTACHMENTS =
+            AtomicReferenceFieldUpdater.newUpdater(AttachableDelegate.class, ConcurrentMap.class, "attachments");
+
+    @Nullable
+    private volatile ConcurrentMap<K, V> attachments;
 
     /**
      * Sets an attachment.
@@ -38,7 +47,7 @@ public class AttachableDelegate<K, V> implements Attachable<K, V> {
     public void setAttachment_(@NonNull K key, @NonNull V value) {
         requireNonNull(key, "key is null");
         requireNonNull(value, "value is null");
-        attachments.put(key, value);
+        attachments().put(key, value);
     }
 
     /**
@@ -54,6 +63,26 @@ public class AttachableDelegate<K, V> implements Attachable<K, V> {
     @Override
     public V getAttachment_(@NonNull K key) {
         requireNonNull(key, "key is null");
-        return attachments.get(key);
+        final ConcurrentMap<K, V> map = attachments;
+        return map == null ? null : map.get(key);
+    }
+
+    /**
+     * Removes all attachments, keeps the created attachment map for the reuse;
+     * e.g. when the owner wrapper is recycled by {@link io.foldright.inspectablewrappers.ReusableWrapper#reset_()}.
+     */
+    public void clearAttachments() {
+        final ConcurrentMap<K, V> map = attachments;
+        if (map != null) map.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentMap<K, V> attachments() {
+        final ConcurrentMap<K, V> map = attachments;
+        if (map != null) return map;
+
+        final ConcurrentMap<K, V> created = new ConcurrentHashMap<>();
+        if (ATTACHMENTS.compareAndSet(this, null, created)) return created;
+        return attachments;
     }
 }
@@ -0,0 +1,101 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.ChainAware;
+import io.foldright.inspectablewrappers.Inspector;
+import io.foldright.inspectablewrappers.ReusableWrapper;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * A simple {@link ChainAware} delegate implementation, captures the base and the depth of the wrapper chain
+ * from the underlying instance.
+ * <p>
+ * If the underlying instance is a {@link ChainAware}, its captured values are reused at construction,
+ * which is a field read. Otherwise the wrapper chain of the underlying instance is traversed on the first access,
+ * so the underlying instance of a {@link io.foldright.inspectablewrappers.LazyWrapper LazyWrapper}
+ * is not materialized by the construction.
+ * <p>
+ * The captured values are stale if the wrapper chain below changes; so the wrapper chain
+ * containing a {@link ReusableWrapper}, which is rebound by the pool, is rejected at construction.
+ * The wrapper chain below a {@link ChainAware} contains no {@link ReusableWrapper} by its contracts,
+ * so only the non-conforming wrapper chain is traversed for the check.
+ *
+ * <pre>{@code
+ * public class MyExecutorWrapper implements Executor, ChainAware<Executor> {
+ *     private final Executor executor;
+ *     private final ChainAwareDelegate<Executor> chainAware;
+ *
+ *     public MyExecutorWrapper(Executor executor) {
+ *         this.executor = executor;
+ *         this.chainAware = new ChainAwareDelegate<>(executor);
+ *     }
+ *
+ *     public Executor base_() { return chainAware.base_(); }
+ *
+ *     public int depth_() { return chainAware.depth_(); }
+ *     ...
+ * }
+ * }</pre>
+ *
+ * @param <T> the type of instances that be wrapped
+ * @see ChainAware
+ */
+public final class ChainAwareDelegate<T> {
+    private final T underlying;
+    // computed on the first access for the non-conforming underlying instance; racy but idempotent
+    @Nullable
+    private volatile T base;
+    // 0 if not computed yet, the depth of the wrapper is positive
+    private int depth;
+
+    /**
+     * Creates a delegate for the wrapper of the given underlying instance.
+     *
+     * @param underlying the underlying instance of the wrapper
+     * @throws NullPointerException  if underlying is null, or the wrapper chain of the underlying instance
+     *                               violates the specification contracts
+     * @throws IllegalStateException if the wrapper chain of the underlying instance
+     *                               violates the specification contracts
+     * @throws IllegalArgumentException if the wrapper chain of the underlying instance contains
+     *                                  a {@link ReusableWrapper}
+     */
+    public ChainAwareDelegate(@NonNull T underlying) {
+        requireNonNull(underlying, "underlying is null");
+        if (underlying instanceof ReusableWrapper || !(underlying instanceof ChainAware)
+                && Inspector.containsInstanceTypeOnWrapperChain(underlying, ReusableWrapper.class)) {
+            throw new IllegalArgumentException("the wrapper chain of underlying contains a ReusableWrapper, " +
+                    "the captured wrapper chain is stale after rebind");
+        }
+        this.underlying = underlying;
+        if (underlying instanceof ChainAware) {
+            this.base = Inspector.getBaseOfWrapperChain(underlying);
+            this.depth = Inspector.getDepthOfWrapperChain(underlying) + 1;
+        }
+    }
+
+    /**
+     * Returns the base of the wrapper chain.
+     *
+     * @see ChainAware#base_()
+     */
+    @NonNull
+    public T base_() {
+        T b = base;
+        if (b == null) base = b = Inspector.getBaseOfWrapperChain(underlying);
+        return b;
+    }
+
+    /**
+     * Returns the depth of the wrapper.
+     *
+     * @see ChainAware#depth_()
+     */
+    public int depth_() {
+        int d = depth;
+        if (d == 0) depth = d = Inspector.getDepthOfWrapperChain(underlying) + 1;
+        return d;
+    }
+}
@@ -0,0 +1,247 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.Inspector;
+import io.foldright.inspectablewrappers.Interceptor;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+import org.jetbrains.annotations.Contract;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * The interceptor pipeline, ONE object holding the array of {@link Interceptor}s and the base instance,
+ * runs the interceptors in the flat loops instead of the virtual dispatch and the object per layer
+ * of the deep chains of tiny wrappers.
+ * <p>
+ * The chain exposes a virtual {@link Wrapper}/{@link Attachable} view per stage on demand,
+ * so the chain is inspectable by {@link Inspector} as the nested wrappers:
+ * the view of the stage {@code i} unwraps to the view of the stage {@code i + 1}, the view of the last stage
+ * unwraps to the base; every view is a {@link WrapperAdapter} whose adaptee is the interceptor of the stage.
+ * <ul>
+ * <li>{@link Inspector#containsInstanceTypeOnWrapperChain(Object, Class)} finds the interceptor types
+ *     and the base type
+ * <li>{@link Inspector#getAttachmentFromWrapperChain(Object, Object)} finds the attachments of the views,
+ *     the interceptors that implement {@link Attachable}, and the base
+ * <li>{@link Inspector#verifyWrapperChainContracts(Object)} verifies the chain
+ * </ul>
+ * The views are created lazily and cached, so the attachments set on a view are kept.
+ * The views are not instances of the biz interface, they are for the inspection, not for the calls.
+ *
+ * <pre>{@code
+ * InterceptorChain<Executor> chain = InterceptorChain.of(executor, Arrays.asList(metering, tracing));
+ * chain.invoke(task, (e, t) -> {
+ *     e.execute(t);
+ *     return null;
+ * });
+ *
+ * // inspects the chain
+ * Inspector.containsInstanceTypeOnWrapperChain(chain.getHeadView(), TracingInterceptor.class);
+ * }</pre>
+ *
+ * @param <T> the type of the base instance
+ * @see Interceptor
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class InterceptorChain<T> {
+    private final T base;
+    private final Interceptor<? super T>[] interceptors;
+    private final AtomicReferenceArray<Stage<T>> stages;
+
+    /**
+     * Creates a chain of the given interceptors around the base instance,
+     * the first interceptor is the outermost.
+     *
+     * @throws NullPointerException     if any argument is null, or the interceptors contain null
+     * @throws IllegalArgumentException if any interceptor is a {@link Wrapper},
+     *                                  the interceptors are the adaptees of the stage views
+     */
+    @NonNull
+    public static <T> InterceptorChain<T> of(T base, List<? extends Interceptor<? super T>> interceptors) {
+        requireNonNull(base, "base is null");
+        requireNonNull(interceptors, "interceptors is null");
+        final Interceptor<? super T>[] array = interceptors.toArray(newInterceptorArray());
+        for (int i = 0; i < array.length; i++) {
+            requireNonNull(array[i], "interceptors[" + i + "] is null");
+            if (array[i] instanceof Wrapper) {
+                throw new IllegalArgumentException("interceptors[" + i + "](" + array[i].getClass().getName() +
+                        ") is an instance of Wrapper");
+            }
+        }
+        return new InterceptorChain<>(base, array);
+    }
+
+    /**
+     * Creates an empty array of the generic component type, which can not be created without the raw type.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Interceptor<? super T>[] newInterceptorArray() {
+        return new Interceptor[0];
+    }
+
+    private InterceptorChain(T base, Interceptor<? super T>[] interceptors) {
+        this.base = base;
+        this.interceptors = interceptors;
+        this.stages = new AtomicReferenceArray<>(interceptors.length);
+    }
+
+    /**
+     * Invokes the request through the interceptors to the base.
+     * <p>
+     * Calls {@link Interceptor#before_(Object)} of the interceptors from the outermost,
+     * then the given call on the base, then {@link Interceptor#after_(Object, Object, Throwable)}
+     * of the entered interceptors from the innermost, even if an inner stage failed;
+     * rethrows the final error if any; the checked exception thrown sneakily(e.g. by a proxy
+     * or a Kotlin implementation) is rethrown wrapped in {@link UndeclaredThrowableException}.
+     *
+     * @param request the request, passed to the interceptors and the call
+     * @param call    the call of the base with the request
+     * @return the result of the call
+     * @throws NullPointerException         if any argument is null
+     * @throws UndeclaredThrowableException if the final error is a checked exception
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <Q, R> R invoke(Q request, BiFunction<? super T, ? super Q, ? extends R> call) {
+        requireNonNull(request, "request is null");
+        requireNonNull(call, "call is null");
+
+        final Interceptor<? super T>[] is = interceptors;
+        Object result = null;
+        Throwable error = null;
+        int entered = 0;
+        try {
+            for (; entered < is.length; entered++) is[entered].before_(request);
+            result = call.apply(base, request);
+        } catch (Throwable t) {
+            error = t;
+        }
+        for (int i = entered - 1; i >= 0; i--) {
+            try {
+                is[i].after_(request, result, error);
+            } catch (Throwable t) {
+                result = null;
+                error = t;
+            }
+        }
+
+        if (error == null) return (R) result;
+        if (error instanceof RuntimeException) throw (RuntimeException) error;
+        if (error instanceof Error) throw (Error) error;
+        throw new UndeclaredThrowableException(error);
+    }
+
+    /**
+     * Gets the base instance.
+     */
+    @NonNull
+    @Contract(pure = true)
+    public T getBase() {
+        return base;
+    }
+
+    /**
+     * Gets the count of the interceptors.
+     */
+    @Contract(pure = true)
+    public int size() {
+        return interceptors.length;
+    }
+
+    /**
+     * Gets the interceptor of the given stage, the stage {@code 0} is the outermost.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @NonNull
+    @Contract(pure = true)
+    public Interceptor<? super T> getInterceptor(int index) {
+        return interceptors[index];
+    }
+
+    /**
+     * Gets the view of the outermost stage, or the base if the chain has no interceptor;
+     * the head of the wrapper chain to inspect by {@link Inspector}.
+     */
+    @NonNull
+    public Object getHeadView() {
+        return interceptors.length == 0 ? base : getStageView(0);
+    }
+
+    /**
+     * Gets the view of the given stage, the stage {@code 0} is the outermost.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @NonNull
+    public Stage<T> getStageView(int index) {
+        final Stage<T> stage = stages.get(index);
+        if (stage != null) return stage;
+
+        final Stage<T> created = new Stage<>(this, index);
+        if (stages.compareAndSet(index, null, created)) return created;
+        return stages.get(index);
+    }
+
+    @Override
+    public String toString() {
+        return "InterceptorChain{size=" + interceptors.length + ", base=" + base + '}';
+    }
+
+    /**
+     * The virtual {@link Wrapper}/{@link Attachable} view of a stage of {@link InterceptorChain},
+     * for the inspection by {@link Inspector}.
+     *
+     * @param <T> the type of the base instance of the chain
+     */
+    public static final class Stage<T> extends AttachableDelegate<Object, Object> implements WrapperAdapter<Object> {
+        private final InterceptorChain<T> chain;
+        private final int index;
+
+        private Stage(InterceptorChain<T> chain, int index) {
+            this.chain = chain;
+            this.index = index;
+        }
+
+        /**
+         * Returns the view of the next stage, or the base of the chain for the last stage.
+         */
+        @NonNull
+        @Override
+        public Object unwrap_() {
+            final int next = index + 1;
+            return next == chain.size() ? chain.getBase() : chain.getStageView(next);
+        }
+
+        /**
+         * Returns the interceptor of this stage.
+         */
+        @NonNull
+        @Override
+        public Object adaptee_() {
+            return chain.getInterceptor(index);
+        }
+
+        /**
+         * Gets the index of this stage, the stage {@code 0} is the outermost.
+         */
+        @Contract(pure = true)
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "InterceptorChain.Stage{index=" + index + ", interceptor=" + adaptee_() + '}';
+        }
+    }
+}
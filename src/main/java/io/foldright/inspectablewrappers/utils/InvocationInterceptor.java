@@ -0,0 +1,114 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+import org.jetbrains.annotations.Contract;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+
+/**
+ * The interceptor of the biz calls of the {@link WrapperAdapter} proxies created by
+ * {@link WrapperAdapterUtils} and {@link WrapperAdapterFactory}, runs around the delegation to the adaptee;
+ * e.g. counts, times or samples the biz calls without writing another wrapper layer.
+ * <p>
+ * ONLY the calls delegated to the adaptee are intercepted, the calls of {@link io.foldright.inspectablewrappers.Wrapper}/
+ * {@link WrapperAdapter}/{@link io.foldright.inspectablewrappers.Attachable} methods and {@code toString()}
+ * answered by the proxy are not.
+ * <p>
+ * The interceptors are composed into an array when the adapter or the factory is created;
+ * the adapters without interceptors delegate to the adaptee directly, as before.
+ *
+ * <pre>{@code
+ * InvocationInterceptor counting = invocation -> {
+ *     counter.increment();
+ *     return invocation.proceed();
+ * };
+ * Executor adapter = WrapperAdapterUtils.createWrapperAdapter(
+ *         Executor.class, executor, existedExecutorWrapper, Collections.singletonList(counting));
+ * }</pre>
+ *
+ * @see WrapperAdapterUtils#createWrapperAdapter(Class, Object, Object, java.util.List)
+ * @see WrapperAdapterFactory#withInterceptors(java.util.List)
+ */
+@FunctionalInterface
+public interface InvocationInterceptor {
+    /**
+     * Intercepts the biz call, calls {@link Invocation#proceed()} to continue
+     * to the next interceptor, or to the adaptee for the last interceptor.
+     *
+     * @param invocation the intercepted biz call
+     * @return the result of the biz call
+     */
+    @Nullable
+    Object intercept(@NonNull Invocation invocation) throws Throwable;
+
+    /**
+     * The intercepted biz call of a {@link WrapperAdapter} proxy, created per call.
+     */
+    final class Invocation {
+        private final Object adaptee;
+        private final Method method;
+        @Nullable
+        private final Object[] args;
+        private final InvocationInterceptor[] interceptors;
+        private int index = 0;
+
+        Invocation(Object adaptee, Method method, @Nullable Object[] args, InvocationInterceptor[] interceptors) {
+            this.adaptee = adaptee;
+            this.method = method;
+            this.args = args;
+            this.interceptors = interceptors;
+        }
+
+        /**
+         * Continues to the next interceptor, or to the adaptee for the last interceptor;
+         * the exception thrown by the adaptee is rethrown as is, NOT wrapped in {@link InvocationTargetException},
+         * so the interceptors see the same exceptions as the callers of the adaptee.
+         * May be called more than once, e.g. to retry.
+         *
+         * @return the result of the biz call
+         */
+        @Nullable
+        public Object proceed() throws Throwable {
+            final int i = index;
+            if (i == interceptors.length) return WrapperAdapterInvocationHandler.invokeAdaptee(adaptee, method, args);
+
+            index = i + 1;
+            try {
+                return interceptors[i].intercept(this);
+            } finally {
+                index = i;
+            }
+        }
+
+        /**
+         * Returns the adaptee which the biz call is delegated to.
+         */
+        @NonNull
+        @Contract(pure = true)
+        public Object getAdaptee() {
+            return adaptee;
+        }
+
+        /**
+         * Returns the called biz method.
+         */
+        @NonNull
+        @Contract(pure = true)
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         * Returns the arguments of the biz call, {@code null} if the method has no parameter.
+         */
+        @Nullable
+        @Contract(pure = true)
+        public Object[] getArguments() {
+            return args;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.Inspector;
+import org.jetbrains.annotations.Contract;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * An {@link Attachable} delegate implementation backed by a persistent(immutable)
+ * {@code hash array mapped trie}, the attachments of a delegate can be forked in {@code O(1)}
+ * by {@link #fork()}; e.g. when the wrapper chain is rebuilt on reload or cloned per tenant,
+ * the new layers share the attachments of the old layers instead of copying them entry by entry.
+ * <p>
+ * The forked delegates share the trie structurally, the later updates of a delegate are invisible
+ * to the others. An update copies ONLY the path from the root to the updated entry,
+ * and publishes the new root by a CAS; the reads are lock-free, on the root read by a volatile read.
+ * <p>
+ * <strong>Note:</strong><br>
+ * Like {@link AttachableDelegate}, the implementation of the key type must meet the requirements
+ * of the {@code hash map}: a stable {@code hash code} and the ability to compare equality using {@code equals()}.
+ * Prefer {@link AttachableDelegate} for the attachments updated frequently, as every update allocates the copied path.
+ *
+ * <pre>{@code
+ * // rebuilds the layer, forks the attachments of the old layer
+ * PersistentAttachableDelegate<String, String> attachable = oldLayer.attachable.fork();
+ * }</pre>
+ *
+ * @see Attachable
+ * @see AttachableDelegate
+ */
+public class PersistentAttachableDelegate<K, V> implements Attachable<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<PersistentAttachableDelegate, Object> ROOT =
+            AtomicReferenceFieldUpdater.newUpdater(PersistentAttachableDelegate.class, Object.class, "root");
+
+    /**
+     * The root node of the trie, {@code null} if no attachment; a {@link Leaf}, {@link Collision} or {@link Branch}.
+     */
+    @Nullable
+    private volatile Object root;
+
+    /**
+     * Creates a delegate without attachments.
+     */
+    public PersistentAttachableDelegate() {
+    }
+
+    /**
+     * Creates a delegate with the attachments forked from the given delegate in {@code O(1)}.
+     *
+     * @param source the delegate forked from
+     * @throws NullPointerException if source argument is null
+     * @see #fork()
+     */
+    public PersistentAttachableDelegate(@NonNull PersistentAttachableDelegate<? extends K, ? extends V> source) {
+        requireNonNull(source, "source is null");
+        this.root = source.root;
+    }
+
+    /**
+     * Sets an attachment.
+     *
+     * @param key   the attachment key
+     * @param value the attachment value
+     * @throws NullPointerException if any arguments is null
+     */
+    @Override
+    public void setAttachment_(@NonNull K key, @NonNull V value) {
+        requireNonNull(key, "key is null");
+        requireNonNull(value, "value is null");
+        final int hash = spread(key.hashCode());
+        for (; ; ) {
+            final Object r = root;
+            final Object updated = put(r, 0, hash, key, value);
+            if (updated == r || ROOT.compareAndSet(this, r, updated)) return;
+        }
+    }
+
+    /**
+     * Gets the attachment value for the given key.
+     *
+     * @param key the attachment key
+     * @return return the attachment value, or {@code null} if contains no attachment for the key
+     * @throws NullPointerException if key argument is null
+     * @throws ClassCastException   if the return value is not type {@code <V>}
+     * @see Inspector#getAttachmentFromWrapperChain(Object, Object)
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getAttachment_(@NonNull K key) {
+        requireNonNull(key, "key is null");
+        return (V) get(root, spread(key.hashCode()), key);
+    }
+
+    /**
+     * Removes the attachment for the given key.
+     *
+     * @param key the attachment key
+     * @throws NullPointerException if key argument is null
+     */
+    public void removeAttachment(@NonNull K key) {
+        requireNonNull(key, "key is null");
+        final int hash = spread(key.hashCode());
+        for (; ; ) {
+            final Object r = root;
+            final Object updated = remove(r, 0, hash, key);
+            if (updated == r || ROOT.compareAndSet(this, r, updated)) return;
+        }
+    }
+
+    /**
+     * Removes all attachments, the delegates forked from this delegate are not affected.
+     */
+    public void clearAttachments() {
+        root = null;
+    }
+
+    /**
+     * Forks the attachments in {@code O(1)}, the returned delegate shares the current attachments
+     * with this delegate; the later updates of either delegate are invisible to the other.
+     */
+    @NonNull
+    @Contract(pure = true)
+    public PersistentAttachableDelegate<K, V> fork() {
+        return new PersistentAttachableDelegate<>(this);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////
+    // the persistent trie, the nodes are immutable
+    ////////////////////////////////////////////////////////////////////////////////
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitOf(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int hashOf(Object node) {
+        return node instanceof Leaf ? ((Leaf) node).hash : ((Collision) node).hash;
+    }
+
+    @Nullable
+    private static Object get(@Nullable Object node, final int hash, final Object key) {
+        for (int shift = 0; node != null; shift += BITS) {
+            if (node instanceof Leaf) {
+                final Leaf leaf = (Leaf) node;
+                return leaf.matches(hash, key) ? leaf.value : null;
+            }
+            if (node instanceof Collision) {
+                final Collision c = (Collision) node;
+                if (c.hash != hash) return null;
+                final int i = c.indexOf(key);
+                return i < 0 ? null : c.leaves[i].value;
+            }
+            final Branch b = (Branch) node;
+            final int bit = bitOf(hash, shift);
+            if ((b.bitmap & bit) == 0) return null;
+            node = b.children[b.indexOf(bit)];
+        }
+        return null;
+    }
+
+    /**
+     * Returns the node with the entry put, or the given node itself if the entry is present.
+     */
+    private static Object put(@Nullable final Object node, final int shift, final int hash, final Object key, final Object value) {
+        if (node == null) return new Leaf(hash, key, value);
+
+        if (node instanceof Leaf) {
+            final Leaf leaf = (Leaf) node;
+            if (leaf.matches(hash, key)) return leaf.value == value ? leaf : new Leaf(hash, key, value);
+            return merge(shift, leaf, new Leaf(hash, key, value));
+        }
+        if (node instanceof Collision) {
+            final Collision c = (Collision) node;
+            if (c.hash != hash) return merge(shift, c, new Leaf(hash, key, value));
+            final int i = c.indexOf(key);
+            if (i >= 0 && c.leaves[i].value == value) return c;
+
+            final Leaf[] leaves;
+            if (i >= 0) {
+                leaves = c.leaves.clone();
+                leaves[i] = new Leaf(hash, key, value);
+            } else {
+                leaves = new Leaf[c.leaves.length + 1];
+                System.arraycopy(c.leaves, 0, leaves, 0, c.leaves.length);
+                leaves[c.leaves.length] = new Leaf(hash, key, value);
+            }
+            return new Collision(hash, leaves);
+        }
+
+        final Branch b = (Branch) node;
+        final int bit = bitOf(hash, shift);
+        final int i = b.indexOf(bit);
+        if ((b.bitmap & bit) == 0) {
+            final Object[] children = new Object[b.children.length + 1];
+            System.arraycopy(b.children, 0, children, 0, i);
+            children[i] = new Leaf(hash, key, value);
+            System.arraycopy(b.children, i, children, i + 1, b.children.length - i);
+            return new Branch(b.bitmap | bit, children);
+        }
+
+        final Object child = b.children[i];
+        final Object updated = put(child, shift + BITS, hash, key, value);
+        return updated == child ? b : b.replace(i, updated);
+    }
+
+    /**
+     * Merges two leaf/collision nodes of the different keys into a node at the given shift.
+     */
+    private static Object merge(final int shift, final Object n1, final Leaf n2) {
+        final int h1 = hashOf(n1), h2 = n2.hash;
+        if (h1 == h2) {
+            final Leaf[] leaves;
+            if (n1 instanceof Leaf) {
+                leaves = new Leaf[]{(Leaf) n1, n2};
+            } else {
+                final Leaf[] old = ((Collision) n1).leaves;
+                leaves = new Leaf[old.length + 1];
+                System.arraycopy(old, 0, leaves, 0, old.length);
+                leaves[old.length] = n2;
+            }
+            return new Collision(h1, leaves);
+        }
+
+        final int bit1 = bitOf(h1, shift), bit2 = bitOf(h2, shift);
+        if (bit1 == bit2) return new Branch(bit1, new Object[]{merge(shift + BITS, n1, n2)});
+        final Object[] children = Integer.compareUnsigned(bit1, bit2) < 0 ? new Object[]{n1, n2} : new Object[]{n2, n1};
+        return new Branch(bit1 | bit2, children);
+    }
+
+    /**
+     * Returns the node with the entry removed, {@code null} if the node becomes empty,
+     * or the given node itself if the entry is absent. The branch of a single leaf/collision child
+     * collapses to the child, so the trie stays compact.
+     */
+    @Nullable
+    private static Object remove(@Nullable final Object node, final int shift, final int hash, final Object key) {
+        if (node == null) return null;
+
+        if (node instanceof Leaf) return ((Leaf) node).matches(hash, key) ? null : node;
+        if (node instanceof Collision) {
+            final Collision c = (Collision) node;
+            final int i = c.hash == hash ? c.indexOf(key) : -1;
+            if (i < 0) return c;
+            if (c.leaves.length == 2) return c.leaves[1 - i];
+
+            final Leaf[] leaves = new Leaf[c.leaves.length - 1];
+            System.arraycopy(c.leaves, 0, leaves, 0, i);
+            System.arraycopy(c.leaves, i + 1, leaves, i, leaves.length - i);
+            return new Collision(hash, leaves);
+        }
+
+        final Branch b = (Branch) node;
+        final int bit = bitOf(hash, shift);
+        if ((b.bitmap & bit) == 0) return b;
+        final int i = b.indexOf(bit);
+        final Object child = b.children[i];
+        final Object updated = remove(child, shift + BITS, hash, key);
+        if (updated == child) return b;
+
+        if (updated != null) {
+            if (b.children.length == 1 && !(updated instanceof Branch)) return updated;
+            return b.replace(i, updated);
+        }
+        if (b.children.length == 1) return null;
+        if (b.children.length == 2 && !(b.children[1 - i] instanceof Branch)) return b.children[1 - i];
+
+        final Object[] children = new Object[b.children.length - 1];
+        System.arraycopy(b.children, 0, children, 0, i);
+        System.arraycopy(b.children, i + 1, children, i, children.length - i);
+        return new Branch(b.bitmap & ~bit, children);
+    }
+
+    private static final class Leaf {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Leaf(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        boolean matches(int hash, Object key) {
+            return this.hash == hash && (this.key == key || this.key.equals(key));
+        }
+    }
+
+    /**
+     * The leaves of the different keys with the same hash.
+     */
+    private static final class Collision {
+        final int hash;
+        final Leaf[] leaves;
+
+        Collision(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        int indexOf(Object key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].matches(hash, key)) return i;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The bitmap indexed node, the children are ordered by the bits of the bitmap.
+     */
+    private static final class Branch {
+        final int bitmap;
+        final Object[] children;
+
+        Branch(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Branch replace(int i, Object child) {
+            final Object[] copied = children.clone();
+            copied[i] = child;
+            return new Branch(bitmap, copied);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.*;
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * A reusable factory of {@link WrapperAdapter} proxies for the given biz interface, tag interfaces
+ * and attachable mode.
+ * <p>
+ * Compared with {@link WrapperAdapterUtils}, the type requirements of the biz and tag interfaces are
+ * checked and the proxy class constructor is looked up ONLY once when the factory is created;
+ * creating an adapter is then the checks of the instances and a single constructor call.
+ * Creates the factory once and reuses it, when creating adapters frequently(e.g. one adapter per pooled connection).
+ * <p>
+ * The adapters created by a factory behave the same as the ones created by
+ * the corresponding {@link WrapperAdapterUtils} methods, but their proxy class is defined by a class loader
+ * of the proxy interfaces that can see all of them, chosen once when the factory is created;
+ * whereas {@link WrapperAdapterUtils} defines the proxy class by the class loader of each adaptee.
+ * So the proxy classes are the same only if the two class loaders are the same,
+ * e.g. the application class loader loads the proxy interfaces and the adaptee classes.
+ * <p>
+ * The biz calls of the adapters created by a factory can be intercepted by {@link InvocationInterceptor}s,
+ * configured per factory by {@link #withInterceptors(List)}.
+ *
+ * @param <T> the type of instances that be wrapped
+ * @see WrapperAdapterUtils
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class WrapperAdapterFactory<T> {
+    private final Class<? super T> bizInterface;
+    private final boolean attachable;
+    private final ClassLoader classLoader;
+    private final Class<?>[] interfaces;
+    /**
+     * The constructor of the proxy class, {@code null} if the proxy class is not accessible;
+     * then falls back to {@link Proxy#newProxyInstance}.
+     */
+    @Nullable
+    private final Constructor<?> proxyConstructor;
+    /**
+     * The interceptors of the biz calls of the created adapters, {@code null} if no interceptor.
+     */
+    @Nullable
+    private final InvocationInterceptor[] interceptors;
+
+    /**
+     * Creates a factory of {@link WrapperAdapter} proxies which do NOT implement {@link Attachable}.
+     *
+     * @param <T>           the type of instances that be wrapped
+     * @param bizInterface  the class of instances that be wrapped
+     * @param tagInterfaces the tag interfaces that the adapters also implement
+     * @throws IllegalArgumentException if {@code bizInterface} is not an interface,
+     *                                  or {@code bizInterface} is {@link Wrapper}/{@link WrapperAdapter}/{@link Attachable},
+     *                                  or any tag interface is not an interface or not a tag interface,
+     *                                  or no class loader can see all the proxy interfaces
+     * @throws NullPointerException     if any argument is null
+     * @see WrapperAdapterUtils#createWrapperAdapter(Class, Object, Object, Class[])
+     */
+    @NonNull
+    public static <T> WrapperAdapterFactory<T> newFactory(Class<? super T> bizInterface, Class<?>... tagInterfaces) {
+        return new WrapperAdapterFactory<>(
+                requireNonNull(bizInterface, "bizInterface is null"), false, requireTagsNonNull(tagInterfaces));
+    }
+
+    /**
+     * Creates a factory of {@link WrapperAdapter} proxies which also implement {@link Attachable}.
+     *
+     * @param <T>           the type of instances that be wrapped
+     * @param bizInterface  the class of instances that be wrapped
+     * @param tagInterfaces the tag interfaces that the adapters also implement
+     * @throws IllegalArgumentException if {@code bizInterface} is not an interface,
+     *                                  or {@code bizInterface} is {@link Wrapper}/{@link WrapperAdapter}/{@link Attachable},
+     *                                  or any tag interface is not an interface or not a tag interface,
+     *                                  or no class loader can see all the proxy interfaces
+     * @throws NullPointerException     if any argument is null
+     * @see WrapperAdapterUtils#createWrapperAdapter(Class, Object, Object, Attachable, Class[])
+     */
+    @NonNull
+    public static <T> WrapperAdapterFactory<T> newAttachableFactory(
+            Class<? super T> bizInterface, Class<?>... tagInterfaces) {
+        return new WrapperAdapterFactory<>(
+                requireNonNull(bizInterface, "bizInterface is null"), true, requireTagsNonNull(tagInterfaces));
+    }
+
+    private WrapperAdapterFactory(Class<? super T> bizInterface, boolean attachable, Class<?>[] tagInterfaces) {
+        checkBizInterface(bizInterface);
+        checkTagInterfaces(tagInterfaces);
+
+        this.bizInterface = bizInterface;
+        this.attachable = attachable;
+        this.interfaces = proxyInterfaces(bizInterface, attachable, tagInterfaces.clone());
+        this.classLoader = chooseClassLoader(interfaces);
+        this.proxyConstructor = lookupProxyConstructor(classLoader, interfaces);
+        this.interceptors = null;
+    }
+
+    private WrapperAdapterFactory(WrapperAdapterFactory<T> factory, @Nullable InvocationInterceptor[] interceptors) {
+        this.bizInterface = factory.bizInterface;
+        this.attachable = factory.attachable;
+        this.interfaces = factory.interfaces;
+        this.classLoader = factory.classLoader;
+        this.proxyConstructor = factory.proxyConstructor;
+        this.interceptors = interceptors;
+    }
+
+    /**
+     * Returns a factory same as this factory, but the biz calls of the created adapters are intercepted
+     * by the given interceptors, the first interceptor is the outermost; the proxy class is shared.
+     * The interceptors of this factory are replaced, the empty list creates the adapters without interceptors.
+     *
+     * @param interceptors the interceptors of the biz calls
+     * @return the new factory
+     * @throws NullPointerException if interceptors argument is null, or the interceptors contain null
+     * @see InvocationInterceptor
+     */
+    @NonNull
+    public WrapperAdapterFactory<T> withInterceptors(List<? extends InvocationInterceptor> interceptors) {
+        return new WrapperAdapterFactory<>(this, interceptorArray(interceptors));
+    }
+
+    /**
+     * Creates a {@link WrapperAdapter} instance by the underlying and adaptee instances.
+     *
+     * @param underlying the underlying instance that be wrapped, more info see {@link Wrapper#unwrap_()}
+     * @param adaptee    the adapted/existed wrapper instance, more info see {@link WrapperAdapter#adaptee_()}
+     * @return the new {@link WrapperAdapter} instance
+     * @throws IllegalArgumentException if underlying is not an instance of the biz interface,
+     *                                  or adaptee is not an instance of the biz interface,
+     *                                  or adaptee is an instance of {@link Wrapper}
+     * @throws IllegalStateException    if this factory is created by {@link #newAttachableFactory(Class, Class[])}
+     * @throws NullPointerException     if any argument is null
+     */
+    @NonNull
+    public T createWrapperAdapter(T underlying, T adaptee) {
+        if (attachable) {
+            throw new IllegalStateException("the factory creates Attachable adapters, attachable argument is required");
+        }
+        return create(requireNonNull(underlying, "underlying is null"),
+                requireNonNull(adaptee, "adaptee is null"),
+                null);
+    }
+
+    /**
+     * Creates a {@link WrapperAdapter} instance by the underlying, adaptee and attachable instances.
+     *
+     * @param underlying the underlying instance that be wrapped, more info see {@link Wrapper#unwrap_()}
+     * @param adaptee    the adapted/existed wrapper instance, more info see {@link WrapperAdapter#adaptee_()}
+     * @param attachable the attachable instance, more info see {@link Attachable}
+     * @return the new {@link WrapperAdapter} instance
+     * @throws IllegalArgumentException if underlying is not an instance of the biz interface,
+     *                                  or adaptee is not an instance of the biz interface,
+     *                                  or adaptee is an instance of {@link Wrapper}
+     * @throws IllegalStateException    if this factory is created by {@link #newFactory(Class, Class[])}
+     * @throws NullPointerException     if any argument is null
+     */
+    @NonNull
+    public T createWrapperAdapter(T underlying, T adaptee, Attachable<?, ?> attachable) {
+        if (!this.attachable) {
+            throw new IllegalStateException("the factory creates non-Attachable adapters, attachable argument is not allowed");
+        }
+        return create(requireNonNull(underlying, "underlying is null"),
+                requireNonNull(adaptee, "adaptee is null"),
+                requireNonNull(attachable, "attachable is null"));
+    }
+
+    /**
+     * Creates {@link WrapperAdapter} instances in bulk, the i-th adapter is created by
+     * the i-th underlying and the i-th adaptee instances.
+     *
+     * @param underlyings the underlying instances
+     * @param adaptees    the adaptee instances, the same size as {@code underlyings}
+     * @return the new {@link WrapperAdapter} instances
+     * @throws IllegalArgumentException if the sizes of {@code underlyings} and {@code adaptees} are different,
+     *                                  or any instance violates the requirements of {@link #createWrapperAdapter(Object, Object)}
+     * @throws IllegalStateException    if this factory is created by {@link #newAttachableFactory(Class, Class[])}
+     * @throws NullPointerException     if any argument or element is null
+     * @see #createWrapperAdapter(Object, Object)
+     */
+    @NonNull
+    public List<T> createWrapperAdapters(List<? extends T> underlyings, List<? extends T> adaptees) {
+        checkSameSize(underlyings, adaptees);
+        final List<T> ret = new ArrayList<>(adaptees.size());
+        for (int i = 0; i < adaptees.size(); i++) {
+            ret.add(createWrapperAdapter(underlyings.get(i), adaptees.get(i)));
+        }
+        return ret;
+    }
+
+    /**
+     * Creates {@link WrapperAdapter} instances in bulk, the i-th adapter is created by
+     * the i-th underlying, the i-th adaptee and a new attachable instance from the given supplier.
+     *
+     * @param underlyings        the underlying instances
+     * @param adaptees           the adaptee instances, the same size as {@code underlyings}
+     * @param attachableSupplier the supplier of the attachable instances
+     * @return the new {@link WrapperAdapter} instances
+     * @throws IllegalArgumentException if the sizes of {@code underlyings} and {@code adaptees} are different,
+     *                                  or any instance violates the requirements of {@link #createWrapperAdapter(Object, Object, Attachable)}
+     * @throws IllegalStateException    if this factory is created by {@link #newFactory(Class, Class[])}
+     * @throws NullPointerException     if any argument or element is null, or the supplier returns null
+     * @see #createWrapperAdapter(Object, Object, Attachable)
+     */
+    @NonNull
+    public List<T> createWrapperAdapters(List<? extends T> underlyings, List<? extends T> adaptees,
+                                         Supplier<? extends Attachable<?, ?>> attachableSupplier) {
+        checkSameSize(underlyings, adaptees);
+        requireNonNull(attachableSupplier, "attachableSupplier is null");
+        final List<T> ret = new ArrayList<>(adaptees.size());
+        for (int i = 0; i < adaptees.size(); i++) {
+            ret.add(createWrapperAdapter(underlyings.get(i), adaptees.get(i), attachableSupplier.get()));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the biz interface of the adapters created by this factory.
+     */
+    @NonNull
+    public Class<? super T> getBizInterface() {
+        return bizInterface;
+    }
+
+    /**
+     * Reports whether the adapters created by this factory implement {@link Attachable}.
+     */
+    public boolean isAttachable() {
+        return attachable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T create(T underlying, T adaptee, @Nullable Attachable<?, ?> attachable) {
+        checkInstances(bizInterface, underlying, adaptee);
+        final InvocationHandler handler = new WrapperAdapterInvocationHandler(underlying, adaptee, attachable, interceptors);
+
+        final Constructor<?> constructor = proxyConstructor;
+        if (constructor == null) return (T) Proxy.newProxyInstance(classLoader, interfaces, handler);
+        try {
+            return (T) constructor.newInstance(handler);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("fail to create proxy instance of " + constructor.getDeclaringClass(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("fail to create proxy instance of " + constructor.getDeclaringClass(), e);
+        }
+    }
+
+    private static void checkSameSize(List<?> underlyings, List<?> adaptees) {
+        requireNonNull(underlyings, "underlyings is null");
+        requireNonNull(adaptees, "adaptees is null");
+        if (underlyings.size() != adaptees.size()) {
+            throw new IllegalArgumentException("size of underlyings(" + underlyings.size() +
+                    ") is not equal to size of adaptees(" + adaptees.size() + ")");
+        }
+    }
+
+    /**
+     * Chooses the first class loader that can see all the proxy interfaces,
+     * from the class loaders of the proxy interfaces.
+     */
+    static ClassLoader chooseClassLoader(Class<?>[] interfaces) {
+        for (Class<?> candidate : interfaces) {
+            final ClassLoader loader = candidate.getClassLoader();
+            if (loader != null && allVisible(loader, interfaces)) return loader;
+        }
+        throw new IllegalArgumentException("no class loader of the proxy interfaces can see all the proxy interfaces");
+    }
+
+    private static boolean allVisible(ClassLoader loader, Class<?>[] interfaces) {
+        for (Class<?> i : interfaces) {
+            try {
+                if (Class.forName(i.getName(), false, loader) != i) return false;
+            } catch (ClassNotFoundException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static Constructor<?> lookupProxyConstructor(ClassLoader loader, Class<?>[] interfaces) {
+        // generates(or gets the cached) proxy class by a throwaway instance,
+        // avoids the deprecated Proxy#getProxyClass method
+        final Class<?> proxyClass = Proxy.newProxyInstance(loader, interfaces, (proxy, method, args) -> null).getClass();
+        try {
+            final Constructor<?> constructor = proxyClass.getConstructor(InvocationHandler.class);
+            if (!Modifier.isPublic(proxyClass.getModifiers())) constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            // the proxy class is not accessible(e.g. encapsulated in a named module),
+            // falls back to Proxy#newProxyInstance
+            return null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterProxyRelatedMethod.*;
+
+
+/**
+ * The {@link InvocationHandler} of the {@link WrapperAdapter} proxies,
+ * shared by {@link WrapperAdapterUtils} and {@link WrapperAdapterFactory}.
+ */
+final class WrapperAdapterInvocationHandler implements InvocationHandler {
+    private final Object underlying;
+    private final Object adaptee;
+    @Nullable
+    private final Attachable<?, ?> attachable;
+    /**
+     * The interceptors of the biz calls, {@code null} if no interceptor.
+     */
+    @Nullable
+    private final InvocationInterceptor[] interceptors;
+
+    WrapperAdapterInvocationHandler(Object underlying, Object adaptee, @Nullable Attachable<?, ?> attachable,
+                                    @Nullable InvocationInterceptor[] interceptors) {
+        this.underlying = underlying;
+        this.adaptee = adaptee;
+        this.attachable = attachable;
+        this.interceptors = interceptors;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (UNWRAP.sameSignatureAs(method)) return underlying;
+        if (ADAPTEE.sameSignatureAs(method)) return adaptee;
+
+        if (attachable != null && GET_ATTACHMENT.sameSignatureAs(method)) {
+            return ((Attachable) attachable).getAttachment_(args[0]);
+        }
+        if (attachable != null && SET_ATTACHMENT.sameSignatureAs(method)) {
+            ((Attachable) attachable).setAttachment_(args[0], args[1]);
+            return null;
+        }
+
+        if (TO_STRING.sameSignatureAs(method)) {
+            return "[WrapperAdapter proxy created by WrapperAdapterUtils] " + adaptee;
+        }
+
+        final InvocationInterceptor[] is = interceptors;
+        if (is == null) return invokeAdaptee(adaptee, method, args);
+        return new InvocationInterceptor.Invocation(adaptee, method, args, is).proceed();
+    }
+
+    /**
+     * Invokes the biz method on the adaptee, rethrows the exception thrown by the adaptee as is,
+     * NOT wrapped in {@link InvocationTargetException}; so the callers of the adapter proxy
+     * get the same exceptions as the callers of the adaptee, with or without interceptors.
+     */
+    @Nullable
+    static Object invokeAdaptee(Object adaptee, Method method, @Nullable Object[] args) throws Throwable {
+        try {
+            return method.invoke(adaptee, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
+
+/**
+ * Uses {@code Clazz.class.getMethod(...)} rather than lonely method name constants
+ * to get {@link Method} instance; The former is IDE aware, so safer and more refactor friendly.
+ */
+enum WrapperAdapterProxyRelatedMethod {
+    /**
+     * {@link Wrapper#unwrap_()}
+     */
+    UNWRAP(() -> Wrapper.class.getMethod("unwrap_")),
+    /**
+     * {@link WrapperAdapter#adaptee_()}
+     */
+    ADAPTEE(() -> WrapperAdapter.class.getMethod("adaptee_")),
+    /**
+     * {@link Attachable#getAttachment_(Object)}
+     */
+    GET_ATTACHMENT(() -> Attachable.class.getMethod("getAttachment_", Object.class)),
+    /**
+     * {@link Attachable#setAttachment_(Object, Object)}
+     */
+    SET_ATTACHMENT(() -> Attachable.class.getMethod("setAttachment_", Object.class, Object.class)),
+    /**
+     * {@link Object#toString()}
+     */
+    TO_STRING(() -> Object.class.getMethod("toString")),
+    ;
+
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
+    private final Class<?> declaringClass;
+    /**
+     * Whether no other method of the declaring class has the same name and parameter count;
+     * then the name and the parameter count identify the method declared by the declaring class.
+     */
+    private final boolean uniqueByCount;
+
+    WrapperAdapterProxyRelatedMethod(Callable<Method> method) {
+        try {
+            Method m = method.call();
+            this.methodName = m.getName();
+            this.parameterTypes = m.getParameterTypes();
+            this.declaringClass = m.getDeclaringClass();
+            this.uniqueByCount = Arrays.stream(declaringClass.getMethods()).filter(o -> o.getName().equals(methodName)
+                    && o.getParameterCount() == parameterTypes.length).count() == 1;
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Compares the name and the parameter count first, and the parameter types ONLY if the method
+     * is not declared by the same class; {@code Method#getParameterTypes()} copies the array.
+     * No mutable state, the enum constants are shared by all proxy classes and threads.
+     */
+    boolean sameSignatureAs(Method method) {
+        if (!methodName.equals(method.getName()) || parameterTypes.length != method.getParameterCount()) return false;
+        if (parameterTypes.length == 0 || uniqueByCount && method.getDeclaringClass() == declaringClass) return true;
+        return Arrays.equals(parameterTypes, method.getParameterTypes());
+    }
+}
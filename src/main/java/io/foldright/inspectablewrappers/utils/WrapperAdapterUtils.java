@@ -7,13 +7,9 @@ import io.foldright.inspectablewrappers.Attachable;
 import io.foldright.inspectablewrappers.Wrapper;
 import io.foldright.inspectablewrappers.WrapperAdapter;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.Arrays;
-import java.util.concurrent.Callable;
+import java.util.List;
 
-import static io.foldright.inspectablewrappers.utils.WrapperAdapterProxyRelatedMethod.*;
 import static java.util.Objects.requireNonNull;
 
 
@@ -118,41 +114,93 @@ public final class WrapperAdapterUtils {
                 requireTagsNonNull(tagInterfaces));
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
+    /**
+     * Same as {@link #createWrapperAdapter(Class, Object, Object)},
+     * but the biz calls of the returned {@link WrapperAdapter} instance are intercepted by the given interceptors,
+     * the first interceptor is the outermost.
+     *
+     * @throws NullPointerException if any argument is null, or the interceptors contain null
+     * @see #createWrapperAdapter(Class, Object, Object)
+     * @see InvocationInterceptor
+     */
+    @NonNull
+    public static <T> T createWrapperAdapter(Class<? super T> bizInterface, T underlying, T adaptee,
+                                             List<? extends InvocationInterceptor> interceptors) {
+        return createWrapperAdapter0(
+                requireNonNull(bizInterface, "bizInterface is null"),
+                requireNonNull(underlying, "underlying is null"),
+                requireNonNull(adaptee, "adaptee is null"),
+                null, null,
+                interceptorArray(interceptors));
+    }
+
+    /**
+     * Same as {@link #createWrapperAdapter(Class, Object, Object, Attachable)},
+     * but the biz calls of the returned {@link WrapperAdapter} instance are intercepted by the given interceptors,
+     * the first interceptor is the outermost.
+     *
+     * @throws NullPointerException if any argument is null, or the interceptors contain null
+     * @see #createWrapperAdapter(Class, Object, Object, Attachable)
+     * @see InvocationInterceptor
+     */
+    @NonNull
+    public static <T> T createWrapperAdapter(Class<? super T> bizInterface, T underlying, T adaptee,
+                                             Attachable<?, ?> attachable,
+                                             List<? extends InvocationInterceptor> interceptors) {
+        return createWrapperAdapter0(
+                requireNonNull(bizInterface, "bizInterface is null"),
+                requireNonNull(underlying, "underlying is null"),
+                requireNonNull(adaptee, "adaptee is null"),
+                requireNonNull(attachable, "attachable is null"),
+                null,
+                interceptorArray(interceptors));
+    }
+
     private static <T> T createWrapperAdapter0(
             Class<? super T> bizInterface, T underlying, T adaptee,
             @Nullable Attachable<?, ?> attachable, @Nullable Class<?>[] tagInterfaces) {
-        checkTypeRequirements(bizInterface, underlying, adaptee, tagInterfaces);
+        return createWrapperAdapter0(bizInterface, underlying, adaptee, attachable, tagInterfaces, null);
+    }
 
-        final InvocationHandler handler = (proxy, method, args) -> {
-            if (UNWRAP.sameSignatureAs(method)) return underlying;
-            if (ADAPTEE.sameSignatureAs(method)) return adaptee;
+    @SuppressWarnings("unchecked")
+    private static <T> T createWrapperAdapter0(
+            Class<? super T> bizInterface, T underlying, T adaptee,
+            @Nullable Attachable<?, ?> attachable, @Nullable Class<?>[] tagInterfaces,
+            @Nullable InvocationInterceptor[] interceptors) {
+        checkBizInterface(bizInterface);
+        checkInstances(bizInterface, underlying, adaptee);
+        if (tagInterfaces != null) checkTagInterfaces(tagInterfaces);
 
-            if (attachable != null && GET_ATTACHMENT.sameSignatureAs(method)) {
-                return ((Attachable) attachable).getAttachment_(args[0]);
-            }
-            if (attachable != null && SET_ATTACHMENT.sameSignatureAs(method)) {
-                ((Attachable) attachable).setAttachment_(args[0], args[1]);
-                return null;
-            }
+        return (T) Proxy.newProxyInstance(
+                adaptee.getClass().getClassLoader(),
+                proxyInterfaces(bizInterface, attachable != null, tagInterfaces),
+                new WrapperAdapterInvocationHandler(underlying, adaptee, attachable, interceptors));
+    }
 
-            if (TO_STRING.sameSignatureAs(method)) {
-                return "[WrapperAdapter proxy created by WrapperAdapterUtils] " + adaptee;
-            }
+    /**
+     * Composes the interceptors into an array, {@code null} if no interceptor;
+     * so the adapters without interceptors skip the interception by a null check.
+     */
+    @Nullable
+    static InvocationInterceptor[] interceptorArray(List<? extends InvocationInterceptor> interceptors) {
+        requireNonNull(interceptors, "interceptors is null");
+        if (interceptors.isEmpty()) return null;
 
-            return method.invoke(adaptee, args);
-        };
+        final InvocationInterceptor[] ret = interceptors.toArray(new InvocationInterceptor[0]);
+        for (int i = 0; i < ret.length; i++) {
+            requireNonNull(ret[i], "interceptors[" + i + "] is null");
+        }
+        return ret;
+    }
 
-        return (T) Proxy.newProxyInstance(
-                adaptee.getClass().getClassLoader(),
-                attachable == null
-                        ? merge(new Class[]{bizInterface, WrapperAdapter.class}, tagInterfaces)
-                        : merge(new Class[]{bizInterface, WrapperAdapter.class, Attachable.class}, tagInterfaces),
-                handler);
+    static Class<?>[] proxyInterfaces(
+            Class<?> bizInterface, boolean attachable, @Nullable Class<?>[] tagInterfaces) {
+        return attachable
+                ? merge(new Class<?>[]{bizInterface, WrapperAdapter.class, Attachable.class}, tagInterfaces)
+                : merge(new Class<?>[]{bizInterface, WrapperAdapter.class}, tagInterfaces);
     }
 
-    private static <T> void checkTypeRequirements(
-            Class<T> bizInterface, T underlying, T adaptee, @Nullable Class<?>[] tagInterfaces) {
+    static void checkBizInterface(Class<?> bizInterface) {
         if (!bizInterface.isInterface()) {
             throw new IllegalArgumentException("bizInterface(" + bizInterface.getName() + ") is not an interface");
         }
@@ -162,7 +210,9 @@ public final class WrapperAdapterUtils {
             throw new IllegalArgumentException(bizInterface.getName() +
                     " is auto implemented by proxy, not a valid biz interface");
         }
+    }
 
+    static void checkInstances(Class<?> bizInterface, Object underlying, Object adaptee) {
         if (!bizInterface.isInstance(underlying)) {
             throw new IllegalArgumentException("underlying(" + underlying.getClass().getName() +
                     ") is not an instance of " + bizInterface.getName());
@@ -176,8 +226,10 @@ public final class WrapperAdapterUtils {
             throw new IllegalArgumentException("adaptee(" + adaptee.getClass().getName() +
                     ") is an instance of Wrapper, adapting a Wrapper to a Wrapper is UNNECESSARY");
         }
+    }
 
-        if (tagInterfaces != null) for (int i = 0; i < tagInterfaces.length; i++) {
+    static void checkTagInterfaces(Class<?>[] tagInterfaces) {
+        for (int i = 0; i < tagInterfaces.length; i++) {
             Class<?> tag = tagInterfaces[i];
             if (!tag.isInterface()) {
                 throw new IllegalArgumentException("tagInterfaces[" + (i + 1) +
@@ -190,7 +242,7 @@ public final class WrapperAdapterUtils {
         }
     }
 
-    private static Class<?>[] requireTagsNonNull(Class<?>[] tagInterfaces) {
+    static Class<?>[] requireTagsNonNull(Class<?>[] tagInterfaces) {
         requireNonNull(tagInterfaces, "tagInterfaces is null");
         for (int i = 0; i < tagInterfaces.length; i++) {
             requireNonNull(tagInterfaces[i], "tagInterfaces[" + (i + 1) + "] is null");
@@ -208,48 +260,3 @@ public final class WrapperAdapterUtils {
 
     private WrapperAdapterUtils() {}
 }
-
-/**
- * Uses {@code Clazz.class.getMethod(...)} rather than lonely method name constants
- * to get {@link Method} instance; The former is IDE aware, so safer and more refactor friendly.
- */
-enum WrapperAdapterProxyRelatedMethod {
-    /**
-     * {@link Wrapper#unwrap_()}
-     */
-    UNWRAP(() -> Wrapper.class.getMethod("unwrap_")),
-    /**
-     * {@link WrapperAdapter#adaptee_()}
-     */
-    ADAPTEE(() -> WrapperAdapter.class.getMethod("adaptee_")),
-    /**
-     * {@link Attachable#getAttachment_(Object)}
-     */
-    GET_ATTACHMENT(() -> Attachable.class.getMethod("getAttachment_", Object.class)),
-    /**
-     * {@link Attachable#setAttachment_(Object, Object)}
-     */
-    SET_ATTACHMENT(() -> Attachable.class.getMethod("setAttachment_", Object.class, Object.class)),
-    /**
-     * {@link Object#toString()}
-     */
-    TO_STRING(() -> Object.class.getMethod("toString")),
-    ;
-
-    private final String methodName;
-    private final Class<?>[] parameterTypes;
-
-    WrapperAdapterProxyRelatedMethod(Callable<Method> method) {
-        try {
-            Method m = method.call();
-            this.methodName = m.getName();
-            this.parameterTypes = m.getParameterTypes();
-        } catch (Exception e) {
-            throw new ExceptionInInitializerError(e);
-        }
-    }
-
-    boolean sameSignatureAs(Method method) {
-        return methodName.equals(method.getName()) && Arrays.equals(parameterTypes, method.getParameterTypes());
-    }
-}
@@ -0,0 +1,245 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotationForParameters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.ChainAware;
+import io.foldright.inspectablewrappers.Inspector;
+import io.foldright.inspectablewrappers.ReusableWrapper;
+import io.foldright.inspectablewrappers.Wrapper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterFactory.chooseClassLoader;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.checkBizInterface;
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * A thread-local pool of the {@link ReusableWrapper} instances, recycles the short-lived wrappers
+ * (e.g. the per-request context-binding executors) and their attachment storage instead of allocating them per use.
+ * <p>
+ * {@link #acquire(Object)} takes a pooled wrapper of the current thread(or creates a new one)
+ * and rebinds it to the given underlying instance; {@link #release(ReusableWrapper)} resets the wrapper,
+ * rebinds it to a placeholder and pools it in the current thread.
+ * <p>
+ * The placeholder implements the biz interface and {@link Wrapper}, all its methods throw
+ * {@link IllegalStateException}; so calling a released wrapper that delegates to the underlying instance,
+ * or inspecting it by {@link Inspector}, fails fast; and releasing a wrapper twice is rejected.
+ * In the debug mode({@link #newDebugPool(Class, Supplier, int)}), a placeholder is created per release,
+ * it carries the stack trace of the release, reported as the cause of the use-after-release failure;
+ * and the released wrappers are quarantined(never reused), so a stale reference used after the release
+ * always fails fast, instead of running silently against the underlying instance of a later acquirer.
+ * <p>
+ * As the wrappers are rebound, the wrapper chains below them are NOT fixed:
+ * the reusable wrappers must NOT implement {@link ChainAware}(rejected by the pool),
+ * and must not be wrapped by the layers capturing the wrapper chain,
+ * e.g. by {@link ChainAwareDelegate}(rejected by the delegate).
+ *
+ * <pre>{@code
+ * WrapperPool<Executor, ContextExecutorWrapper> pool =
+ *         WrapperPool.newPool(Executor.class, ContextExecutorWrapper::new, 16);
+ *
+ * ContextExecutorWrapper executor = pool.acquire(baseExecutor);
+ * try {
+ *     executor.setAttachment_("traceId", traceId);
+ *     ...
+ * } finally {
+ *     pool.release(executor);
+ * }
+ * }</pre>
+ *
+ * @param <T> the type of instances that be wrapped
+ * @param <W> the type of the reusable wrappers
+ * @see ReusableWrapper
+ */
+@DefaultAnnotationForParameters(NonNull.class)
+public final class WrapperPool<T, W extends ReusableWrapper<T>> {
+    private final Class<? super T> bizInterface;
+    private final Supplier<? extends W> factory;
+    private final int maxPooledPerThread;
+    private final boolean debug;
+    private final ClassLoader classLoader;
+    private final Class<?>[] placeholderInterfaces;
+    /**
+     * The shared placeholder of the released wrappers, {@code null} in the debug mode.
+     */
+    @Nullable
+    private final T placeholder;
+
+    private final ThreadLocal<ArrayDeque<W>> pooled = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Creates a pool.
+     *
+     * @param bizInterface       the class of instances that be wrapped
+     * @param factory            the factory of the new wrappers, when no pooled wrapper in the current thread
+     * @param maxPooledPerThread the max count of the pooled wrappers per thread
+     * @throws IllegalArgumentException if {@code bizInterface} is not an interface,
+     *                                  or {@code bizInterface} is {@link Wrapper}/WrapperAdapter/Attachable,
+     *                                  or {@code maxPooledPerThread} is negative
+     * @throws NullPointerException     if any argument is null
+     */
+    @NonNull
+    public static <T, W extends ReusableWrapper<T>> WrapperPool<T, W> newPool(
+            Class<? super T> bizInterface, Supplier<? extends W> factory, int maxPooledPerThread) {
+        return new WrapperPool<>(bizInterface, factory, maxPooledPerThread, false);
+    }
+
+    /**
+     * Creates a pool in the debug mode, which records the stack trace of every release;
+     * the use-after-release failure reports where the wrapper was released.
+     *
+     * @see #newPool(Class, Supplier, int)
+     */
+    @NonNull
+    public static <T, W extends ReusableWrapper<T>> WrapperPool<T, W> newDebugPool(
+            Class<? super T> bizInterface, Supplier<? extends W> factory, int maxPooledPerThread) {
+        return new WrapperPool<>(bizInterface, factory, maxPooledPerThread, true);
+    }
+
+    private WrapperPool(Class<? super T> bizInterface, Supplier<? extends W> factory,
+                        int maxPooledPerThread, boolean debug) {
+        requireNonNull(bizInterface, "bizInterface is null");
+        requireNonNull(factory, "factory is null");
+        checkBizInterface(bizInterface);
+        if (maxPooledPerThread < 0) {
+            throw new IllegalArgumentException("maxPooledPerThread(" + maxPooledPerThread + ") is negative");
+        }
+
+        this.bizInterface = bizInterface;
+        this.factory = factory;
+        this.maxPooledPerThread = maxPooledPerThread;
+        this.debug = debug;
+        this.placeholderInterfaces = new Class<?>[]{bizInterface, Wrapper.class};
+        this.classLoader = chooseClassLoader(placeholderInterfaces);
+        this.placeholder = debug ? null : newPlaceholder(null);
+    }
+
+    /**
+     * Takes a pooled wrapper of the current thread, or creates a new one,
+     * and rebinds it to the given underlying instance.
+     *
+     * @param underlying the underlying instance that be wrapped
+     * @throws NullPointerException  if underlying is null, or the factory creates null
+     * @throws IllegalStateException if the created wrapper is not an instance of the biz interface,
+     *                               or is an instance of {@link ChainAware}
+     */
+    @NonNull
+    public W acquire(T underlying) {
+        requireNonNull(underlying, "underlying is null");
+        W wrapper = pooled.get().pollFirst();
+        if (wrapper == null) {
+            wrapper = requireNonNull(factory.get(), "factory creates null");
+            if (!bizInterface.isInstance(wrapper)) {
+                throw new IllegalStateException("the created wrapper(" + wrapper.getClass().getName() +
+                        ") is not an instance of " + bizInterface.getName());
+            }
+            if (wrapper instanceof ChainAware) {
+                throw new IllegalStateException("the created wrapper(" + wrapper.getClass().getName() +
+                        ") is an instance of ChainAware, whose captured wrapper chain is stale after rebind");
+            }
+        }
+        wrapper.rebind_(underlying);
+        return wrapper;
+    }
+
+    /**
+     * Resets the given wrapper, rebinds it to the placeholder, and pools it in the current thread
+     * if the pool of the current thread is not full; in the debug mode, the wrapper is never pooled.
+     * <p>
+     * Do NOT use the wrapper after the release.
+     *
+     * @throws NullPointerException  if wrapper is null
+     * @throws IllegalStateException if the wrapper is already released
+     */
+    public void release(W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        final Object underlying = wrapper.unwrap_();
+        if (isPlaceholder(underlying)) {
+            throw new IllegalStateException("the wrapper(" + wrapper.getClass().getName() + ") is released twice",
+                    releaseSiteOf(underlying));
+        }
+
+        wrapper.reset_();
+        wrapper.rebind_(debug ? newPlaceholder(new ReleaseSite()) : placeholder);
+
+        // quarantines the released wrapper in the debug mode, a stale reference keeps failing fast
+        if (debug) return;
+        final ArrayDeque<W> deque = pooled.get();
+        if (deque.size() < maxPooledPerThread) deque.addFirst(wrapper);
+    }
+
+    /**
+     * Reports whether the given wrapper is released and not acquired again.
+     */
+    public boolean isReleased(W wrapper) {
+        requireNonNull(wrapper, "wrapper is null");
+        return isPlaceholder(wrapper.unwrap_());
+    }
+
+    /**
+     * Gets the count of the pooled wrappers of the current thread.
+     */
+    public int getPooledCount() {
+        return pooled.get().size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newPlaceholder(@Nullable ReleaseSite releaseSite) {
+        return (T) Proxy.newProxyInstance(classLoader, placeholderInterfaces, new PlaceholderHandler(releaseSite));
+    }
+
+    private static boolean isPlaceholder(@Nullable Object instance) {
+        return instance != null && Proxy.isProxyClass(instance.getClass())
+                && Proxy.getInvocationHandler(instance) instanceof PlaceholderHandler;
+    }
+
+    @Nullable
+    private static ReleaseSite releaseSiteOf(Object placeholder) {
+        return ((PlaceholderHandler) Proxy.getInvocationHandler(placeholder)).releaseSite;
+    }
+
+    /**
+     * The stack trace of the release, recorded in the debug mode.
+     */
+    private static final class ReleaseSite extends Throwable {
+        private static final long serialVersionUID = 0;
+
+        ReleaseSite() {
+            super("the wrapper was released here");
+        }
+    }
+
+    private static final class PlaceholderHandler implements InvocationHandler {
+        @Nullable
+        final ReleaseSite releaseSite;
+
+        PlaceholderHandler(@Nullable ReleaseSite releaseSite) {
+            this.releaseSite = releaseSite;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "[placeholder of the released ReusableWrapper]";
+                    default:
+                        break;
+                }
+            }
+            throw new IllegalStateException("use after release, the ReusableWrapper is released to WrapperPool" +
+                    (releaseSite == null ? "; create the pool by WrapperPool.newDebugPool to find the release site" : ""),
+                    releaseSite);
+        }
+    }
+}
@@ -2,6 +2,12 @@
  * Utility classes for {@code inspectable wrappers}.
  *
  * @see io.foldright.inspectablewrappers.utils.AttachableDelegate
+ * @see io.foldright.inspectablewrappers.utils.PersistentAttachableDelegate
+ * @see io.foldright.inspectablewrappers.utils.ChainAwareDelegate
  * @see io.foldright.inspectablewrappers.utils.WrapperAdapterUtils
+ * @see io.foldright.inspectablewrappers.utils.WrapperAdapterFactory
+ * @see io.foldright.inspectablewrappers.utils.InvocationInterceptor
+ * @see io.foldright.inspectablewrappers.utils.WrapperPool
+ * @see io.foldright.inspectablewrappers.utils.InterceptorChain
  */
 package io.foldright.inspectablewrappers.utils;
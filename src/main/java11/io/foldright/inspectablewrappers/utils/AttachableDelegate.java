@@ -0,0 +1,102 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.Inspector;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * A simple {@link Attachable} delegate implementation.
+ * <p>
+ * <strong>Note:</strong><br>
+ * As the attachments are stored in {@code hash map}(threadsafe {@link ConcurrentHashMap}),
+ * the implementation of the key type must meet the requirements of the {@code hash map}, which means that
+ * a stable {@code hash code} and the ability to compare equality using {@code equals()} must be implemented.
+ * <p>
+ * The attachment map is created lazily by the first {@link #setAttachment_(Object, Object)},
+ * so the delegates without attachments cost no map.
+ * <p>
+ * This is the Java 11+ overlay of the multi-release jar, accesses the lazy map by {@link VarHandle}
+ * with acquire read semantics instead of the volatile read of the Java 8 baseline.
+ *
+ * @author Jerry Lee (oldratlee at gmail dot com)
+ * @author Yang Fang (snoop dot fy at gmail dot com)
+ * @author Zava Xu (zava dot kid at gmail dot com)
+ * @see Attachable
+ */
+public class AttachableDelegate<K, V> implements Attachable<K, V> {
+    private static final VarHandle ATTACHMENTS;
+
+    static {
+        try {
+            ATTACHMENTS = MethodHandles.lookup()
+                    .findVarHandle(AttachableDelegate.class, "attachments", ConcurrentMap.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Nullable
+    @SuppressWarnings("unused") // accessed by VarHandle ATTACHMENTS
+    private ConcurrentMap<K, V> attachments;
+
+    /**
+     * Sets an attachment.
+     *
+     * @param key   the attachment key
+     * @param value the attachment value
+     * @throws NullPointerException if any arguments is null
+     */
+    @Override
+    public void setAttachment_(@NonNull K key, @NonNull V value) {
+        requireNonNull(key, "key is null");
+        requireNonNull(value, "value is null");
+        attachments().put(key, value);
+    }
+
+    /**
+     * Gets the attachment value for the given key.
+     *
+     * @param key the attachment key
+     * @return return the attachment value, or {@code null} if contains no attachment for the key
+     * @throws NullPointerException if key argument is null
+     * @throws ClassCastException   if the return value is not type {@code <V>}
+     * @see Inspector#getAttachmentFromWrapperChain(Object, Object)
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getAttachment_(@NonNull K key) {
+        requireNonNull(key, "key is null");
+        final ConcurrentMap<K, V> map = (ConcurrentMap<K, V>) ATTACHMENTS.getAcquire(this);
+        return map == null ? null : map.get(key);
+    }
+
+    /**
+     * Removes all attachments, keeps the created attachment map for the reuse;
+     * e.g. when the owner wrapper is recycled by {@link io.foldright.inspectablewrappers.ReusableWrapper#reset_()}.
+     */
+    @SuppressWarnings("unchecked")
+    public void clearAttachments() {
+        final ConcurrentMap<K, V> map = (ConcurrentMap<K, V>) ATTACHMENTS.getAcquire(this);
+        if (map != null) map.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentMap<K, V> attachments() {
+        final ConcurrentMap<K, V> map = (ConcurrentMap<K, V>) ATTACHMENTS.getAcquire(this);
+        if (map != null) return map;
+
+        final ConcurrentMap<K, V> created = new ConcurrentHashMap<>();
+        final ConcurrentMap<K, V> witness = (ConcurrentMap<K, V>) ATTACHMENTS.compareAndExchange(this, null, created);
+        return witness == null ? created : witness;
+    }
+}
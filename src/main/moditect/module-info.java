@@ -1,6 +1,13 @@
 // https://www.oracle.com/corporate/features/understanding-java-9-modules.html
 
 module io.foldright.inspectablewrappers {
+    requires static java.instrument;
+    requires static java.management;
+
     exports io.foldright.inspectablewrappers;
     exports io.foldright.inspectablewrappers.utils;
+    exports io.foldright.inspectablewrappers.executor;
+    exports io.foldright.inspectablewrappers.diagnostics;
+
+    uses io.foldright.inspectablewrappers.UnwrapStrategy;
 }
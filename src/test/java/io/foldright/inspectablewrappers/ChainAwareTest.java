@@ -0,0 +1,87 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.integration.ExistedExecutorWrapper;
+import io.foldright.inspectablewrappers.utils.ChainAwareDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.foldright.inspectablewrappers.Inspector.getBaseOfWrapperChain;
+import static io.foldright.inspectablewrappers.Inspector.getDepthOfWrapperChain;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ChainAwareTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void baseAndDepthCaptured() {
+        final AtomicInteger unwrapped = new AtomicInteger();
+        final AwareWrapper inner = new AwareWrapper(new ChattyExecutorWrapper(BASE), unwrapped);
+        final AwareWrapper outer = new AwareWrapper(inner, unwrapped);
+        // the captured values of the conforming underlying instance are reused, no traversal
+        assertEquals(0, unwrapped.get());
+
+        assertSame(BASE, getBaseOfWrapperChain(outer));
+        assertEquals(3, getDepthOfWrapperChain(outer));
+        assertEquals(0, unwrapped.get());
+
+        // non-conforming outer layers are traversed until the conforming layer
+        final ChattyExecutorWrapper chatty = new ChattyExecutorWrapper(outer);
+        assertSame(BASE, getBaseOfWrapperChain(chatty));
+        assertEquals(4, getDepthOfWrapperChain(chatty));
+        assertEquals(0, unwrapped.get());
+    }
+
+    @Test
+    void nonConformingChains() {
+        final Executor adapter = createWrapperAdapter(Executor.class, new ChattyExecutorWrapper(BASE),
+                new ExistedExecutorWrapper(BASE));
+        assertSame(BASE, getBaseOfWrapperChain(adapter));
+        assertEquals(2, getDepthOfWrapperChain(adapter));
+        assertEquals(0, getDepthOfWrapperChain(BASE));
+
+        final AwareWrapper aware = new AwareWrapper(adapter, new AtomicInteger());
+        assertSame(BASE, aware.base_());
+        assertEquals(3, aware.depth_());
+    }
+
+    private static class AwareWrapper implements Executor, ChainAware<Executor> {
+        private final Executor executor;
+        private final ChainAwareDelegate<Executor> chainAware;
+        private final AtomicInteger unwrapped;
+
+        AwareWrapper(Executor executor, AtomicInteger unwrapped) {
+            this.executor = executor;
+            this.chainAware = new ChainAwareDelegate<>(executor);
+            this.unwrapped = unwrapped;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            unwrapped.incrementAndGet();
+            return executor;
+        }
+
+        @NonNull
+        @Override
+        public Executor base_() {
+            return chainAware.base_();
+        }
+
+        @Override
+        public int depth_() {
+            return chainAware.depth_();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.foldright.inspectablewrappers.Inspector.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class CompositeWrapperTest {
+    @Test
+    void wrapperGraph() {
+        final Shard shard1 = new Shard();
+        final Shard shard2 = new Shard();
+        final Executor shared = new Shard();
+        final AttachableWrapper attachable = new AttachableWrapper(shared);
+        attachable.setAttachment_("k", "v");
+
+        final Routing routing = new Routing(shard1, new ChattyWrapper(shard2), attachable, shared);
+        final Executor graph = new ChattyWrapper(routing);
+
+        assertTrue(containsInstanceTypeOnWrapperGraph(graph, Routing.class));
+        assertTrue(containsInstanceTypeOnWrapperGraph(graph, AttachableWrapper.class));
+        assertFalse(containsInstanceTypeOnWrapperGraph(graph, ExecutorService.class));
+        assertEquals("v", getAttachmentFromWrapperGraph(graph, "k"));
+
+        // shared instance is visited only once, in depth-first pre-order
+        final List<Executor> instances = getInstancesOfWrapperGraph(graph);
+        assertEquals(7, instances.size());
+        assertSame(graph, instances.get(0));
+        assertSame(routing, instances.get(1));
+        assertSame(shard1, instances.get(2));
+        assertSame(shared, instances.get(6));
+
+        // the wrapper chain stops at the composite wrapper
+        assertFalse(containsInstanceTypeOnWrapperChain(graph, AttachableWrapper.class));
+    }
+
+    @Test
+    void parallelFindAny() {
+        final List<Executor> shards = new ArrayList<>();
+        for (int i = 0; i < 300; i++) shards.add(new ChattyWrapper(new Shard()));
+        final Shard target = new Shard();
+        shards.add(new ChattyWrapper(new ChattyWrapper(target)));
+        final Executor graph = new ChattyWrapper(new Routing(shards.toArray(new Executor[0])));
+
+        final AtomicInteger tested = new AtomicInteger();
+        assertSame(target, parallelFindAnyInstanceOnWrapperGraph(graph, w -> {
+            tested.incrementAndGet();
+            return w == target;
+        }).get());
+        assertTrue(tested.get() > 0);
+
+        assertFalse(parallelFindAnyInstanceOnWrapperGraph(graph, ExecutorService.class::isInstance,
+                new ForkJoinPool(4)).isPresent());
+    }
+
+    @Test
+    void cyclicWrapperGraph() {
+        final Routing routing = new Routing();
+        final ChattyWrapper w = new ChattyWrapper(routing);
+        routing.underlying.add(new Shard());
+        routing.underlying.add(w);
+
+        IllegalStateException e = assertThrowsExactly(IllegalStateException.class,
+                () -> getInstancesOfWrapperGraph(w));
+        assertEquals("CYCLIC wrapper graph, duplicate instance of " +
+                "io.foldright.inspectablewrappers.CompositeWrapperTest$ChattyWrapper", e.getMessage());
+
+        assertThrows(IllegalStateException.class, () -> parallelFindAnyInstanceOnWrapperGraph((Executor) w, x -> false));
+    }
+
+    @Test
+    void cycleEnteredByTwoBranches() {
+        final Routing x = new Routing();
+        final Routing y = new Routing();
+        x.underlying.add(y);
+        y.underlying.add(x);
+        // two branches entering the same cycle at the different instances
+        final Executor graph = new Routing(x, y);
+
+        assertThrows(IllegalStateException.class, () -> getInstancesOfWrapperGraph(graph));
+
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (int i = 0; i < 20; i++) {
+                // holds the two branches until both entered the cycle
+                final CyclicBarrier barrier = new CyclicBarrier(2);
+                assertThrows(IllegalStateException.class, () -> parallelFindAnyInstanceOnWrapperGraph(graph, w -> {
+                    if (w == x || w == y) {
+                        try {
+                            barrier.await(100, TimeUnit.MILLISECONDS);
+                        } catch (Exception ignored) {
+                            // the other branch is not run concurrently
+                        }
+                    }
+                    return false;
+                }, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void nullUnderlying() {
+        final Routing routing = new Routing(new Shard(), null);
+        NullPointerException e = assertThrowsExactly(NullPointerException.class,
+                () -> getInstancesOfWrapperGraph(routing));
+        assertEquals("unwrapAll of CompositeWrapper(io.foldright.inspectablewrappers.CompositeWrapperTest$Routing)" +
+                " contains null", e.getMessage());
+    }
+
+    private static class Shard implements Executor {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    }
+
+    private static class Routing implements Executor, CompositeWrapper<Executor> {
+        final List<Executor> underlying;
+
+        Routing(Executor... underlying) {
+            this.underlying = new ArrayList<>(Arrays.asList(underlying));
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            underlying.get(0).execute(command);
+        }
+
+        @NonNull
+        @Override
+        public List<Executor> unwrapAll_() {
+            return underlying;
+        }
+    }
+
+    private static class ChattyWrapper implements Executor, Wrapper<Executor> {
+        private final Executor executor;
+
+        ChattyWrapper(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            return executor;
+        }
+    }
+
+    private static class AttachableWrapper extends AttachableDelegate<String, String> implements Executor, Wrapper<Executor> {
+        private final Executor executor;
+
+        AttachableWrapper(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.foldright.inspectablewrappers.Inspector.verifyWrapperChainContractsIncrementally;
+import static io.foldright.inspectablewrappers.VerifiedWrapperChains.MIN_MEMOIZED_DEPTH;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class IncrementalVerificationTest {
+    private static final Executor BASE = Runnable::run;
+    private static final int DEPTH = MIN_MEMOIZED_DEPTH + 8;
+
+    @Test
+    void verifiesOnlyNewLayers() {
+        final AtomicInteger unwrapped = new AtomicInteger();
+        final Executor tail = wrap(BASE, DEPTH, unwrapped);
+
+        verifyWrapperChainContractsIncrementally(tail);
+        final int fullWalk = unwrapped.get();
+        assertTrue(fullWalk >= DEPTH);
+
+        // re-wrap the verified chain by adding one layer, stops at the first memoized instance
+        unwrapped.set(0);
+        final Executor head = new CountingWrapper(tail, unwrapped);
+        verifyWrapperChainContractsIncrementally(head);
+        final int incremental = unwrapped.get();
+        assertTrue(incremental < fullWalk);
+
+        unwrapped.set(0);
+        verifyWrapperChainContractsIncrementally(head);
+        assertTrue(unwrapped.get() <= incremental);
+
+        // the verified status is memoized per biz interface
+        unwrapped.set(0);
+        verifyWrapperChainContractsIncrementally(head, Executor.class);
+        assertTrue(unwrapped.get() > fullWalk);
+        unwrapped.set(0);
+        verifyWrapperChainContractsIncrementally(new CountingWrapper(head, unwrapped), Executor.class);
+        assertEquals(incremental, unwrapped.get());
+    }
+
+    @Test
+    void shortChainsWalkedFully() {
+        final AtomicInteger unwrapped = new AtomicInteger();
+        final Executor chain = wrap(BASE, MIN_MEMOIZED_DEPTH, unwrapped);
+
+        verifyWrapperChainContractsIncrementally(chain);
+        final int fullWalk = unwrapped.get();
+        unwrapped.set(0);
+        verifyWrapperChainContractsIncrementally(chain);
+        assertEquals(fullWalk, unwrapped.get());
+    }
+
+    @Test
+    void notMemoizedAboveReusableWrapper() {
+        final AtomicInteger unwrapped = new AtomicInteger();
+        final Executor chain = wrap(new RebindableWrapper(BASE), DEPTH, unwrapped);
+
+        verifyWrapperChainContractsIncrementally(chain);
+        final int fullWalk = unwrapped.get();
+        unwrapped.set(0);
+        verifyWrapperChainContractsIncrementally(chain);
+        assertEquals(fullWalk, unwrapped.get());
+    }
+
+    @Test
+    void failures() {
+        final AtomicInteger unwrapped = new AtomicInteger();
+        final Executor broken = wrap(new CountingWrapper(null, unwrapped), DEPTH, unwrapped);
+        assertThrowsExactly(NullPointerException.class, () -> verifyWrapperChainContractsIncrementally(broken));
+        // the failed verification is not memoized
+        assertThrowsExactly(NullPointerException.class, () -> verifyWrapperChainContractsIncrementally(broken));
+
+        final Executor chain = new CountingWrapper(BASE, unwrapped);
+        verifyWrapperChainContractsIncrementally(chain);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        IllegalStateException e = assertThrowsExactly(IllegalStateException.class,
+                () -> verifyWrapperChainContractsIncrementally(chain, (Class) ExecutorService.class));
+        assertEquals("the instance(io.foldright.inspectablewrappers.IncrementalVerificationTest$CountingWrapper" +
+                ") on wrapper chain is not an instance of java.util.concurrent.ExecutorService", e.getMessage());
+    }
+
+    private static Executor wrap(Executor executor, int layers, AtomicInteger unwrapped) {
+        for (int i = 0; i < layers; i++) executor = new CountingWrapper(executor, unwrapped);
+        return executor;
+    }
+
+    private static class CountingWrapper implements Executor, Wrapper<Executor> {
+        private final Executor executor;
+        private final AtomicInteger unwrapped;
+
+        CountingWrapper(Executor executor, AtomicInteger unwrapped) {
+            this.executor = executor;
+            this.unwrapped = unwrapped;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            unwrapped.incrementAndGet();
+            return executor;
+        }
+    }
+
+    private static class RebindableWrapper implements Executor, ReusableWrapper<Executor> {
+        private Executor executor;
+
+        RebindableWrapper(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            return executor;
+        }
+
+        @Override
+        public void rebind_(@NonNull Executor underlying) {
+            executor = underlying;
+        }
+
+        @Override
+        public void reset_() {
+        }
+    }
+}
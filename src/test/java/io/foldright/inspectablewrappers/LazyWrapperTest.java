@@ -0,0 +1,138 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import io.foldright.inspectablewrappers.utils.ChainAwareDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static io.foldright.inspectablewrappers.Inspector.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class LazyWrapperTest {
+    @Test
+    void queriesAnsweredFromDeclaredBaseType() {
+        final AtomicInteger created = new AtomicInteger();
+        final LazyExecutor lazy = new LazyExecutor(FinalExecutor.class, () -> {
+            created.incrementAndGet();
+            return new FinalExecutor();
+        });
+        final AttachableWrapper chain = new AttachableWrapper(lazy);
+        chain.setAttachment_("k", "v");
+
+        assertTrue(containsInstanceTypeOnWrapperChain(chain, LazyExecutor.class));
+        assertTrue(containsInstanceTypeOnWrapperChain(chain, FinalExecutor.class));
+        assertFalse(containsInstanceTypeOnWrapperChain(chain, ExecutorService.class));
+        assertEquals("v", getAttachmentFromWrapperChain(chain, "k"));
+        assertNull(getAttachmentFromWrapperChain(chain, "absent"));
+        assertEquals(0, created.get());
+
+        // the query needs the real instance
+        assertInstanceOf(FinalExecutor.class, getBaseOfWrapperChain(chain));
+        assertEquals(1, created.get());
+        assertFalse(containsInstanceTypeOnWrapperChain(chain, ExecutorService.class));
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void nonBaseDeclaredType() {
+        final AtomicInteger created = new AtomicInteger();
+        final AttachableWrapper underlying = new AttachableWrapper(new FinalExecutor());
+        underlying.setAttachment_("k", "inner");
+        final LazyExecutor lazy = new LazyExecutor(Executor.class, () -> {
+            created.incrementAndGet();
+            return underlying;
+        });
+
+        // the declared type matches, no need to materialize
+        assertTrue(containsInstanceTypeOnWrapperChain(lazy, Executor.class));
+        assertEquals(0, created.get());
+
+        // the declared type is not the base, materializes the underlying instance
+        assertTrue(containsInstanceTypeOnWrapperChain(lazy, AttachableWrapper.class));
+        assertEquals(1, created.get());
+        assertEquals("inner", getAttachmentFromWrapperChain(lazy, "k"));
+    }
+
+    @Test
+    void chainAwareDelegateNotMaterializing() {
+        final AtomicInteger created = new AtomicInteger();
+        final LazyExecutor lazy = new LazyExecutor(FinalExecutor.class, () -> {
+            created.incrementAndGet();
+            return new FinalExecutor();
+        });
+
+        final ChainAwareDelegate<Executor> chainAware = new ChainAwareDelegate<>(lazy);
+        assertEquals(0, created.get());
+
+        // the first access needs the real instance
+        assertInstanceOf(FinalExecutor.class, chainAware.base_());
+        assertEquals(2, chainAware.depth_());
+        assertEquals(1, created.get());
+    }
+
+    private static final class FinalExecutor implements Executor {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    }
+
+    private static class LazyExecutor implements Executor, LazyWrapper<Executor> {
+        private final Class<? extends Executor> declaredType;
+        private final Supplier<? extends Executor> factory;
+        private volatile Executor executor;
+
+        LazyExecutor(Class<? extends Executor> declaredType, Supplier<? extends Executor> factory) {
+            this.declaredType = declaredType;
+            this.factory = factory;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            unwrap_().execute(command);
+        }
+
+        @NonNull
+        @Override
+        public synchronized Executor unwrap_() {
+            if (executor == null) executor = factory.get();
+            return executor;
+        }
+
+        @NonNull
+        @Override
+        public Class<?> declaredUnderlyingType_() {
+            return declaredType;
+        }
+
+        @Override
+        public boolean isUnderlyingMaterialized_() {
+            return executor != null;
+        }
+    }
+
+    private static class AttachableWrapper extends AttachableDelegate<String, String> implements Executor, Wrapper<Executor> {
+        private final Executor executor;
+
+        AttachableWrapper(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            return executor;
+        }
+    }
+}
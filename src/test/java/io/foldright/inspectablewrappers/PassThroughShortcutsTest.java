@@ -0,0 +1,113 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.inspectablewrappers.utils.WrapperAdapterUtils;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.foldright.inspectablewrappers.PassThroughShortcuts.getInterceptingInstance;
+import static io.foldright.inspectablewrappers.PassThroughShortcuts.getShortcut;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class PassThroughShortcutsTest {
+    private static final Method INTERCEPTED;
+    private static final Method DELEGATED;
+
+    static {
+        try {
+            INTERCEPTED = Service.class.getMethod("intercepted", String.class);
+            DELEGATED = Service.class.getMethod("delegated", String.class);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Test
+    void shortcutSkipsPassThroughHops() throws Throwable {
+        final List<String> hops = new ArrayList<>();
+        final Base base = new Base();
+        final PartialWrapper inner = new PartialWrapper("inner", base, hops);
+        final PartialWrapper outer = new PartialWrapper("outer", inner, hops);
+
+        assertSame(base, getInterceptingInstance(outer, DELEGATED));
+        assertSame(outer, getInterceptingInstance(outer, INTERCEPTED));
+
+        final MethodHandle delegated = getShortcut(outer, DELEGATED);
+        assertEquals("base:x", (String) delegated.invokeExact("x"));
+        assertTrue(hops.isEmpty());
+
+        final MethodHandle intercepted = getShortcut(outer, INTERCEPTED);
+        assertEquals("outer(inner(base:x))", (String) intercepted.invokeExact("x"));
+        assertEquals(2, hops.size());
+    }
+
+    @Test
+    void adapterIntercepts() {
+        final Base base = new Base();
+        final Service adapter = WrapperAdapterUtils.createWrapperAdapter(Service.class, base, new Base());
+        final PartialWrapper head = new PartialWrapper("head", adapter, new ArrayList<>());
+
+        assertSame(adapter, getInterceptingInstance(head, DELEGATED));
+        assertSame(base, getInterceptingInstance(new PartialWrapper("head", base, new ArrayList<>()), DELEGATED));
+    }
+
+    @Test
+    void invalidMethod() throws Exception {
+        final Method toString = Object.class.getMethod("toString");
+        assertThrows(IllegalArgumentException.class, () -> getShortcut(new Base(), toString));
+    }
+
+    public interface Service {
+        String intercepted(String arg);
+
+        String delegated(String arg);
+    }
+
+    private static final class Base implements Service {
+        @Override
+        public String intercepted(String arg) {
+            return "base:" + arg;
+        }
+
+        @Override
+        public String delegated(String arg) {
+            return "base:" + arg;
+        }
+    }
+
+    private static final class PartialWrapper implements Service, Wrapper<Service> {
+        private final String name;
+        private final Service service;
+        private final List<String> hops;
+
+        PartialWrapper(String name, Service service, List<String> hops) {
+            this.name = name;
+            this.service = service;
+            this.hops = hops;
+        }
+
+        @Override
+        public String intercepted(String arg) {
+            hops.add(name);
+            return name + "(" + service.intercepted(arg) + ")";
+        }
+
+        @PassThrough
+        @Override
+        public String delegated(String arg) {
+            hops.add(name);
+            return service.delegated(arg);
+        }
+
+        @NonNull
+        @Override
+        public Service unwrap_() {
+            return service;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.foldright.inspectablewrappers;
+
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.getAttachmentFromWrapperChain;
+import static io.foldright.inspectablewrappers.Inspector.getScopedAttachmentFromWrapperChain;
+import static io.foldright.inspectablewrappers.ScopedAttachments.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ScopedAttachmentsTest {
+    @Test
+    void scopedAttachmentsWin() throws Exception {
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(Runnable::run);
+        lazy.setAttachment_("busy", "very, very busy!");
+        final Executor chain = new ChattyExecutorWrapper(lazy);
+
+        assertNull(getAttachment("traceId"));
+        runWithAttachment("traceId", "t1", () -> {
+            assertEquals("t1", getScopedAttachmentFromWrapperChain(chain, "traceId"));
+            // the shared attachments are still visible
+            assertEquals("very, very busy!", getScopedAttachmentFromWrapperChain(chain, "busy"));
+
+            runWithAttachment("busy", "scoped busy", () -> {
+                assertEquals("scoped busy", getScopedAttachmentFromWrapperChain(chain, "busy"));
+                assertEquals("t1", getAttachment("traceId"));
+            });
+            assertEquals("very, very busy!", getScopedAttachmentFromWrapperChain(chain, "busy"));
+
+            // the innermost binding wins
+            assertEquals("t2", supplyWithAttachment("traceId", "t2", () -> getAttachment("traceId")));
+            assertEquals("t1", getAttachment("traceId"));
+
+            // not visible to other threads
+            try {
+                assertNull(CompletableFuture.supplyAsync(() -> getAttachment("traceId")).get());
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+        assertNull(getScopedAttachmentFromWrapperChain(chain, "traceId"));
+    }
+
+    @Test
+    void chainAttachmentsIgnoreScope() {
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(Runnable::run);
+        lazy.setAttachment_("busy", "very, very busy!");
+        final Executor chain = new ChattyExecutorWrapper(lazy);
+
+        runWithAttachment("traceId", "t1", () -> {
+            // answers ONLY from the instances on the wrapper chain
+            assertNull(getAttachmentFromWrapperChain(chain, "traceId"));
+            runWithAttachment("busy", "scoped busy", () ->
+                    assertEquals("very, very busy!", getAttachmentFromWrapperChain(chain, "busy")));
+        });
+    }
+
+    @Test
+    void removedOnException() {
+        assertThrows(IllegalStateException.class, () -> runWithAttachment("k", "v", () -> {
+            throw new IllegalStateException();
+        }));
+        assertNull(getAttachment("k"));
+        assertThrows(NullPointerException.class, () -> runWithAttachment("k", null, () -> {
+        }));
+    }
+}
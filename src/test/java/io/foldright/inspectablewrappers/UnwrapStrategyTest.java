@@ -0,0 +1,122 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * The strategy of {@link DelegatingExecutor}, and the broken providers, are registered in
+ * {@code src/test/resources/META-INF/services/io.foldright.inspectablewrappers.UnwrapStrategy}.
+ */
+class UnwrapStrategyTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void foreignWrappersAreTraversed() {
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(BASE);
+        lazy.setAttachment_("busy", "very, very busy!");
+        final DelegatingExecutor foreign = new DelegatingExecutor(new DelegatingExecutor(lazy));
+        final ChattyExecutorWrapper chain = new ChattyExecutorWrapper(foreign);
+
+        assertEquals(Arrays.asList(chain, foreign, foreign.delegate, lazy, BASE), getInstancesOfWrapperChain(chain));
+        assertSame(BASE, getBaseOfWrapperChain(chain));
+        assertEquals(4, getDepthOfWrapperChain(chain));
+        assertTrue(containsInstanceTypeOnWrapperChain(chain, LazyExecutorWrapper.class));
+        assertEquals("very, very busy!", getAttachmentFromWrapperChain(chain, "busy"));
+        verifyWrapperChainContracts(chain, Executor.class);
+
+        // a foreign wrapper that wraps nothing is the base of the wrapper chain
+        final DelegatingExecutor foreignBase = new DelegatingExecutor(null);
+        assertSame(foreignBase, getBaseOfWrapperChain(new ChattyExecutorWrapper(foreignBase)));
+    }
+
+    @Test
+    void foreignWrapperReturnsItself() {
+        final DelegatingExecutor foreign = new DelegatingExecutor(null);
+        foreign.delegate = foreign;
+
+        final IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> getBaseOfWrapperChain(new ChattyExecutorWrapper(foreign)));
+        assertEquals("UnwrapStrategy(" + DelegatingExecutorUnwrapStrategy.class.getName() +
+                ") returns the instance(" + DelegatingExecutor.class.getName() + ") itself", e.getMessage());
+    }
+
+    @Test
+    void strategyResolvedPerClass() {
+        assertNotNull(UnwrapStrategies.lookup(DelegatingExecutor.class));
+        assertNull(UnwrapStrategies.lookup(ChattyExecutorWrapper.class));
+        assertNull(UnwrapStrategies.lookup(String.class));
+    }
+
+    @Test
+    void brokenProvidersSkipped() {
+        // the failing and the missing providers registered in the services file do not break the loading
+        final Map<Class<?>, UnwrapStrategy> strategies = new LinkedHashMap<>();
+        UnwrapStrategies.loadStrategies(strategies, UnwrapStrategyTest.class.getClassLoader());
+        assertEquals(Collections.singleton(DelegatingExecutorUnwrapStrategy.class), strategies.keySet());
+
+        // the provider found again by the other class loader is not duplicated
+        UnwrapStrategies.loadStrategies(strategies, new ClassLoader(UnwrapStrategyTest.class.getClassLoader()) {});
+        assertEquals(1, strategies.size());
+    }
+
+    /**
+     * The third-party decorator that can not implement {@link Wrapper}.
+     */
+    static final class DelegatingExecutor implements Executor {
+        @Nullable
+        Executor delegate;
+
+        DelegatingExecutor(@Nullable Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            if (delegate == null) command.run();
+            else delegate.execute(command);
+        }
+    }
+
+    public static final class DelegatingExecutorUnwrapStrategy implements UnwrapStrategy {
+        @Override
+        public boolean supports(@NonNull Class<?> type) {
+            return type == DelegatingExecutor.class;
+        }
+
+        @Nullable
+        @Override
+        public Object unwrap(@NonNull Object instance) {
+            return ((DelegatingExecutor) instance).delegate;
+        }
+    }
+
+    public static final class FailingUnwrapStrategy implements UnwrapStrategy {
+        public FailingUnwrapStrategy() {
+            throw new IllegalStateException("broken provider");
+        }
+
+        @Override
+        public boolean supports(@NonNull Class<?> type) {
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public Object unwrap(@NonNull Object instance) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.foldright.inspectablewrappers;
+
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import io.foldright.demo.integration.ExistedExecutorWrapper;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.dumpWrapperChain;
+import static io.foldright.inspectablewrappers.Inspector.dumpWrapperChainAsJson;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class WrapperChainDumpTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void text() throws IOException {
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(BASE);
+        lazy.setAttachment_("busy", "very, very busy!");
+        final ChattyExecutorWrapper chain = new ChattyExecutorWrapper(lazy);
+
+        final StringBuilder sb = new StringBuilder();
+        dumpWrapperChain(chain, sb, "busy", "absent");
+        final String expected = ChattyExecutorWrapper.class.getName() + "@" + identity(chain) +
+                "\n  -> " + LazyExecutorWrapper.class.getName() + "@" + identity(lazy) + " {busy=very, very busy!}" +
+                "\n  -> " + BASE.getClass().getName() + "@" + identity(BASE) + "\n";
+        assertEquals(expected, sb.toString());
+    }
+
+    @Test
+    void json() throws IOException {
+        final AttachableDelegate<String, String> attachable = new AttachableDelegate<>();
+        attachable.setAttachment_("k", "say \"hi\"\n");
+        final ExistedExecutorWrapper existed = new ExistedExecutorWrapper(BASE);
+        final Executor adapter = createWrapperAdapter(Executor.class, BASE, existed, attachable);
+
+        final StringWriter writer = new StringWriter();
+        dumpWrapperChainAsJson(adapter, writer, "k");
+        final String expected = "{\"layers\":[" +
+                "{\"class\":\"" + adapter.getClass().getName() + "\",\"identity\":\"" + identity(adapter) +
+                "\",\"adapter\":true,\"adaptee\":false,\"attachments\":{\"k\":\"say \\\"hi\\\"\\n\"}}," +
+                "{\"class\":\"" + ExistedExecutorWrapper.class.getName() + "\",\"identity\":\"" + identity(existed) +
+                "\",\"adapter\":false,\"adaptee\":true}," +
+                "{\"class\":\"" + BASE.getClass().getName() + "\",\"identity\":\"" + identity(BASE) +
+                "\",\"adapter\":false,\"adaptee\":false}]}";
+        assertEquals(expected, writer.toString());
+    }
+
+    @Test
+    void outputException() {
+        final Writer broken = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("broken");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        IOException e = assertThrows(IOException.class, () -> dumpWrapperChain(new ChattyExecutorWrapper(BASE), broken));
+        assertEquals("broken", e.getMessage());
+    }
+
+    private static String identity(Object obj) {
+        return Integer.toHexString(System.identityHashCode(obj));
+    }
+}
@@ -0,0 +1,75 @@
+package io.foldright.inspectablewrappers;
+
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import io.foldright.demo.integration.ExistedExecutorWrapper;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.getFingerprintOfWrapperChain;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+
+class WrapperChainFingerprintTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void sameStructureSameFingerprint() {
+        final Executor chain1 = new ChattyExecutorWrapper(new LazyExecutorWrapper(BASE));
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(BASE);
+        lazy.setAttachment_("k", "v");
+        final Executor chain2 = new ChattyExecutorWrapper(lazy);
+
+        // attachments are not part of the structure
+        assertEquals(getFingerprintOfWrapperChain(chain1), getFingerprintOfWrapperChain(chain2));
+    }
+
+    @Test
+    void differentStructureDifferentFingerprint() {
+        final long chattyLazy = getFingerprintOfWrapperChain(new ChattyExecutorWrapper(new LazyExecutorWrapper(BASE)));
+        final long lazyChatty = getFingerprintOfWrapperChain(new LazyExecutorWrapper(new ChattyExecutorWrapper(BASE)));
+        final long chatty = getFingerprintOfWrapperChain(new ChattyExecutorWrapper(BASE));
+
+        assertNotEquals(chattyLazy, lazyChatty);
+        assertNotEquals(chattyLazy, chatty);
+        assertNotEquals(getFingerprintOfWrapperChain(BASE), chatty);
+    }
+
+    @Test
+    void adapters() {
+        final Executor existed = new ExistedExecutorWrapper(BASE);
+        final long plain = getFingerprintOfWrapperChain(createWrapperAdapter(Executor.class, BASE, existed));
+        final long attachable = getFingerprintOfWrapperChain(
+                createWrapperAdapter(Executor.class, BASE, existed, new AttachableDelegate<>()));
+        final long tagged = getFingerprintOfWrapperChain(createWrapperAdapter(Executor.class, BASE, existed, Tag.class));
+
+        assertEquals(plain, getFingerprintOfWrapperChain(createWrapperAdapter(Executor.class, BASE, existed)));
+        assertNotEquals(plain, attachable);
+        assertNotEquals(plain, tagged);
+        assertNotEquals(attachable, tagged);
+    }
+
+    @Test
+    void lambdasHashedByStableParts() {
+        final Executor lambda1 = Runnable::run;
+        final Executor lambda2 = command -> command.run();
+        final Runnable runnable = () -> {
+        };
+        // the lambda class names are generated and differ per lambda and per JVM run
+        assertNotEquals(lambda1.getClass().getName(), lambda2.getClass().getName());
+
+        assertEquals(WrapperChainFingerprint.hashOfClass(lambda1.getClass()),
+                WrapperChainFingerprint.hashOfClass(lambda2.getClass()));
+        assertNotEquals(WrapperChainFingerprint.hashOfClass(lambda1.getClass()),
+                WrapperChainFingerprint.hashOfClass(runnable.getClass()));
+        assertEquals(getFingerprintOfWrapperChain(new ChattyExecutorWrapper(lambda1)),
+                getFingerprintOfWrapperChain(new ChattyExecutorWrapper(lambda2)));
+    }
+
+    public interface Tag {
+    }
+}
@@ -0,0 +1,48 @@
+package io.foldright.inspectablewrappers;
+
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import io.foldright.demo.integration.ExistedExecutorWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.getShapeOfWrapperChain;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class WrapperChainShapeTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void sameStructureSameShape() {
+        final Executor chain1 = new ChattyExecutorWrapper(new LazyExecutorWrapper(BASE));
+        final Executor chain2 = new ChattyExecutorWrapper(new LazyExecutorWrapper(BASE));
+
+        final WrapperChainShape shape = getShapeOfWrapperChain(chain1);
+        assertSame(shape, getShapeOfWrapperChain(chain2));
+        assertNotSame(shape, getShapeOfWrapperChain(new LazyExecutorWrapper(new ChattyExecutorWrapper(BASE))));
+
+        assertEquals(3, shape.length());
+        assertSame(ChattyExecutorWrapper.class, shape.classAt(0));
+        assertSame(LazyExecutorWrapper.class, shape.classAt(1));
+        assertSame(BASE.getClass(), shape.classAt(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> shape.classAt(3));
+    }
+
+    @Test
+    void adapters() {
+        final Executor adapter = createWrapperAdapter(Executor.class, BASE, new ExistedExecutorWrapper(BASE));
+        final WrapperChainShape shape = getShapeOfWrapperChain(new ChattyExecutorWrapper(adapter));
+
+        assertEquals(4, shape.length());
+        assertFalse(shape.isAdapteeAt(1));
+        assertTrue(shape.isAdapteeAt(2));
+        assertSame(ExistedExecutorWrapper.class, shape.classAt(2));
+        assertFalse(shape.isAdapteeAt(3));
+        assertEquals("WrapperChainShape[" + ChattyExecutorWrapper.class.getName() + " -> " +
+                adapter.getClass().getName() + " ~adaptee~> " + ExistedExecutorWrapper.class.getName() + " -> " +
+                BASE.getClass().getName() + "]", shape.toString());
+    }
+}
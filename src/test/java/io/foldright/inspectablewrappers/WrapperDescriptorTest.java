@@ -0,0 +1,110 @@
+package io.foldright.inspectablewrappers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.foldright.inspectablewrappers.Inspector.containsInstanceTypeOnWrapperChain;
+import static io.foldright.inspectablewrappers.Inspector.getAttachmentFromWrapperChain;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class WrapperDescriptorTest {
+    @Test
+    void endTraversalEarly() {
+        WrapperDescriptor.register(DescribedWrapper.class,
+                WrapperDescriptor.of(Arrays.asList(CountingWrapper.class, Base.class), Collections.emptySet()));
+
+        final AtomicInteger unwrapped = new AtomicInteger();
+        final CountingWrapper counting = new CountingWrapper(new CountingWrapper(new Base(), unwrapped), unwrapped);
+        final DescribedWrapper chain = new DescribedWrapper(counting);
+        chain.setAttachment_("k", "v");
+
+        assertEquals("v", getAttachmentFromWrapperChain(chain, "k"));
+        assertNull(getAttachmentFromWrapperChain(chain, "absent"));
+        assertFalse(containsInstanceTypeOnWrapperChain(chain, Runnable.class));
+        assertEquals(0, unwrapped.get());
+
+        // the declared types below need the traversal
+        assertTrue(containsInstanceTypeOnWrapperChain(chain, CountingWrapper.class));
+        assertTrue(containsInstanceTypeOnWrapperChain(chain, Executor.class));
+    }
+
+    @Test
+    void lookup() {
+        assertNull(WrapperDescriptor.lookup(CountingWrapper.class));
+
+        final WrapperDescriptor descriptor = WrapperDescriptor.noAttachmentBelow();
+        assertTrue(descriptor.mayContainInstanceTypeBelow(Object.class));
+        assertFalse(descriptor.mayContainAttachmentBelow("k"));
+
+        assertThrows(NullPointerException.class,
+                () -> WrapperDescriptor.of(Collections.singleton(null), null));
+    }
+
+    @Test
+    void unregister() {
+        final WrapperDescriptor descriptor = WrapperDescriptor.noAttachmentBelow();
+        WrapperDescriptor.register(Base.class, descriptor);
+        assertSame(descriptor, WrapperDescriptor.lookup(Base.class));
+
+        assertTrue(WrapperDescriptor.unregister(Base.class));
+        assertNull(WrapperDescriptor.lookup(Base.class));
+        assertFalse(WrapperDescriptor.unregister(Base.class));
+
+        assertThrows(NullPointerException.class, () -> WrapperDescriptor.unregister(null));
+    }
+
+    private static final class Base implements Executor {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    }
+
+    private static class DescribedWrapper extends AttachableDelegate<String, String> implements Executor, Wrapper<Executor> {
+        private final Executor executor;
+
+        DescribedWrapper(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            return executor;
+        }
+    }
+
+    private static class CountingWrapper implements Executor, Wrapper<Executor> {
+        private final Executor executor;
+        private final AtomicInteger unwrapped;
+
+        CountingWrapper(Executor executor, AtomicInteger unwrapped) {
+            this.executor = executor;
+            this.unwrapped = unwrapped;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            unwrapped.incrementAndGet();
+            return executor;
+        }
+    }
+}
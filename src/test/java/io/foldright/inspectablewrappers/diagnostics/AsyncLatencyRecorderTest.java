@@ -0,0 +1,168 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.diagnostics.AsyncLatencyRecorder.LayerLatency;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static io.foldright.inspectablewrappers.Inspector.getAttachmentFromWrapperChain;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class AsyncLatencyRecorderTest {
+    @Test
+    void histogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(50));
+
+        for (int i = 1; i <= 100; i++) histogram.record(i * 1000L);
+        histogram.record(-1);
+        assertEquals(101, histogram.getCount());
+        assertEquals(5050_000L, histogram.getTotalNanos());
+        assertEquals(100_000L, histogram.getMaxNanos());
+        assertEquals(1, histogram.getBucketCounts()[0]);
+
+        final long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 50_000 && p50 < 100_000, () -> "p50: " + p50);
+        assertEquals(100_000L, histogram.getPercentileNanos(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(101));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test
+    void attributeLayers() {
+        final List<CompletableFuture<String>> pending = new ArrayList<>();
+        final AsyncService base = request -> {
+            final CompletableFuture<String> f = new CompletableFuture<>();
+            pending.add(f);
+            return f;
+        };
+        final RecordedServiceWrapper inner = new RecordedServiceWrapper(base);
+        final RecordedServiceWrapper outer = new RecordedServiceWrapper(new PlainServiceWrapper(inner));
+
+        final CompletableFuture<String> result = outer.call("r");
+        assertEquals(1, outer.recorder.getSubmissionHistogram().getCount());
+        // the completion is not recorded before the stage completes
+        assertEquals(0, outer.recorder.getCompletionHistogram().getCount());
+        assertEquals(0, inner.recorder.getCompletionHistogram().getCount());
+
+        pending.get(0).complete("done");
+        assertEquals("done", result.join());
+        assertEquals(1, outer.recorder.getCompletionHistogram().getCount());
+        assertEquals(1, inner.recorder.getCompletionHistogram().getCount());
+
+        // the end-to-end latency, recorded by the outermost recorder
+        assertSame(outer.recorder, getAttachmentFromWrapperChain(outer, AsyncLatencyRecorder.ATTACHMENT_KEY));
+
+        final List<LayerLatency> layers = AsyncLatencyRecorder.attributeLatencyOfWrapperChain(outer);
+        assertEquals(2, layers.size());
+        assertSame(outer, layers.get(0).getLayer());
+        assertSame(inner.recorder, layers.get(1).getRecorder());
+        assertEquals(layers.get(0).getMeanNanos() - layers.get(1).getMeanNanos(), layers.get(0).getMeanSelfNanos());
+        assertEquals(layers.get(1).getMeanNanos(), layers.get(1).getMeanSelfNanos());
+
+        // the completed stage is recorded at once
+        final AsyncService completed = request -> CompletableFuture.completedFuture(request);
+        final RecordedServiceWrapper direct = new RecordedServiceWrapper(completed);
+        direct.call("r3");
+        assertEquals(1, direct.recorder.getCompletionHistogram().getCount());
+    }
+
+    @Test
+    void pendingStageReturnedAsIs() {
+        final AsyncLatencyRecorder recorder = new AsyncLatencyRecorder();
+        final CompletableFuture<String> stage = new CompletableFuture<>();
+        assertSame(stage, recorder.record(System.nanoTime(), stage));
+
+        // the completion failure is not swallowed by the recording
+        final IllegalStateException failure = new IllegalStateException("boom");
+        stage.completeExceptionally(failure);
+        assertEquals(1, recorder.getCompletionHistogram().getCount());
+        final CompletionException e = assertThrows(CompletionException.class, stage::join);
+        assertSame(failure, e.getCause());
+    }
+
+    @Test
+    void adapterInterceptor() {
+        final AsyncService base = request -> CompletableFuture.completedFuture(request);
+        final AsyncLatencyRecorder recorder = new AsyncLatencyRecorder();
+        final AttachableDelegate<String, Object> attachable = new AttachableDelegate<>();
+        recorder.attachTo(attachable);
+        final AsyncService existed = base::call;
+        final AsyncService adapter = createWrapperAdapter(AsyncService.class, base, existed, attachable,
+                Collections.singletonList(recorder));
+
+        assertEquals("r", adapter.call("r").join());
+        assertEquals(1, recorder.getCompletionHistogram().getCount());
+        assertEquals(1, recorder.getSubmissionHistogram().getCount());
+        assertSame(recorder, AsyncLatencyRecorder.attributeLatencyOfWrapperChain(adapter).get(0).getRecorder());
+    }
+
+    public interface AsyncService {
+        CompletableFuture<String> call(String request);
+    }
+
+    private static final class RecordedServiceWrapper implements AsyncService, Wrapper<AsyncService>, Attachable<String, Object> {
+        private final AsyncService service;
+        private final Attachable<String, Object> attachable = new AttachableDelegate<>();
+        final AsyncLatencyRecorder recorder = new AsyncLatencyRecorder();
+
+        RecordedServiceWrapper(AsyncService service) {
+            this.service = service;
+            recorder.attachTo(this);
+        }
+
+        @Override
+        public CompletableFuture<String> call(String request) {
+            final long start = System.nanoTime();
+            return recorder.record(start, service.call(request));
+        }
+
+        @NonNull
+        @Override
+        public AsyncService unwrap_() {
+            return service;
+        }
+
+        @Override
+        public void setAttachment_(@NonNull String key, @NonNull Object value) {
+            attachable.setAttachment_(key, value);
+        }
+
+        @Override
+        public Object getAttachment_(@NonNull String key) {
+            return attachable.getAttachment_(key);
+        }
+    }
+
+    private static final class PlainServiceWrapper implements AsyncService, Wrapper<AsyncService> {
+        private final AsyncService service;
+
+        PlainServiceWrapper(AsyncService service) {
+            this.service = service;
+        }
+
+        @Override
+        public CompletableFuture<String> call(String request) {
+            return service.call(request);
+        }
+
+        @NonNull
+        @Override
+        public AsyncService unwrap_() {
+            return service;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import io.foldright.demo.integration.ExistedExecutorWrapper;
+import io.foldright.inspectablewrappers.diagnostics.FootprintReporter.LayerFootprint;
+import io.foldright.inspectablewrappers.diagnostics.FootprintReporter.TypeFootprint;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class FootprintReporterTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void layers() {
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(BASE);
+        lazy.setAttachment_("busy", "very, very busy!");
+        final FootprintReporter reporter = new FootprintReporter();
+
+        final List<LayerFootprint> layers = reporter.addWrapperChain(new ChattyExecutorWrapper(lazy));
+        assertEquals(3, layers.size());
+        assertSame(ChattyExecutorWrapper.class, layers.get(0).getInstanceType());
+        for (LayerFootprint f : layers) {
+            assertTrue(f.getShallowSize() > 0);
+            assertTrue(f.getRetainedSize() >= f.getShallowSize());
+        }
+        // the underlying layer is not retained by the outer layer
+        assertEquals(layers.get(0).getShallowSize(), layers.get(0).getRetainedSize());
+        assertTrue(layers.get(1).getAttachmentsSize() > 0);
+        assertEquals(0, layers.get(0).getAttachmentsSize());
+    }
+
+    @Test
+    void maxObjectsPerLayer() {
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(BASE);
+        for (int i = 0; i < 100; i++) lazy.setAttachment_("k" + i, "v" + i);
+        final Executor chain = new ChattyExecutorWrapper(lazy);
+
+        final LayerFootprint full = new FootprintReporter().addWrapperChain(chain).get(1);
+        assertFalse(full.isTruncated());
+
+        final LayerFootprint truncated = new FootprintReporter(10).addWrapperChain(chain).get(1);
+        assertTrue(truncated.isTruncated());
+        assertTrue(truncated.getRetainedSize() < full.getRetainedSize());
+        assertTrue(truncated.toString().contains("truncated"));
+
+        assertThrowsExactly(IllegalArgumentException.class, () -> new FootprintReporter(0));
+    }
+
+    @Test
+    void adapterAndAggregation() {
+        final FootprintReporter reporter = new FootprintReporter();
+        for (int i = 0; i < 3; i++) {
+            final AttachableDelegate<String, String> attachable = new AttachableDelegate<>();
+            attachable.setAttachment_("k", "v" + i);
+            final Executor adapter = createWrapperAdapter(Executor.class, BASE, new ExistedExecutorWrapper(BASE), attachable);
+
+            final List<LayerFootprint> layers = reporter.addWrapperChain(new ChattyExecutorWrapper(adapter));
+            assertEquals(4, layers.size());
+            assertTrue(layers.get(1).isAdapterProxy());
+            assertTrue(layers.get(1).getAttachmentsSize() > 0);
+            assertTrue(layers.get(2).isAdaptee());
+            // the shared base is measured only once
+            if (i > 0) assertEquals(0, layers.get(3).getRetainedSize());
+        }
+
+        final List<TypeFootprint> types = reporter.getTypeFootprints();
+        assertEquals(4, types.size());
+        TypeFootprint chatty = types.stream().filter(t -> t.getInstanceType() == ChattyExecutorWrapper.class)
+                .findFirst().get();
+        assertEquals(3, chatty.getInstanceCount());
+        assertTrue(reporter.getTotalRetainedSize() > 0);
+        assertTrue(reporter.toString().contains("Proxy(java.util.concurrent.Executor"));
+    }
+}
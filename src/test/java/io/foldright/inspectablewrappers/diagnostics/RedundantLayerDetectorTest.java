@@ -0,0 +1,90 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import io.foldright.demo.integration.ExistedExecutorWrapper;
+import io.foldright.inspectablewrappers.diagnostics.RedundantLayerDetector.RedundantLayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.*;
+import static io.foldright.inspectablewrappers.ScopedAttachments.runWithAttachment;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class RedundantLayerDetectorTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void detect() {
+        final Executor adapter = createWrapperAdapter(Executor.class, new LazyExecutorWrapper(BASE),
+                new ExistedExecutorWrapper(BASE));
+        final Executor chain = new ChattyExecutorWrapper(new ChattyExecutorWrapper(
+                new LazyExecutorWrapper(createWrapperAdapter(Executor.class, adapter, new ExistedExecutorWrapper(BASE)))));
+
+        final List<RedundantLayer> layers = new RedundantLayerDetector(0).detect(chain);
+        assertEquals(3, layers.size());
+
+        assertEquals(1, layers.get(0).getIndex());
+        assertSame(ChattyExecutorWrapper.class, layers.get(0).getLayerClass());
+        assertEquals(0, layers.get(0).getFirstIndex());
+        assertTrue(layers.get(0).isConsecutive());
+
+        // the adapter layers are typed by the adaptees
+        assertEquals(4, layers.get(1).getIndex());
+        assertSame(ExistedExecutorWrapper.class, layers.get(1).getLayerClass());
+        assertEquals(3, layers.get(1).getFirstIndex());
+        assertTrue(layers.get(1).isConsecutive());
+
+        assertEquals(5, layers.get(2).getIndex());
+        assertSame(LazyExecutorWrapper.class, layers.get(2).getLayerClass());
+        assertEquals(2, layers.get(2).getFirstIndex());
+        assertFalse(layers.get(2).isConsecutive());
+
+        // the chain of depth 6 is not deeper than the threshold
+        assertTrue(new RedundantLayerDetector(6).detect(chain).isEmpty());
+        assertEquals(3, new RedundantLayerDetector(5).detect(chain).size());
+        assertTrue(new RedundantLayerDetector(0).detect(new ChattyExecutorWrapper(BASE)).isEmpty());
+        assertTrue(new RedundantLayerDetector(0).detect(BASE).isEmpty());
+    }
+
+    @Test
+    void wrapIfAbsent() {
+        Executor chain = BASE;
+        for (int i = 0; i < 3; i++) {
+            chain = wrapIfAbsentOnWrapperChain(chain, ChattyExecutorWrapper.class, ChattyExecutorWrapper::new);
+            chain = wrapIfAttachmentAbsentOnWrapperChain(chain, "busy", e -> {
+                final LazyExecutorWrapper lazy = new LazyExecutorWrapper(e);
+                lazy.setAttachment_("busy", "very, very busy!");
+                return lazy;
+            });
+        }
+        assertEquals(2, getDepthOfWrapperChain(chain));
+        assertTrue(new RedundantLayerDetector(0).detect(chain).isEmpty());
+
+        assertThrows(NullPointerException.class, () -> wrapIfAbsentOnWrapperChain(BASE, Executor.class, null));
+        assertThrows(NullPointerException.class, () -> wrapIfAbsentOnWrapperChain(BASE, String.class, e -> null));
+    }
+
+    @Test
+    void wrapIfAttachmentAbsentIgnoresScope() {
+        runWithAttachment("busy", "scoped busy", () -> {
+            final Executor chain = wrapIfAttachmentAbsentOnWrapperChain(BASE, "busy", e -> {
+                final LazyExecutorWrapper lazy = new LazyExecutorWrapper(e);
+                lazy.setAttachment_("busy", "very, very busy!");
+                return lazy;
+            });
+            // the scoped binding is not a layer on the wrapper chain
+            assertEquals(1, getDepthOfWrapperChain(chain));
+            assertEquals("very, very busy!", getAttachmentFromWrapperChain(chain, "busy"));
+        });
+    }
+
+    @Test
+    void invalidThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new RedundantLayerDetector(-1));
+    }
+}
@@ -0,0 +1,73 @@
+package io.foldright.inspectablewrappers.diagnostics;
+
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class WrapperChainRegistryTest {
+    @Test
+    void registryOverJmx() throws Exception {
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(Runnable::run);
+        lazy.setAttachment_("busy", "very, very busy!");
+        final Executor chain = WrapperChainRegistry.register(new ChattyExecutorWrapper(lazy));
+        assertTrue(WrapperChainRegistry.getLiveChains().contains(chain));
+
+        assertTrue(WrapperChainRegistry.registerMBean());
+        assertFalse(WrapperChainRegistry.registerMBean());
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(WrapperChainRegistry.OBJECT_NAME);
+
+            assertTrue((Integer) server.getAttribute(name, "LiveChainCount") >= 1);
+            final String[] chains = (String[]) server.getAttribute(name, "Chains");
+            final String expected = ChattyExecutorWrapper.class.getName() + " -> " + LazyExecutorWrapper.class.getName();
+            assertTrue(containsLine(chains, expected));
+
+            final String[] attachments = (String[]) server.invoke(name, "getAttachments",
+                    new Object[]{"busy"}, new String[]{String.class.getName()});
+            assertTrue(containsLine(attachments, ": very, very busy!"));
+        } finally {
+            assertTrue(WrapperChainRegistry.unregisterMBean());
+        }
+
+        assertTrue(WrapperChainRegistry.unregister(chain));
+        assertFalse(WrapperChainRegistry.unregister(chain));
+        assertFalse(WrapperChainRegistry.getLiveChains().contains(chain));
+    }
+
+    @Test
+    void clearedReferencesDrained() throws Exception {
+        WrapperChainRegistry.getLiveChains();
+        final int before = WrapperChainRegistry.getReferenceCount();
+
+        for (int i = 0; i < 100; i++) WrapperChainRegistry.register(new ChattyExecutorWrapper(Runnable::run));
+        assertTrue(WrapperChainRegistry.getReferenceCount() >= before + 100);
+
+        // the cleared references are drained on read, without waiting for more registrations
+        for (int i = 0; i < 100 && WrapperChainRegistry.getReferenceCount() > before; i++) {
+            System.gc();
+            Thread.sleep(10);
+            WrapperChainRegistry.getLiveChains();
+        }
+        assertTrue(WrapperChainRegistry.getReferenceCount() <= before);
+    }
+
+    @Test
+    void brokenChain() {
+        final String desc = WrapperChainRegistry.describeChain(new ChattyExecutorWrapper(null));
+        assertTrue(desc.contains("<broken wrapper chain: java.lang.NullPointerException"));
+    }
+
+    private static boolean containsLine(String[] lines, String part) {
+        for (String line : lines) if (line.contains(part)) return true;
+        return false;
+    }
+}
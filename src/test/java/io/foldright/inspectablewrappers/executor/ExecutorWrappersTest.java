@@ -0,0 +1,212 @@
+package io.foldright.inspectablewrappers.executor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.foldright.inspectablewrappers.Inspector.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ExecutorWrappersTest {
+    @Test
+    void inspectAndTuneLayers() {
+        final Executor base = Runnable::run;
+        final Executor chain = new MetricsExecutorWrapper(
+                new LoadSheddingExecutorWrapper(
+                        new BatchingExecutorWrapper(
+                                new VirtualThreadExecutorWrapper(base), 16), 100));
+
+        verifyWrapperChainContracts(chain, Executor.class);
+        assertSame(base, getBaseOfWrapperChain(chain));
+        assertEquals(5, getInstancesOfWrapperChain(chain).size());
+
+        LoadSheddingExecutorWrapper shedding = getFirstInstanceOfTypeOnWrapperChain(
+                chain, LoadSheddingExecutorWrapper.class).map(LoadSheddingExecutorWrapper.class::cast).get();
+        shedding.setMaxPendingTasks(42);
+        assertEquals(42, shedding.getMaxPendingTasks());
+
+        shedding.setAttachment_("owner", "ops");
+        assertEquals("ops", getAttachmentFromWrapperChain(chain, "owner"));
+
+        assertThrowsExactly(IllegalArgumentException.class, () -> shedding.setMaxPendingTasks(0));
+    }
+
+    @Test
+    void batching() {
+        final List<Runnable> submitted = new ArrayList<>();
+        final BatchingExecutorWrapper batching = new BatchingExecutorWrapper(submitted::add, 2);
+
+        final AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < 5; i++) batching.execute(counter::incrementAndGet);
+        // only one batch is scheduled until it is run
+        assertEquals(1, submitted.size());
+        assertEquals(5, batching.getPendingTaskCount());
+
+        while (!submitted.isEmpty()) submitted.remove(0).run();
+        assertEquals(5, counter.get());
+        assertEquals(0, batching.getPendingTaskCount());
+    }
+
+    @Test
+    void batching_taskThrows() {
+        final List<Runnable> submitted = new ArrayList<>();
+        final BatchingExecutorWrapper batching = new BatchingExecutorWrapper(submitted::add, 10);
+
+        final AtomicInteger counter = new AtomicInteger();
+        batching.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        batching.execute(counter::incrementAndGet);
+
+        assertThrowsExactly(IllegalStateException.class, () -> submitted.remove(0).run());
+        // the remaining task is scheduled in the next batch
+        submitted.remove(0).run();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void batching_rejected() {
+        final List<Runnable> submitted = new ArrayList<>();
+        final AtomicBoolean rejecting = new AtomicBoolean(true);
+        final BatchingExecutorWrapper batching = new BatchingExecutorWrapper(command -> {
+            if (rejecting.get()) throw new RejectedExecutionException("rejected");
+            submitted.add(command);
+        }, 10);
+
+        final AtomicInteger counter = new AtomicInteger();
+        final Runnable task = counter::incrementAndGet;
+        assertThrowsExactly(RejectedExecutionException.class, () -> batching.execute(task));
+        // the rejected task is removed
+        assertEquals(0, batching.getPendingTaskCount());
+
+        // the retried task runs once
+        rejecting.set(false);
+        batching.execute(task);
+        assertEquals(1, batching.getPendingTaskCount());
+        while (!submitted.isEmpty()) submitted.remove(0).run();
+        assertEquals(1, counter.get());
+        assertEquals(0, batching.getPendingTaskCount());
+    }
+
+    @Test
+    void batching_rejectedWhileOtherThreadSubmits() throws Exception {
+        final CountDownLatch rejecting = new CountDownLatch(1);
+        final CountDownLatch otherSubmitted = new CountDownLatch(1);
+        final BatchingExecutorWrapper batching = new BatchingExecutorWrapper(command -> {
+            rejecting.countDown();
+            try {
+                otherSubmitted.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RejectedExecutionException("rejected");
+        }, 10);
+
+        final AtomicInteger counter = new AtomicInteger();
+        final CompletableFuture<Throwable> rejected = CompletableFuture.supplyAsync(() -> {
+            try {
+                batching.execute(() -> counter.addAndGet(100));
+                return null;
+            } catch (RejectedExecutionException e) {
+                return e;
+            }
+        });
+
+        // submitted while the drain submission of the other thread is pending, so not scheduled by this thread
+        rejecting.await();
+        batching.execute(counter::incrementAndGet);
+        otherSubmitted.countDown();
+
+        assertInstanceOf(RejectedExecutionException.class, rejected.get(1, TimeUnit.SECONDS));
+        // the task of this thread is not stranded, but run by the rejected thread
+        assertEquals(1, counter.get());
+        assertEquals(0, batching.getPendingTaskCount());
+    }
+
+    @Test
+    void batching_nextBatchRejected() {
+        final List<Runnable> submitted = new ArrayList<>();
+        final AtomicBoolean rejecting = new AtomicBoolean(false);
+        final BatchingExecutorWrapper batching = new BatchingExecutorWrapper(command -> {
+            if (rejecting.get()) throw new RejectedExecutionException("rejected");
+            submitted.add(command);
+        }, 2);
+
+        final AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < 5; i++) batching.execute(counter::incrementAndGet);
+        assertEquals(1, submitted.size());
+
+        // the next batches are run by the batch thread, the rejection is not relayed
+        rejecting.set(true);
+        submitted.remove(0).run();
+        assertEquals(5, counter.get());
+        assertEquals(0, batching.getPendingTaskCount());
+        assertTrue(submitted.isEmpty());
+
+        // the scheduled flag is released
+        rejecting.set(false);
+        batching.execute(counter::incrementAndGet);
+        assertEquals(1, submitted.size());
+    }
+
+    @Test
+    void loadShedding() {
+        final List<Runnable> submitted = new ArrayList<>();
+        final LoadSheddingExecutorWrapper shedding = new LoadSheddingExecutorWrapper(submitted::add, 2);
+
+        shedding.execute(() -> {});
+        shedding.execute(() -> {});
+        assertThrowsExactly(RejectedExecutionException.class, () -> shedding.execute(() -> {}));
+        assertEquals(1, shedding.getRejectedTaskCount());
+        assertEquals(2, shedding.getPendingTaskCount());
+
+        submitted.remove(0).run();
+        assertEquals(1, shedding.getPendingTaskCount());
+        shedding.execute(() -> {});
+        assertEquals(2, shedding.getPendingTaskCount());
+    }
+
+    @Test
+    void metrics() {
+        final MetricsExecutorWrapper metrics = new MetricsExecutorWrapper(Runnable::run);
+        metrics.execute(() -> {});
+        assertThrowsExactly(IllegalStateException.class, () -> metrics.execute(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(2, metrics.getSubmittedTaskCount());
+        assertEquals(1, metrics.getCompletedTaskCount());
+        assertEquals(1, metrics.getFailedTaskCount());
+        assertEquals(0, metrics.getRejectedTaskCount());
+
+        final MetricsExecutorWrapper rejecting = new MetricsExecutorWrapper(command -> {
+            throw new RejectedExecutionException();
+        });
+        assertThrowsExactly(RejectedExecutionException.class, () -> rejecting.execute(() -> {}));
+        assertEquals(1, rejecting.getRejectedTaskCount());
+
+        metrics.reset();
+        assertEquals(0, metrics.getSubmittedTaskCount());
+    }
+
+    @Test
+    void virtualThread() throws Exception {
+        final VirtualThreadExecutorWrapper vt = new VirtualThreadExecutorWrapper(Runnable::run);
+        assertEquals(VirtualThreadExecutorWrapper.isVirtualThreadSupported(), vt.isOffloading());
+
+        final CompletableFuture<Thread> thread = new CompletableFuture<>();
+        vt.execute(() -> thread.complete(Thread.currentThread()));
+        assertEquals(vt.isOffloading(), thread.get(1, TimeUnit.SECONDS) != Thread.currentThread());
+
+        vt.setOffloadingEnabled(false);
+        assertFalse(vt.isOffloading());
+        final CompletableFuture<Thread> fallback = new CompletableFuture<>();
+        vt.execute(() -> fallback.complete(Thread.currentThread()));
+        assertSame(Thread.currentThread(), fallback.get());
+    }
+}
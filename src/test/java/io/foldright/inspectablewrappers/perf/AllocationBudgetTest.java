@@ -0,0 +1,127 @@
+package io.foldright.inspectablewrappers.perf;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import io.foldright.inspectablewrappers.utils.WrapperAdapterFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.*;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * The zero-allocation regression gate of the {@link io.foldright.inspectablewrappers.Inspector} hot paths,
+ * and the allocation budgets of the adapter creation and the proxy dispatch of
+ * {@link io.foldright.inspectablewrappers.utils.WrapperAdapterUtils}.
+ * <p>
+ * Measures the bytes allocated per call by {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}
+ * after warmup; skipped if the JVM does not support the thread allocated memory measurement.
+ */
+class AllocationBudgetTest {
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int MEASURED_CALLS = 100_000;
+    /**
+     * The bytes per call tolerated above the budget, for the one-off allocations(e.g. by the JIT deoptimization);
+     * far less than the smallest object, so a per-call allocation is never tolerated.
+     */
+    private static final double TOLERANCE = 1;
+
+    private static final Executor BASE = Runnable::run;
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private static Object sink;
+
+    @BeforeAll
+    static void checkSupported() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean,
+                "com.sun.management.ThreadMXBean is not available");
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "thread allocated memory is not supported");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void inspectorQueriesAreAllocationFree() {
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(BASE);
+        lazy.setAttachment_("busy", "very, very busy!");
+        // the attachment queries on the adapter proxies allocate the argument array of the proxy dispatch,
+        // see adapterBudgets
+        final Executor chain = new ChattyExecutorWrapper(new ChattyExecutorWrapper(lazy));
+        final Executor chainWithAdapter = new ChattyExecutorWrapper(createWrapperAdapter(
+                Executor.class, chain, new ForwardingExecutor(BASE)));
+
+        assertBudget("containsInstanceTypeOnWrapperChain(hit)", 0,
+                () -> sink = containsInstanceTypeOnWrapperChain(chainWithAdapter, LazyExecutorWrapper.class));
+        assertBudget("containsInstanceTypeOnWrapperChain(miss)", 0,
+                () -> sink = containsInstanceTypeOnWrapperChain(chainWithAdapter, String.class));
+        assertBudget("getAttachmentFromWrapperChain(hit)", 0,
+                () -> sink = getAttachmentFromWrapperChain(chain, "busy"));
+        assertBudget("getAttachmentFromWrapperChain(miss)", 0,
+                () -> sink = getAttachmentFromWrapperChain(chain, "absent"));
+        assertBudget("unwrap", 0, () -> sink = unwrap(chainWithAdapter));
+        assertBudget("isWrapper", 0, () -> sink = isWrapper(chain));
+    }
+
+    @Test
+    void adapterBudgets() {
+        final ForwardingExecutor existed = new ForwardingExecutor(BASE);
+        final Executor adapter = createWrapperAdapter(Executor.class, BASE, existed, new AttachableDelegate<>());
+        final Runnable task = () -> {
+        };
+
+        assertBudget("proxy dispatch of unwrap_", 0, () -> sink = ((Wrapper<?>) adapter).unwrap_());
+        assertBudget("proxy dispatch of adaptee_", 0, () -> sink = ((WrapperAdapter<?>) adapter).adaptee_());
+        // the argument array created by the proxy class
+        assertBudget("proxy dispatch of biz method", 32, () -> adapter.execute(task));
+        assertBudget("proxy dispatch of getAttachment_", 32, () -> sink = getAttachmentFromWrapperChain(adapter, "k"));
+
+        // the proxy instance, the invocation handler, and the constructor argument array
+        final WrapperAdapterFactory<Executor> factory = WrapperAdapterFactory.newFactory(Executor.class);
+        assertBudget("WrapperAdapterFactory#createWrapperAdapter", 128,
+                () -> sink = factory.createWrapperAdapter(BASE, existed));
+        // plus the proxy interfaces array and the proxy class lookup of java.lang.reflect.Proxy
+        assertBudget("WrapperAdapterUtils#createWrapperAdapter", 512,
+                () -> sink = createWrapperAdapter(Executor.class, BASE, existed));
+    }
+
+    private static void assertBudget(String name, int budgetBytesPerCall, Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) call.run();
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) call.run();
+        final double bytesPerCall = (threadMXBean.getThreadAllocatedBytes(threadId) - before) / (double) MEASURED_CALLS;
+
+        assertTrue(bytesPerCall <= budgetBytesPerCall + TOLERANCE, () -> String.format(
+                "%s allocates %.2f bytes per call, exceeds the budget %d bytes", name, bytesPerCall, budgetBytesPerCall));
+    }
+
+    /**
+     * The existed wrapper adapted by the adapter proxies, does not print like the demo one.
+     */
+    private static final class ForwardingExecutor implements Executor {
+        private final Executor executor;
+
+        ForwardingExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package io.foldright.inspectablewrappers.perf;
+
+import io.foldright.inspectablewrappers.Inspector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * The cold-start and class-initialization latency suite, runs {@link ColdStartProbe} in the forked JVMs
+ * and reports the median first-call latency and the loaded classes per phase, in the modes:
+ * <ul>
+ * <li>{@code default}: the plain JVM
+ * <li>{@code prewarmed}: the probe warms up the same calls at startup before the first request
+ * <li>{@code cds}: the JVM with the dynamic CDS archive dumped by a training run, JDK 13+ ONLY
+ * </ul>
+ * The classpath of the forked JVMs is the jars packaged from the classes of {@link Inspector}
+ * and the probe, because CDS does not archive the classes from the directories.
+ * <p>
+ * The suite is skipped by the normal test runs, run it by the maven profile {@code bench}:
+ * {@code ./mvnw -Pbench test -Dtest=ColdStartLatencyTest}
+ * <p>
+ * Optional: {@code -Dbench.coldStartRuns=<N>}(default: 5) forked runs per mode.
+ */
+class ColdStartLatencyTest {
+    private static final List<String> PHASES = Arrays.asList("prewarm", "inspector", "createAdapter", "proxyDispatch");
+
+    @Test
+    @EnabledIfSystemProperty(named = "bench.enabled", matches = "true")
+    void coldStartLatency() throws Exception {
+        final int runs = Integer.getInteger("bench.coldStartRuns", 5);
+        final Path workDir = Files.createTempDirectory("cold-start");
+        final String classpath = packageClasspath(workDir);
+
+        final Map<String, List<Map<String, long[]>>> results = new LinkedHashMap<>();
+        results.put("default", runProbe(runs, classpath, Collections.emptyList(), false));
+        results.put("prewarmed", runProbe(runs, classpath, Collections.emptyList(), true));
+
+        if (isCdsDynamicArchiveSupported()) {
+            final String archive = workDir.resolve("probe.jsa").toString();
+            runProbe(1, classpath, Collections.singletonList("-XX:ArchiveClassesAtExit=" + archive), false);
+            assertTrue(new File(archive).isFile(), "CDS archive is not dumped: " + archive);
+            results.put("cds", runProbe(runs, classpath, Collections.singletonList("-XX:SharedArchiveFile=" + archive), false));
+        } else {
+            System.out.println("skip the cds mode, the dynamic CDS archive needs JDK 13+");
+        }
+
+        report(runs, results);
+    }
+
+    /**
+     * Runs the probe in the forked JVMs, returns the metrics per run:
+     * phase(and {@code process}) -> {@code [nanos, loaded classes]}.
+     */
+    private static List<Map<String, long[]>> runProbe(int runs, String classpath, List<String> jvmOptions,
+                                                      boolean prewarm) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xshare:auto");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(ColdStartProbe.class.getName());
+        if (prewarm) command.add("prewarm");
+
+        final List<Map<String, long[]>> results = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            final long start = System.nanoTime();
+            final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            final Map<String, long[]> metrics = new LinkedHashMap<>();
+            final List<String> output = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line; (line = reader.readLine()) != null; ) {
+                    output.add(line);
+                    final String[] parts = line.split(" ");
+                    if (parts.length == 3 && PHASES.contains(parts[0])) {
+                        metrics.put(parts[0], new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+                    }
+                }
+            }
+            assertEquals(0, process.waitFor(), () -> "probe failed: " + command + "\n" + String.join("\n", output));
+            metrics.put("process", new long[]{System.nanoTime() - start, 0});
+
+            assertTrue(metrics.keySet().containsAll(PHASES.subList(prewarm ? 0 : 1, PHASES.size())),
+                    () -> "probe reports incomplete phases: " + output);
+            results.add(metrics);
+        }
+        return results;
+    }
+
+    private static void report(int runs, Map<String, List<Map<String, long[]>>> results) {
+        System.out.printf("%n== cold start, median of %d forked runs: latency(us) / loaded classes ==%n%-14s", runs, "phase");
+        for (String mode : results.keySet()) System.out.printf(" %22s", mode);
+        System.out.println();
+
+        final List<String> rows = new ArrayList<>(PHASES);
+        rows.add("process");
+        for (String phase : rows) {
+            System.out.printf("%-14s", phase);
+            for (List<Map<String, long[]>> modeResults : results.values()) {
+                if (!modeResults.get(0).containsKey(phase)) {
+                    System.out.printf(" %22s", "-");
+                    continue;
+                }
+                final long micros = median(modeResults, phase, 0) / 1000;
+                if ("process".equals(phase)) System.out.printf(" %22s", micros + " us");
+                else System.out.printf(" %22s", micros + " us / " + median(modeResults, phase, 1));
+            }
+            System.out.println();
+        }
+    }
+
+    private static long median(List<Map<String, long[]>> results, String phase, int index) {
+        final long[] values = results.stream().mapToLong(m -> m.get(phase)[index]).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private static boolean isCdsDynamicArchiveSupported() {
+        final String specVersion = System.getProperty("java.specification.version");
+        return !specVersion.startsWith("1.") && Integer.parseInt(specVersion) >= 13;
+    }
+
+    /**
+     * Packages the classes of {@link Inspector} and the probe to jars, returns the classpath of the jars.
+     */
+    private static String packageClasspath(Path workDir) throws Exception {
+        final Set<Path> locations = new LinkedHashSet<>();
+        locations.add(Paths.get(Inspector.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+        locations.add(Paths.get(ColdStartProbe.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+
+        final List<String> jars = new ArrayList<>();
+        int index = 0;
+        for (Path location : locations) {
+            if (!Files.isDirectory(location)) {
+                jars.add(location.toString());
+                continue;
+            }
+            final Path jar = workDir.resolve("classes-" + index++ + ".jar");
+            jarDirectory(location, jar);
+            jars.add(jar.toString());
+        }
+        return String.join(File.pathSeparator, jars);
+    }
+
+    private static void jarDirectory(Path dir, Path jar) throws IOException {
+        final List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+            for (Path file : files) {
+                jarOut.putNextEntry(new JarEntry(dir.relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, jarOut);
+                jarOut.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.foldright.inspectablewrappers.perf;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.inspectablewrappers.Inspector;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.utils.WrapperAdapterUtils;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executor;
+
+
+/**
+ * The main class run in the forked JVMs by {@link ColdStartLatencyTest}, measures the first calls of
+ * the {@code inspectable wrappers}; prints a line {@code <phase> <nanos> <loaded classes>} per phase.
+ * <p>
+ * The phases:
+ * <ul>
+ * <li>{@code inspector}: the first {@link Inspector} query, the class initialization of {@link Inspector}
+ * <li>{@code createAdapter}: the first {@link WrapperAdapterUtils#createWrapperAdapter(Class, Object, Object)},
+ *     the first {@link java.lang.reflect.Proxy} class generation
+ * <li>{@code proxyDispatch}: the first dispatch of the adapter proxy, the class initialization of
+ *     {@code WrapperAdapterProxyRelatedMethod}, which runs reflection
+ * </ul>
+ * With the argument {@code prewarm}, the same calls are made on the throwaway instances before the phases,
+ * as a service does at startup before serving the first request; the cost is reported as phase {@code prewarm}.
+ */
+public final class ColdStartProbe {
+    public static void main(String[] args) {
+        final boolean prewarm = args.length > 0 && "prewarm".equals(args[0]);
+        // loads the management classes before the measurement
+        final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        final Executor base = Runnable::run;
+        final ProbeWrapper wrapper = new ProbeWrapper(base);
+        final ProbeExecutor existed = new ProbeExecutor(base);
+
+        if (prewarm) {
+            final long start = System.nanoTime(), classes = classLoading.getTotalLoadedClassCount();
+            warmUp(new ProbeWrapper(base), new ProbeExecutor(base));
+            report("prewarm", start, classes, classLoading);
+        }
+
+        long start = System.nanoTime(), classes = classLoading.getTotalLoadedClassCount();
+        Inspector.containsInstanceTypeOnWrapperChain(wrapper, Runnable.class);
+        report("inspector", start, classes, classLoading);
+
+        start = System.nanoTime();
+        classes = classLoading.getTotalLoadedClassCount();
+        final Executor adapter = WrapperAdapterUtils.createWrapperAdapter(Executor.class, base, existed);
+        report("createAdapter", start, classes, classLoading);
+
+        start = System.nanoTime();
+        classes = classLoading.getTotalLoadedClassCount();
+        ((Wrapper<?>) adapter).unwrap_();
+        report("proxyDispatch", start, classes, classLoading);
+    }
+
+    private static void warmUp(ProbeWrapper wrapper, ProbeExecutor existed) {
+        Inspector.containsInstanceTypeOnWrapperChain(wrapper, Runnable.class);
+        final Executor adapter = WrapperAdapterUtils.createWrapperAdapter(Executor.class, wrapper, existed);
+        ((Wrapper<?>) adapter).unwrap_();
+    }
+
+    private static void report(String phase, long startNanos, long startClasses, ClassLoadingMXBean classLoading) {
+        final long nanos = System.nanoTime() - startNanos;
+        final long classes = classLoading.getTotalLoadedClassCount() - startClasses;
+        System.out.println(phase + " " + nanos + " " + classes);
+    }
+
+    private static final class ProbeWrapper implements Executor, Wrapper<Executor> {
+        private final Executor executor;
+
+        ProbeWrapper(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            return executor;
+        }
+    }
+
+    private static final class ProbeExecutor implements Executor {
+        private final Executor executor;
+
+        ProbeExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+    }
+
+    private ColdStartProbe() {}
+}
@@ -0,0 +1,242 @@
+package io.foldright.inspectablewrappers.perf;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.demo.LazyExecutorWrapper;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.utils.AttachableDelegate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static io.foldright.inspectablewrappers.Inspector.containsInstanceTypeOnWrapperChain;
+import static io.foldright.inspectablewrappers.Inspector.getAttachmentFromWrapperChain;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * The multi-core concurrency stress tests, and the scaling benchmarks of
+ * {@link AttachableDelegate}, the traversal of the shared wrapper chains, and the adapter proxies.
+ * <p>
+ * The benchmarks are skipped by the normal test runs, run them by the maven profile {@code bench}:
+ * {@code ./mvnw -Pbench test -Dtest=ConcurrencyScalingTest}
+ */
+class ConcurrencyScalingTest {
+    private static final Executor BASE = Runnable::run;
+    private static final int KEY_COUNT = 16;
+    private static final String[] KEYS = new String[KEY_COUNT];
+
+    static {
+        for (int i = 0; i < KEY_COUNT; i++) KEYS[i] = "key-" + i;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////
+    // stress tests
+    ////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Every writer owns its keys and writes increasing values; the readers check, directly and through
+     * the wrapper chain, that no value goes backwards and no value is seen under a foreign key.
+     */
+    @Test
+    void racingAttachments() throws Exception {
+        final int writers = 4, readers = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int writes = 20_000;
+
+        final AttachableDelegate<String, Long> attachable = new AttachableDelegate<>();
+        final Executor chain = new ChattyExecutorWrapper(createWrapperAdapter(
+                Executor.class, BASE, new ForwardingExecutor(BASE), attachable));
+
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> threads = new ArrayList<>();
+        final CountDownLatch writersDone = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                for (long seq = 1; seq <= writes; seq++) {
+                    for (int k = writer; k < KEY_COUNT; k += writers) {
+                        attachable.setAttachment_(KEYS[k], encode(k, seq));
+                    }
+                }
+                writersDone.countDown();
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            final boolean throughChain = r % 2 == 0;
+            threads.add(new Thread(() -> {
+                final long[] lastSeq = new long[KEY_COUNT];
+                try {
+                    while (writing.get()) {
+                        final int k = ThreadLocalRandom.current().nextInt(KEY_COUNT);
+                        final Long value = throughChain ? getAttachmentFromWrapperChain(chain, KEYS[k])
+                                : attachable.getAttachment_(KEYS[k]);
+                        if (value == null) {
+                            assertEquals(0, lastSeq[k], "value disappeared");
+                            continue;
+                        }
+                        assertEquals(k, keyOf(value), "value of foreign key");
+                        assertTrue(seqOf(value) >= lastSeq[k], "value goes backwards");
+                        lastSeq[k] = seqOf(value);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+
+        for (Thread t : threads) t.start();
+        writersDone.await();
+        writing.set(false);
+        for (Thread t : threads) t.join();
+
+        if (failure.get() != null) fail(failure.get());
+        for (int k = 0; k < KEY_COUNT; k++) {
+            assertEquals(encode(k, writes), attachable.getAttachment_(KEYS[k]));
+        }
+    }
+
+    private static long encode(int key, long seq) {
+        return (seq << 8) | key;
+    }
+
+    private static int keyOf(long value) {
+        return (int) (value & 0xff);
+    }
+
+    private static long seqOf(long value) {
+        return value >>> 8;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////
+    // scaling benchmarks
+    ////////////////////////////////////////////////////////////////////////////////
+
+    @Test
+    @EnabledIfSystemProperty(named = "bench.enabled", matches = "true")
+    void scalingBenchmarks() throws Exception {
+        final int maxThreads = Integer.getInteger("bench.maxThreads", Runtime.getRuntime().availableProcessors());
+        final long durationMillis = Long.getLong("bench.durationMillis", 1000);
+
+        for (int readPercent : new int[]{100, 90, 50}) {
+            final AttachableDelegate<String, String> attachable = new AttachableDelegate<>();
+            for (String key : KEYS) attachable.setAttachment_(key, key);
+            runScaling("AttachableDelegate, " + readPercent + "% reads", maxThreads, durationMillis,
+                    () -> attachmentOp(attachable, readPercent));
+        }
+
+        final LazyExecutorWrapper lazy = new LazyExecutorWrapper(BASE);
+        lazy.setAttachment_("busy", "very, very busy!");
+        final Executor sharedChain = new ChattyExecutorWrapper(new ChattyExecutorWrapper(lazy));
+        runScaling("Inspector traversal on a shared chain", maxThreads, durationMillis, () -> () -> {
+            if (!containsInstanceTypeOnWrapperChain(sharedChain, LazyExecutorWrapper.class)) throw new AssertionError();
+            if (getAttachmentFromWrapperChain(sharedChain, "busy") == null) throw new AssertionError();
+        });
+
+        final AttachableDelegate<String, String> adapterAttachable = new AttachableDelegate<>();
+        final Executor adapter = createWrapperAdapter(Executor.class, BASE,
+                new ForwardingExecutor(BASE), adapterAttachable);
+        final Runnable task = () -> {
+        };
+        for (int readPercent : new int[]{100, 50}) {
+            runScaling("WrapperAdapterUtils proxy, " + readPercent + "% execute calls", maxThreads, durationMillis,
+                    () -> () -> {
+                        if (ThreadLocalRandom.current().nextInt(100) < readPercent) adapter.execute(task);
+                        else adapterAttachOp(adapter);
+                    });
+        }
+    }
+
+    private static Runnable attachmentOp(Attachable<String, String> attachable, int readPercent) {
+        return () -> {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final String key = KEYS[random.nextInt(KEY_COUNT)];
+            if (random.nextInt(100) < readPercent) {
+                if (attachable.getAttachment_(key) == null) throw new AssertionError();
+            } else {
+                attachable.setAttachment_(key, key);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void adapterAttachOp(Executor adapter) {
+        final String key = KEYS[ThreadLocalRandom.current().nextInt(KEY_COUNT)];
+        ((Attachable<String, String>) adapter).setAttachment_(key, key);
+    }
+
+    /**
+     * Runs the operation with 1, 2, 4 ... maxThreads threads, reports the throughput scaling curve to stdout.
+     */
+    private static void runScaling(String name, int maxThreads, long durationMillis,
+                                   Supplier<Runnable> opFactory) throws InterruptedException {
+        System.out.printf("%n== %s ==%n%8s %16s %10s%n", name, "threads", "ops/s", "scaling");
+        double baseline = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            measureThroughput(threads, durationMillis / 4, opFactory); // warmup
+            final double throughput = measureThroughput(threads, durationMillis, opFactory);
+            if (threads == 1) baseline = throughput;
+            System.out.printf("%8d %16.0f %9.2fx%n", threads, throughput, throughput / baseline);
+            if (threads == maxThreads) break;
+        }
+    }
+
+    private static double measureThroughput(int threads, long durationMillis, Supplier<Runnable> opFactory)
+            throws InterruptedException {
+        final LongAdder ops = new LongAdder();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final Runnable op = opFactory.get();
+            final Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                while (running.get()) {
+                    op.run();
+                    count++;
+                }
+                ops.add(count);
+            });
+            t.start();
+            workers.add(t);
+        }
+
+        final long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(durationMillis);
+        running.set(false);
+        for (Thread t : workers) t.join();
+        return ops.sum() * 1e9 / (System.nanoTime() - begin);
+    }
+
+    /**
+     * The existed wrapper adapted by the adapter proxies, does not print like the demo one.
+     */
+    private static final class ForwardingExecutor implements Executor {
+        private final Executor executor;
+
+        ForwardingExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+    }
+}
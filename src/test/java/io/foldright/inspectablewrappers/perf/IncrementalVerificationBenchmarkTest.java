@@ -0,0 +1,57 @@
+package io.foldright.inspectablewrappers.perf;
+
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.inspectablewrappers.Inspector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import static io.foldright.inspectablewrappers.Inspector.verifyWrapperChainContractsIncrementally;
+
+
+/**
+ * The benchmark of the incremental contract verification against the full walk, by re-wrapping
+ * a verified wrapper chain with one new head; reports the best average latency of the rounds per depth.
+ * <p>
+ * The benchmark is skipped by the normal test runs, run it by the maven profile {@code bench}:
+ * {@code ./mvnw -Pbench test -Dtest=IncrementalVerificationBenchmarkTest}
+ * <p>
+ * Optional: {@code -Dbench.verifyCalls=<N>}(default: 200000) calls per round.
+ */
+class IncrementalVerificationBenchmarkTest {
+    private static final Executor BASE = Runnable::run;
+    private static final int ROUNDS = 10;
+
+    @Test
+    @EnabledIfSystemProperty(named = "bench.enabled", matches = "true")
+    void incrementalVerification() {
+        final int calls = Integer.getInteger("bench.verifyCalls", 200_000);
+
+        System.out.printf("%n== re-wrap a verified chain and verify, best of %d rounds: latency(ns) ==%n%8s %10s %10s%n",
+                ROUNDS, "depth", "full", "memo");
+        for (int depth : new int[]{2, 4, 8, 16, 32, 64}) {
+            Executor tail = BASE;
+            for (int i = 1; i < depth; i++) tail = new ChattyExecutorWrapper(tail);
+            verifyWrapperChainContractsIncrementally(tail);
+
+            final long full = measure(tail, calls, Inspector::verifyWrapperChainContracts);
+            final long memo = measure(tail, calls, Inspector::verifyWrapperChainContractsIncrementally);
+            System.out.printf("%8d %10d %10d%n", depth, full, memo);
+        }
+    }
+
+    /**
+     * Returns the best average latency of the rounds, in nanoseconds.
+     */
+    private static long measure(Executor tail, int calls, Consumer<Executor> verify) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) verify.accept(new ChattyExecutorWrapper(tail));
+            best = Math.min(best, (System.nanoTime() - start) / calls);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,148 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.foldright.inspectablewrappers.Interceptor;
+import io.foldright.inspectablewrappers.Wrapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class InterceptorChainTest {
+    @Test
+    void invokeInNestingOrder() {
+        final List<String> trace = new ArrayList<>();
+        final Executor base = command -> {
+            trace.add("base");
+            command.run();
+        };
+        final InterceptorChain<Executor> chain = InterceptorChain.of(base,
+                Arrays.asList(new TracingInterceptor("outer", trace), new TracingInterceptor("inner", trace)));
+
+        final Runnable task = () -> trace.add("task");
+        assertNull(chain.invoke(task, (e, r) -> {
+            e.execute(r);
+            return null;
+        }));
+        assertEquals(Arrays.asList("outer.before", "inner.before", "base", "task", "inner.after", "outer.after"),
+                trace);
+    }
+
+    @Test
+    void errorsSeenByEnteredInterceptors() {
+        final List<String> trace = new ArrayList<>();
+        final TracingInterceptor rejecting = new TracingInterceptor("rejecting", trace) {
+            @Override
+            public void before_(@NonNull Object request) {
+                throw new IllegalStateException("rejected");
+            }
+        };
+        final InterceptorChain<String> chain = InterceptorChain.of("base",
+                Arrays.asList(new TracingInterceptor("outer", trace), rejecting, new TracingInterceptor("inner", trace)));
+
+        final IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> chain.invoke("request", (b, r) -> b + r));
+        assertEquals("rejected", e.getMessage());
+        assertEquals(Arrays.asList("outer.before", "outer.after:rejected"), trace);
+
+        trace.clear();
+        final InterceptorChain<String> ok = InterceptorChain.of("base",
+                Collections.singletonList(new TracingInterceptor("outer", trace)));
+        assertEquals("base:request", ok.invoke("request", (b, r) -> b + ":" + r));
+        assertEquals(Arrays.asList("outer.before", "outer.after"), trace);
+    }
+
+    @Test
+    void checkedExceptionThrownSneakily() {
+        final List<String> trace = new ArrayList<>();
+        final InterceptorChain<String> chain = InterceptorChain.of("base",
+                Collections.singletonList(new TracingInterceptor("outer", trace)));
+
+        final Exception checked = new Exception("checked");
+        final UndeclaredThrowableException e = assertThrowsExactly(UndeclaredThrowableException.class,
+                () -> chain.invoke("request", (b, r) -> sneakyThrow(checked)));
+        assertSame(checked, e.getCause());
+        assertEquals(Collections.singletonList("outer.after:checked"), trace.subList(1, trace.size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R, E extends Throwable> R sneakyThrow(Throwable t) throws E {
+        throw (E) t;
+    }
+
+    @Test
+    void inspectableAsNestedWrappers() {
+        final TracingInterceptor outer = new TracingInterceptor("outer", new ArrayList<>());
+        final AttachableInterceptor inner = new AttachableInterceptor();
+        inner.setAttachment_("k", "from interceptor");
+        final Executor base = Runnable::run;
+        final InterceptorChain<Executor> chain = InterceptorChain.of(base, Arrays.asList(outer, inner));
+
+        final Object head = chain.getHeadView();
+        assertSame(chain.getStageView(0), head);
+        assertTrue(containsInstanceTypeOnWrapperChain(head, TracingInterceptor.class));
+        assertTrue(containsInstanceTypeOnWrapperChain(head, AttachableInterceptor.class));
+        assertFalse(containsInstanceTypeOnWrapperChain(head, String.class));
+        assertSame(base, getBaseOfWrapperChain(head));
+        assertEquals(Arrays.asList(chain.getStageView(0), outer, chain.getStageView(1), inner, base),
+                getInstancesOfWrapperChain(head));
+
+        assertEquals("from interceptor", getAttachmentFromWrapperChain(head, "k"));
+        chain.getStageView(1).setAttachment_("k", "from view");
+        assertEquals("from view", getAttachmentFromWrapperChain(head, "k"));
+
+        verifyWrapperChainContracts(head);
+
+        assertSame(base, InterceptorChain.of(base, Collections.emptyList()).getHeadView());
+    }
+
+    @Test
+    void invalidInterceptors() {
+        assertThrows(NullPointerException.class,
+                () -> InterceptorChain.of("base", Collections.singletonList(null)));
+        final WrapperInterceptor wrapper = new WrapperInterceptor();
+        assertThrows(IllegalArgumentException.class,
+                () -> InterceptorChain.of("base", Collections.singletonList(wrapper)));
+    }
+
+    private static class TracingInterceptor implements Interceptor<Object> {
+        private final String name;
+        private final List<String> trace;
+
+        TracingInterceptor(String name, List<String> trace) {
+            this.name = name;
+            this.trace = trace;
+        }
+
+        @Override
+        public void before_(@NonNull Object request) {
+            trace.add(name + ".before");
+        }
+
+        @Override
+        public void after_(@NonNull Object request, @Nullable Object result, @Nullable Throwable error) {
+            trace.add(name + ".after" + (error == null ? "" : ":" + error.getMessage()));
+        }
+    }
+
+    private static final class AttachableInterceptor extends AttachableDelegate<String, String>
+            implements Interceptor<Executor> {
+    }
+
+    private static final class WrapperInterceptor implements Interceptor<String>, Wrapper<String> {
+        @NonNull
+        @Override
+        public String unwrap_() {
+            return "";
+        }
+    }
+}
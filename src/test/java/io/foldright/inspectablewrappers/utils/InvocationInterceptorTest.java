@@ -0,0 +1,161 @@
+package io.foldright.inspectablewrappers.utils;
+
+import io.foldright.demo.integration.ExistedExecutorWrapper;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+import io.foldright.inspectablewrappers.utils.InvocationInterceptor.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.foldright.inspectablewrappers.Inspector.getAttachmentFromWrapperChain;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class InvocationInterceptorTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void interceptBizCalls() {
+        final List<String> events = new ArrayList<>();
+        final InvocationInterceptor outer = invocation -> {
+            events.add("outer:" + invocation.getMethod().getName());
+            return invocation.proceed();
+        };
+        final InvocationInterceptor inner = invocation -> {
+            events.add("inner:" + invocation.getAdaptee().getClass().getSimpleName());
+            return invocation.proceed();
+        };
+
+        final ExistedExecutorWrapper existed = new ExistedExecutorWrapper(BASE);
+        final AttachableDelegate<String, String> attachable = new AttachableDelegate<>();
+        attachable.setAttachment_("k", "v");
+        final Executor adapter = createWrapperAdapter(Executor.class, BASE, existed, attachable, Arrays.asList(outer, inner));
+
+        final AtomicInteger runs = new AtomicInteger();
+        adapter.execute(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+        assertEquals(Arrays.asList("outer:execute", "inner:ExistedExecutorWrapper"), events);
+
+        // the calls answered by the proxy are not intercepted
+        events.clear();
+        assertSame(BASE, ((Wrapper<?>) adapter).unwrap_());
+        assertSame(existed, ((WrapperAdapter<?>) adapter).adaptee_());
+        assertEquals("v", getAttachmentFromWrapperChain(adapter, "k"));
+        assertNotNull(adapter.toString());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void proceedTwice() {
+        final InvocationInterceptor retry = invocation -> {
+            invocation.proceed();
+            return invocation.proceed();
+        };
+        final AtomicInteger inner = new AtomicInteger();
+        final InvocationInterceptor counting = invocation -> {
+            inner.incrementAndGet();
+            return invocation.proceed();
+        };
+        final Executor adapter = createWrapperAdapter(Executor.class, BASE, new ExistedExecutorWrapper(BASE),
+                Arrays.asList(retry, counting));
+
+        final AtomicInteger runs = new AtomicInteger();
+        adapter.execute(runs::incrementAndGet);
+        assertEquals(2, inner.get());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void adapteeThrows() {
+        final IllegalStateException boom = new IllegalStateException("boom");
+        final Executor throwing = command -> {
+            throw boom;
+        };
+        final List<Throwable> seen = new ArrayList<>();
+        final InvocationInterceptor catching = invocation -> {
+            try {
+                return invocation.proceed();
+            } catch (Throwable t) {
+                seen.add(t);
+                throw t;
+            }
+        };
+        final Executor adapter = createWrapperAdapter(Executor.class, BASE, throwing,
+                Collections.singletonList(catching));
+
+        // the exception of the adaptee is not wrapped, neither in the interceptor nor for the caller
+        assertSame(boom, assertThrowsExactly(IllegalStateException.class, () -> adapter.execute(() -> {
+        })));
+        assertEquals(Collections.singletonList(boom), seen);
+    }
+
+    @Test
+    void sameExceptionWithOrWithoutInterceptors() throws Exception {
+        final Exception checked = new Exception("checked");
+        final IllegalStateException unchecked = new IllegalStateException("unchecked");
+        final Callable<String> throwingChecked = () -> {
+            throw checked;
+        };
+        final Callable<String> throwingUnchecked = () -> {
+            throw unchecked;
+        };
+        final InvocationInterceptor passing = Invocation::proceed;
+
+        for (List<InvocationInterceptor> interceptors : Arrays.asList(
+                Collections.<InvocationInterceptor>emptyList(), Collections.singletonList(passing))) {
+            final Callable<String> checkedAdapter = createWrapperAdapter(Callable.class, () -> "base",
+                    throwingChecked, interceptors);
+            assertSame(checked, assertThrowsExactly(Exception.class, checkedAdapter::call));
+
+            final Callable<String> uncheckedAdapter = createWrapperAdapter(Callable.class, () -> "base",
+                    throwingUnchecked, interceptors);
+            assertSame(unchecked, assertThrowsExactly(IllegalStateException.class, uncheckedAdapter::call));
+        }
+    }
+
+    @Test
+    void factoryInterceptors() {
+        final AtomicInteger count = new AtomicInteger();
+        final InvocationInterceptor counting = invocation -> {
+            count.incrementAndGet();
+            return invocation.proceed();
+        };
+        final WrapperAdapterFactory<Executor> factory = WrapperAdapterFactory.newFactory(Executor.class);
+        final WrapperAdapterFactory<Executor> intercepted = factory.withInterceptors(Collections.singletonList(counting));
+
+        final Executor plain = factory.createWrapperAdapter(BASE, new ExistedExecutorWrapper(BASE));
+        final Executor adapter = intercepted.createWrapperAdapter(BASE, new ExistedExecutorWrapper(BASE));
+        assertSame(plain.getClass(), adapter.getClass());
+
+        plain.execute(() -> {
+        });
+        assertEquals(0, count.get());
+        adapter.execute(() -> {
+        });
+        assertEquals(1, count.get());
+
+        intercepted.withInterceptors(Collections.emptyList())
+                .createWrapperAdapter(BASE, new ExistedExecutorWrapper(BASE)).execute(() -> {
+                });
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    void nullInterceptors() {
+        final ExistedExecutorWrapper existed = new ExistedExecutorWrapper(BASE);
+        assertThrows(NullPointerException.class, () ->
+                createWrapperAdapter(Executor.class, BASE, existed, (List<InvocationInterceptor>) null));
+        assertThrows(NullPointerException.class, () ->
+                createWrapperAdapter(Executor.class, BASE, existed, Collections.singletonList(null)));
+        assertThrows(NullPointerException.class, () ->
+                WrapperAdapterFactory.newFactory(Executor.class).withInterceptors(Arrays.asList(i -> null, null)));
+    }
+}
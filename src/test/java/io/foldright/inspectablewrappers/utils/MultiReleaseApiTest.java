@@ -0,0 +1,109 @@
+package io.foldright.inspectablewrappers.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * Checks that the Java 11+ overlay classes of the multi-release jar({@code src/main/java11})
+ * have the same public API as the Java 8 baseline classes({@code src/main/java}).
+ * <p>
+ * Checked in the surefire run on the classes directory; in the multi-release jar on Java 11+,
+ * the baseline class path resolves to the overlay class too, so the check passes trivially there.
+ */
+class MultiReleaseApiTest {
+    private static final int OVERLAY_VERSION = 11;
+
+    @Test
+    void attachableDelegate() throws Exception {
+        assertSameApi(AttachableDelegate.class);
+    }
+
+    private static void assertSameApi(Class<?> loaded) throws Exception {
+        final String path = loaded.getName().replace('.', '/') + ".class";
+        final URL overlay = loaded.getClassLoader().getResource("META-INF/versions/" + OVERLAY_VERSION + "/" + path);
+        // the overlay classes are compiled only by the JDK 11+ builds
+        assumeTrue(overlay != null, "no overlay class of " + loaded.getName());
+
+        final Class<?> baseline = new SingleClassLoader(loaded, readBytes(loaded.getClassLoader().getResource(path)))
+                .loadClass(loaded.getName());
+        final Class<?> overlayClass = new SingleClassLoader(loaded, readBytes(overlay))
+                .loadClass(loaded.getName());
+
+        assertEquals(apiOf(baseline), apiOf(overlayClass));
+    }
+
+    /**
+     * The public and protected members, and the supertypes of the given class.
+     */
+    private static Set<String> apiOf(Class<?> clazz) {
+        final Set<String> api = new TreeSet<>();
+        api.add("class " + Modifier.toString(clazz.getModifiers()) + " " + clazz.toGenericString());
+        api.add("extends " + clazz.getGenericSuperclass().getTypeName());
+        for (java.lang.reflect.Type i : clazz.getGenericInterfaces()) api.add("implements " + i.getTypeName());
+
+        for (Constructor<?> c : clazz.getDeclaredConstructors()) {
+            if (isApi(c.getModifiers())) api.add(c.toGenericString());
+        }
+        for (Method m : clazz.getDeclaredMethods()) {
+            if (isApi(m.getModifiers()) && !m.isSynthetic()) {
+                api.add(m.toGenericString() + " " + Arrays.toString(m.getAnnotations()));
+            }
+        }
+        for (Field f : clazz.getDeclaredFields()) {
+            if (isApi(f.getModifiers())) api.add(f.toGenericString());
+        }
+        return api;
+    }
+
+    private static boolean isApi(int modifiers) {
+        return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers);
+    }
+
+    private static byte[] readBytes(URL url) throws IOException {
+        try (InputStream in = url.openStream()) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[8192];
+            for (int n; (n = in.read(buf)) > 0; ) out.write(buf, 0, n);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Defines the given class from the given bytes, delegates the other classes to the loader of the given class.
+     */
+    private static final class SingleClassLoader extends ClassLoader {
+        private final String name;
+        private final byte[] bytes;
+
+        SingleClassLoader(Class<?> clazz, byte[] bytes) {
+            super(clazz.getClassLoader());
+            this.name = clazz.getName();
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(className)) return super.loadClass(className, resolve);
+            synchronized (getClassLoadingLock(className)) {
+                Class<?> c = findLoadedClass(className);
+                if (c == null) c = defineClass(className, bytes, 0, bytes.length);
+                return c;
+            }
+        }
+    }
+}
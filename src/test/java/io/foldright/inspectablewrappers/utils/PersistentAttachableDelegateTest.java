@@ -0,0 +1,166 @@
+package io.foldright.inspectablewrappers.utils;
+
+import io.foldright.demo.integration.ExistedExecutorWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.getAttachmentFromWrapperChain;
+import static io.foldright.inspectablewrappers.utils.WrapperAdapterUtils.createWrapperAdapter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class PersistentAttachableDelegateTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void setGetRemove() {
+        final PersistentAttachableDelegate<String, String> attachable = new PersistentAttachableDelegate<>();
+        assertNull(attachable.getAttachment_("k"));
+
+        attachable.setAttachment_("k", "v1");
+        attachable.setAttachment_("k", "v2");
+        attachable.setAttachment_("k2", "v3");
+        assertEquals("v2", attachable.getAttachment_("k"));
+        assertEquals("v3", attachable.getAttachment_("k2"));
+
+        attachable.removeAttachment("k");
+        attachable.removeAttachment("absent");
+        assertNull(attachable.getAttachment_("k"));
+        assertEquals("v3", attachable.getAttachment_("k2"));
+
+        attachable.clearAttachments();
+        assertNull(attachable.getAttachment_("k2"));
+
+        assertThrows(NullPointerException.class, () -> attachable.setAttachment_(null, "v"));
+        assertThrows(NullPointerException.class, () -> attachable.setAttachment_("k", null));
+        assertThrows(NullPointerException.class, () -> attachable.getAttachment_(null));
+    }
+
+    @Test
+    void fork() {
+        final PersistentAttachableDelegate<String, String> attachable = new PersistentAttachableDelegate<>();
+        for (int i = 0; i < 100; i++) attachable.setAttachment_("k" + i, "v" + i);
+
+        final PersistentAttachableDelegate<String, String> forked = attachable.fork();
+        forked.setAttachment_("k0", "forked");
+        forked.removeAttachment("k1");
+        attachable.setAttachment_("k2", "origin");
+
+        assertEquals("v0", attachable.getAttachment_("k0"));
+        assertEquals("v1", attachable.getAttachment_("k1"));
+        assertEquals("forked", forked.getAttachment_("k0"));
+        assertNull(forked.getAttachment_("k1"));
+        assertEquals("v2", forked.getAttachment_("k2"));
+        assertEquals("v99", forked.getAttachment_("k99"));
+
+        forked.clearAttachments();
+        assertEquals("v3", attachable.getAttachment_("k3"));
+    }
+
+    @Test
+    void sameAsHashMap() {
+        final Random random = new Random(42);
+        final Map<Key, Integer> expected = new HashMap<>();
+        final PersistentAttachableDelegate<Key, Integer> attachable = new PersistentAttachableDelegate<>();
+        final List<PersistentAttachableDelegate<Key, Integer>> snapshots = new ArrayList<>();
+        final List<Map<Key, Integer>> expectedSnapshots = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            // the small hash range, to exercise the collisions and the deep branches
+            final Key key = new Key(random.nextInt(2000), random.nextInt(64) * 0x0101_0101);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                attachable.removeAttachment(key);
+            } else {
+                expected.put(key, i);
+                attachable.setAttachment_(key, i);
+            }
+            if (i % 5000 == 0) {
+                snapshots.add(attachable.fork());
+                expectedSnapshots.add(new HashMap<>(expected));
+            }
+        }
+
+        assertSameEntries(expected, attachable);
+        for (int i = 0; i < snapshots.size(); i++) assertSameEntries(expectedSnapshots.get(i), snapshots.get(i));
+
+        for (Key key : new ArrayList<>(expected.keySet())) attachable.removeAttachment(key);
+        for (int id = 0; id < 2000; id++) assertNull(attachable.getAttachment_(new Key(id, 0)));
+    }
+
+    private static void assertSameEntries(Map<Key, Integer> expected, PersistentAttachableDelegate<Key, Integer> attachable) {
+        for (int id = 0; id < 2000; id++) {
+            for (int h = 0; h < 64; h++) {
+                final Key key = new Key(id, h * 0x0101_0101);
+                assertEquals(expected.get(key), attachable.getAttachment_(key), key::toString);
+            }
+        }
+    }
+
+    @Test
+    void concurrentSet() throws Exception {
+        final PersistentAttachableDelegate<Integer, Integer> attachable = new PersistentAttachableDelegate<>();
+        final int threadCount = 4, perThread = 2000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t * perThread;
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int i = offset; i < offset + perThread; i++) attachable.setAttachment_(i, i);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        for (int i = 0; i < threadCount * perThread; i++) assertEquals(i, attachable.getAttachment_(i));
+    }
+
+    @Test
+    void onWrapperChain() {
+        final PersistentAttachableDelegate<String, String> attachable = new PersistentAttachableDelegate<>();
+        attachable.setAttachment_("busy", "very, very busy!");
+
+        final Executor adapter = createWrapperAdapter(Executor.class, BASE, new ExistedExecutorWrapper(BASE), attachable);
+        final Executor rebuilt = createWrapperAdapter(Executor.class, BASE, new ExistedExecutorWrapper(BASE), attachable.fork());
+        assertEquals("very, very busy!", getAttachmentFromWrapperChain(adapter, "busy"));
+        assertEquals("very, very busy!", getAttachmentFromWrapperChain(rebuilt, "busy"));
+    }
+
+    /**
+     * The key with the given hash code, the different keys may have the same hash code.
+     */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).id == id && ((Key) o).hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{id=" + id + ", hash=" + hash + '}';
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.foldright.inspectablewrappers.utils;
+
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.Wrapper;
+import io.foldright.inspectablewrappers.WrapperAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.foldright.inspectablewrappers.Inspector.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class WrapperAdapterFactoryTest {
+    private static final Executor DUMMY = Runnable::run;
+
+    @Test
+    void createWrapperAdapter() {
+        final WrapperAdapterFactory<Executor> factory = WrapperAdapterFactory.newFactory(Executor.class, Tag.class);
+        final ExistedExecutor existed = new ExistedExecutor(DUMMY);
+
+        final Executor adapter = factory.createWrapperAdapter(DUMMY, existed);
+        assertInstanceOf(WrapperAdapter.class, adapter);
+        assertInstanceOf(Tag.class, adapter);
+        assertFalse(adapter instanceof Attachable);
+        assertTrue(adapter.toString().startsWith("[WrapperAdapter proxy created by WrapperAdapterUtils] "));
+
+        assertSame(DUMMY, unwrap(adapter));
+        assertSame(existed, ((WrapperAdapter<?>) adapter).adaptee_());
+        assertTrue(containsInstanceTypeOnWrapperChain(adapter, ExistedExecutor.class));
+
+        // the proxy class is reused
+        assertSame(adapter.getClass(), factory.createWrapperAdapter(DUMMY, existed).getClass());
+        // the same proxy class as WrapperAdapterUtils, as the adaptee and the proxy interfaces share the class loader
+        assertSame(adapter.getClass(),
+                WrapperAdapterUtils.createWrapperAdapter(Executor.class, DUMMY, existed, Tag.class).getClass());
+
+        adapter.execute(existed::count);
+        assertEquals(1, existed.counter.get());
+    }
+
+    @Test
+    void createAttachableWrapperAdapter() {
+        final WrapperAdapterFactory<Executor> factory = WrapperAdapterFactory.newAttachableFactory(Executor.class);
+        assertTrue(factory.isAttachable());
+        assertSame(Executor.class, factory.getBizInterface());
+
+        final AttachableDelegate<String, String> attachable = new AttachableDelegate<>();
+        attachable.setAttachment_("k", "v");
+        final Executor adapter = factory.createWrapperAdapter(DUMMY, new ExistedExecutor(DUMMY), attachable);
+        assertEquals("v", getAttachmentFromWrapperChain(adapter, "k"));
+
+        IllegalStateException e = assertThrowsExactly(IllegalStateException.class,
+                () -> factory.createWrapperAdapter(DUMMY, new ExistedExecutor(DUMMY)));
+        assertEquals("the factory creates Attachable adapters, attachable argument is required", e.getMessage());
+    }
+
+    @Test
+    void createWrapperAdapters() {
+        final WrapperAdapterFactory<Executor> factory = WrapperAdapterFactory.newAttachableFactory(Executor.class);
+        final List<ExistedExecutor> adaptees = Arrays.asList(new ExistedExecutor(DUMMY), new ExistedExecutor(DUMMY));
+
+        final List<Executor> adapters = factory.createWrapperAdapters(
+                Collections.nCopies(2, DUMMY), adaptees, AttachableDelegate::new);
+        assertEquals(2, adapters.size());
+        for (int i = 0; i < adapters.size(); i++) {
+            assertSame(adaptees.get(i), ((WrapperAdapter<?>) adapters.get(i)).adaptee_());
+        }
+
+        IllegalArgumentException e = assertThrowsExactly(IllegalArgumentException.class,
+                () -> factory.createWrapperAdapters(Collections.singletonList(DUMMY), adaptees, AttachableDelegate::new));
+        assertEquals("size of underlyings(1) is not equal to size of adaptees(2)", e.getMessage());
+    }
+
+    @Test
+    void nonPublicInterface() {
+        final WrapperAdapterFactory<PackagePrivateBiz> factory = WrapperAdapterFactory.newFactory(PackagePrivateBiz.class);
+        final PackagePrivateBiz base = () -> 1;
+        final PackagePrivateBiz adapter = factory.createWrapperAdapter(base, () -> 2);
+        assertEquals(2, adapter.get());
+        assertSame(base, unwrap(adapter));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void checkTypeRequirements() {
+        IllegalArgumentException e = assertThrowsExactly(IllegalArgumentException.class,
+                () -> WrapperAdapterFactory.newFactory((Class) Wrapper.class));
+        assertEquals("io.foldright.inspectablewrappers.Wrapper is auto implemented by proxy, not a valid biz interface",
+                e.getMessage());
+
+        e = assertThrowsExactly(IllegalArgumentException.class,
+                () -> WrapperAdapterFactory.newFactory(Executor.class, Runnable.class));
+        assertEquals("tagInterfaces[1](java.lang.Runnable) is not a tag interface", e.getMessage());
+
+        final WrapperAdapterFactory<Executor> factory = WrapperAdapterFactory.newFactory(Executor.class);
+        e = assertThrowsExactly(IllegalArgumentException.class,
+                () -> factory.createWrapperAdapter(DUMMY, new WrongAdaptee()));
+        assertEquals("adaptee(io.foldright.inspectablewrappers.utils.WrapperAdapterFactoryTest$WrongAdaptee)" +
+                " is an instance of Wrapper, adapting a Wrapper to a Wrapper is UNNECESSARY", e.getMessage());
+    }
+
+    public interface Tag {
+    }
+
+    interface PackagePrivateBiz {
+        int get();
+    }
+
+    private static class ExistedExecutor implements Executor {
+        final AtomicInteger counter = new AtomicInteger();
+        private final Executor executor;
+
+        ExistedExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        void count() {
+            counter.incrementAndGet();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            executor.execute(command);
+        }
+    }
+
+    private static class WrongAdaptee implements Executor, Wrapper<Executor> {
+        @Override
+        public void execute(Runnable command) {
+        }
+
+        @Override
+        public Executor unwrap_() {
+            return DUMMY;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.foldright.inspectablewrappers.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.foldright.demo.ChattyExecutorWrapper;
+import io.foldright.inspectablewrappers.Attachable;
+import io.foldright.inspectablewrappers.ChainAware;
+import io.foldright.inspectablewrappers.executor.MetricsExecutorWrapper;
+import io.foldright.inspectablewrappers.ReusableWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+
+import static io.foldright.inspectablewrappers.Inspector.getAttachmentFromWrapperChain;
+import static io.foldright.inspectablewrappers.Inspector.getBaseOfWrapperChain;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class WrapperPoolTest {
+    private static final Executor BASE = Runnable::run;
+
+    @Test
+    void recycle() {
+        final WrapperPool<Executor, ContextExecutorWrapper> pool =
+                WrapperPool.newPool(Executor.class, ContextExecutorWrapper::new, 2);
+
+        final ContextExecutorWrapper wrapper = pool.acquire(BASE);
+        wrapper.setAttachment_("traceId", "t1");
+        assertSame(BASE, getBaseOfWrapperChain(wrapper));
+        assertEquals("t1", getAttachmentFromWrapperChain(wrapper, "traceId"));
+
+        pool.release(wrapper);
+        assertTrue(pool.isReleased(wrapper));
+        assertEquals(1, pool.getPooledCount());
+
+        final Executor other = command -> command.run();
+        final ContextExecutorWrapper reused = pool.acquire(other);
+        assertSame(wrapper, reused);
+        assertFalse(pool.isReleased(reused));
+        assertSame(other, getBaseOfWrapperChain(reused));
+        assertNull(reused.getAttachment_("traceId"));
+        assertEquals(0, pool.getPooledCount());
+
+        // the pool of the current thread is bounded
+        final ContextExecutorWrapper w1 = pool.acquire(BASE), w2 = pool.acquire(BASE), w3 = pool.acquire(BASE);
+        pool.release(w1);
+        pool.release(w2);
+        pool.release(w3);
+        assertEquals(2, pool.getPooledCount());
+    }
+
+    @Test
+    void useAfterRelease() {
+        final WrapperPool<Executor, ContextExecutorWrapper> pool =
+                WrapperPool.newPool(Executor.class, ContextExecutorWrapper::new, 2);
+        final ContextExecutorWrapper wrapper = pool.acquire(BASE);
+        pool.release(wrapper);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> wrapper.execute(() -> {
+        }));
+        assertNull(e.getCause());
+        assertThrows(IllegalStateException.class, () -> getBaseOfWrapperChain(wrapper));
+
+        e = assertThrows(IllegalStateException.class, () -> pool.release(wrapper));
+        assertEquals("the wrapper(" + ContextExecutorWrapper.class.getName() + ") is released twice", e.getMessage());
+    }
+
+    @Test
+    void useAfterReleaseInDebugMode() {
+        final WrapperPool<Executor, ContextExecutorWrapper> pool =
+                WrapperPool.newDebugPool(Executor.class, ContextExecutorWrapper::new, 2);
+        final ContextExecutorWrapper wrapper = pool.acquire(BASE);
+        pool.release(wrapper);
+
+        final IllegalStateException e = assertThrows(IllegalStateException.class, () -> wrapper.execute(() -> {
+        }));
+        assertNotNull(e.getCause());
+        assertEquals("the wrapper was released here", e.getCause().getMessage());
+        assertTrue(pool.isReleased(wrapper));
+
+        // the released wrapper is quarantined, a stale reference still fails after the later acquire
+        final ContextExecutorWrapper acquired = pool.acquire(BASE);
+        assertNotSame(wrapper, acquired);
+        assertEquals(0, pool.getPooledCount());
+        assertThrows(IllegalStateException.class, () -> wrapper.execute(() -> {
+        }));
+    }
+
+    @Test
+    void chainCapturingRejected() {
+        final WrapperPool<Executor, ChainAwareExecutorWrapper> pool =
+                WrapperPool.newPool(Executor.class, ChainAwareExecutorWrapper::new, 2);
+        assertThrows(IllegalStateException.class, () -> pool.acquire(BASE));
+
+        final ContextExecutorWrapper wrapper =
+                WrapperPool.newPool(Executor.class, ContextExecutorWrapper::new, 2).acquire(BASE);
+        assertThrows(IllegalArgumentException.class, () -> new ChainAwareDelegate<>(wrapper));
+        assertThrows(IllegalArgumentException.class, () -> new MetricsExecutorWrapper(wrapper));
+        // below a non-conforming layer
+        final Executor chatty = new ChattyExecutorWrapper(wrapper);
+        assertThrows(IllegalArgumentException.class, () -> new ChainAwareDelegate<>(chatty));
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> WrapperPool.newPool(Executor.class, ContextExecutorWrapper::new, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> WrapperPool.newPool(Object.class, ContextExecutorWrapper::new, 1));
+    }
+
+    /**
+     * The reusable wrapper capturing the wrapper chain, rejected by the pool.
+     */
+    private static final class ChainAwareExecutorWrapper
+            implements Executor, ReusableWrapper<Executor>, ChainAware<Executor> {
+        private Executor executor = BASE;
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            return executor;
+        }
+
+        @Override
+        public void rebind_(@NonNull Executor underlying) {
+            executor = underlying;
+        }
+
+        @Override
+        public void reset_() {
+        }
+
+        @NonNull
+        @Override
+        public Executor base_() {
+            return executor;
+        }
+
+        @Override
+        public int depth_() {
+            return 1;
+        }
+    }
+
+    /**
+     * The per-request context-binding executor wrapper.
+     */
+    private static final class ContextExecutorWrapper
+            implements Executor, ReusableWrapper<Executor>, Attachable<String, String> {
+        private final AttachableDelegate<String, String> attachable = new AttachableDelegate<>();
+        private Executor executor = BASE;
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @NonNull
+        @Override
+        public Executor unwrap_() {
+            return executor;
+        }
+
+        @Override
+        public void rebind_(@NonNull Executor underlying) {
+            executor = underlying;
+        }
+
+        @Override
+        public void reset_() {
+            attachable.clearAttachments();
+        }
+
+        @Override
+        public void setAttachment_(@NonNull String key, @NonNull String value) {
+            attachable.setAttachment_(key, value);
+        }
+
+        @Override
+        public String getAttachment_(@NonNull String key) {
+            return attachable.getAttachment_(key);
+        }
+    }
+}